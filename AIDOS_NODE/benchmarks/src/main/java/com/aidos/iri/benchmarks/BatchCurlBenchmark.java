@@ -0,0 +1,53 @@
+package com.aidos.iri.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.aidos.iri.hash.AidosBatchCurl;
+import com.aidos.iri.hash.AidosCurl;
+import com.aidos.iri.model.AidosTransaction;
+
+/**
+ * Hashes a batch of transactions, divide by the batch size to compare with {@link CurlBenchmark#transactionHash()}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+public class BatchCurlBenchmark {
+
+    @Param({"1", "2", "8", "64"})
+    public int batchSize;
+
+    private final AidosBatchCurl batchCurl = new AidosBatchCurl();
+    private int[][] trits, hashes;
+
+    @Setup
+    public void setUp() {
+        final SyntheticTangle tangle = new SyntheticTangle(SyntheticTangle.DEFAULT_SEED, batchSize);
+        trits = new int[batchSize][];
+        for (int i = 0; i < batchSize; i++) {
+            trits[i] = tangle.transaction(i).trits();
+        }
+        hashes = new int[batchSize][AidosCurl.HASH_LENGTH];
+    }
+
+    @Benchmark
+    public int[][] transactionHashes() {
+        batchCurl.hash(trits, batchSize, 0, AidosTransaction.TRINARY_SIZE, hashes);
+        return hashes;
+    }
+}
@@ -0,0 +1,56 @@
+package com.aidos.iri.benchmarks;
+
+import java.io.File;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.aidos.iri.AidosBundle;
+
+/**
+ * Bundles are validated once, later constructions only load and chain them, both costs show up in the average.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+public class BundleBenchmark {
+
+    @Param({"10000"})
+    public int tangleSize;
+
+    private File dbPath;
+    private SyntheticTangle tangle;
+    private final Random random = new Random(SyntheticTangle.DEFAULT_SEED);
+
+    @Setup
+    public void setUp() throws Exception {
+        dbPath = SyntheticTangle.openStorage();
+        tangle = new SyntheticTangle(SyntheticTangle.DEFAULT_SEED, tangleSize);
+        tangle.store();
+    }
+
+    @TearDown
+    public void tearDown() {
+        SyntheticTangle.closeStorage(dbPath);
+    }
+
+    @Benchmark
+    public AidosBundle loadBundle() {
+        return new AidosBundle(tangle.transaction(random.nextInt(tangleSize)).bundle);
+    }
+}
@@ -0,0 +1,102 @@
+package com.aidos.iri.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.aidos.iri.model.AidosTransaction;
+import com.aidos.iri.utils.AidosConverter;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+public class ConverterBenchmark {
+
+    private int[] trits;
+    private String trytes;
+    private byte[] bytes;
+    private final int[] decodedTrits = new int[AidosTransaction.TRINARY_SIZE];
+
+    @Setup
+    public void setUp() {
+        trits = new SyntheticTangle(SyntheticTangle.DEFAULT_SEED, 1).transaction(0).trits();
+        trytes = AidosConverter.trytes(trits);
+        bytes = AidosConverter.bytes(trits);
+    }
+
+    @Benchmark
+    public int[] tritsFromTrytes() {
+        return AidosConverter.trits(trytes);
+    }
+
+    @Benchmark
+    public String trytesFromTrits() {
+        return AidosConverter.trytes(trits);
+    }
+
+    @Benchmark
+    public byte[] bytesFromTrits() {
+        return AidosConverter.bytes(trits);
+    }
+
+    @Benchmark
+    public int[] tritsFromBytes() {
+        AidosConverter.getTrits(bytes, decodedTrits);
+        return decodedTrits;
+    }
+
+    @Benchmark
+    public String trytesFromBytes() {
+        return AidosConverter.trytes(bytes, 0, AidosTransaction.TRINARY_SIZE);
+    }
+
+    @Benchmark
+    public byte[] bytesFromTrytes() {
+        return AidosConverter.bytes(trytes);
+    }
+
+    @Benchmark
+    public String legacyTrytesFromBytes() { // Bytes to trits to trytes as the converter used to
+        AidosConverter.getTrits(bytes, decodedTrits);
+        return legacyTrytes(decodedTrits);
+    }
+
+    @Benchmark
+    public int[] legacyTritsFromTrytes() {
+        final int[] trits = new int[trytes.length() * AidosConverter.NUMBER_OF_TRITS_IN_A_TRYTE];
+        for (int i = 0; i < trytes.length(); i++) {
+            AidosConverter.copyTrits(AidosConverter.TRYTE_ALPHABET.indexOf(trytes.charAt(i)), trits, i * AidosConverter.NUMBER_OF_TRITS_IN_A_TRYTE, AidosConverter.NUMBER_OF_TRITS_IN_A_TRYTE);
+        }
+        return trits;
+    }
+
+    @Benchmark
+    public long longValue() {
+        return AidosConverter.longValue(trits, AidosTransaction.VALUE_TRINARY_OFFSET, AidosTransaction.VALUE_USABLE_TRINARY_SIZE);
+    }
+
+    private static String legacyTrytes(final int[] trits) {
+
+        final StringBuilder trytes = new StringBuilder();
+        for (int i = 0; i < trits.length / AidosConverter.NUMBER_OF_TRITS_IN_A_TRYTE; i++) {
+            int j = trits[i * 3] + trits[i * 3 + 1] * 3 + trits[i * 3 + 2] * 9;
+            if (j < 0) {
+                j += AidosConverter.TRYTE_ALPHABET.length();
+            }
+            trytes.append(AidosConverter.TRYTE_ALPHABET.charAt(j));
+        }
+        return trytes.toString();
+    }
+}
@@ -0,0 +1,56 @@
+package com.aidos.iri.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.aidos.iri.hash.AidosCurl;
+import com.aidos.iri.model.AidosTransaction;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+public class CurlBenchmark {
+
+    private final AidosCurl curl = new AidosCurl();
+    private final int[] hash = new int[AidosCurl.HASH_LENGTH];
+    private int[] trits;
+
+    @Setup
+    public void setUp() {
+        trits = new SyntheticTangle(SyntheticTangle.DEFAULT_SEED, 1).transaction(0).trits();
+    }
+
+    @Benchmark
+    public int[] transactionHash() {
+        curl.reset();
+        curl.absorb(trits, 0, AidosTransaction.TRINARY_SIZE);
+        curl.squeeze(hash, 0, hash.length);
+        return hash;
+    }
+
+    @Benchmark
+    public int[] absorbHash() {
+        curl.reset();
+        curl.absorb(trits, 0, AidosCurl.HASH_LENGTH);
+        return trits;
+    }
+
+    @Benchmark
+    public int[] squeezeHash() {
+        curl.squeeze(hash, 0, hash.length);
+        return hash;
+    }
+}
@@ -0,0 +1,63 @@
+package com.aidos.iri.benchmarks;
+
+import java.io.File;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.aidos.iri.AidosLedger;
+import com.aidos.iri.AidosMilestone;
+
+/**
+ * Rebuilds the ledger from the snapshot up to a milestone approving the whole synthetic tangle.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 10)
+public class LedgerBenchmark {
+
+    @Param({"100000"})
+    public int tangleSize;
+
+    private File dbPath;
+    private SyntheticTangle tangle;
+
+    @Setup
+    public void setUp() throws Exception {
+        dbPath = SyntheticTangle.openStorage();
+        tangle = new SyntheticTangle(SyntheticTangle.DEFAULT_SEED, tangleSize);
+        tangle.store();
+    }
+
+    @TearDown
+    public void tearDown() {
+        SyntheticTangle.closeStorage(dbPath);
+    }
+
+    @Setup(Level.Iteration)
+    public void dropCheckpoint() throws Exception { // Without a checkpoint the stamps are cleared, so nothing is skipped
+        new File(dbPath, "ledger.iri").delete();
+        AidosLedger.instance().init();
+    }
+
+    @Benchmark
+    public AidosLedger.State rebuildLedger() {
+        AidosLedger.instance().updateSolidMilestone(SyntheticTangle.hash(tangle.transaction(tangleSize - 1)), AidosMilestone.MILESTONE_START_INDEX + 1);
+        return AidosLedger.instance().state();
+    }
+}
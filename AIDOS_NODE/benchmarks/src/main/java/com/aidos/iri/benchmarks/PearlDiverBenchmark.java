@@ -0,0 +1,58 @@
+package com.aidos.iri.benchmarks;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.aidos.iri.hash.AidosPearlDiver;
+
+/**
+ * Proof of work is a search, so single shots with a fixed sequence of transactions are measured and averaged.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 5)
+@Measurement(iterations = 50)
+public class PearlDiverBenchmark {
+
+    @Param({"9", "12", "15"})
+    public int minWeightMagnitude;
+
+    @Param({"1"})
+    public int numberOfThreads;
+
+    private final AidosPearlDiver pearlDiver = new AidosPearlDiver();
+    private final Random random = new Random(SyntheticTangle.DEFAULT_SEED);
+    private int[] template, trits;
+
+    @Setup
+    public void setUp() {
+        template = new SyntheticTangle(SyntheticTangle.DEFAULT_SEED, 1).transaction(0).trits();
+    }
+
+    @Setup(Level.Invocation)
+    public void nextTransaction() {
+        trits = Arrays.copyOf(template, AidosPearlDiver.TRANSACTION_LENGTH);
+        System.arraycopy(SyntheticTangle.randomTrits(random, 81), 0, trits, AidosPearlDiver.TRANSACTION_LENGTH - 81, 81);
+    }
+
+    @Benchmark
+    public boolean search() {
+        return pearlDiver.search(trits, minWeightMagnitude, numberOfThreads);
+    }
+}
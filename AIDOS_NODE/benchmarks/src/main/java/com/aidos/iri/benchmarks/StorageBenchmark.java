@@ -0,0 +1,77 @@
+package com.aidos.iri.benchmarks;
+
+import java.io.File;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.aidos.iri.model.AidosTransaction;
+import com.aidos.iri.model.AidosTransactionView;
+import com.aidos.iri.service.storage.AidosStorageTransactions;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+public class StorageBenchmark {
+
+    @Param({"100000"})
+    public int tangleSize;
+
+    private File dbPath;
+    private SyntheticTangle tangle;
+    private long[] pointers;
+
+    @State(Scope.Thread)
+    public static class Lookup {
+
+        private final Random random = new Random(SyntheticTangle.DEFAULT_SEED);
+        private final AidosTransactionView view = new AidosTransactionView();
+    }
+
+    @Setup
+    public void setUp() throws Exception {
+        dbPath = SyntheticTangle.openStorage();
+        tangle = new SyntheticTangle(SyntheticTangle.DEFAULT_SEED, tangleSize);
+        tangle.store();
+        pointers = new long[tangleSize];
+        for (int i = 0; i < tangleSize; i++) {
+            pointers[i] = AidosStorageTransactions.instance().transactionPointer(tangle.transaction(i).hash);
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        SyntheticTangle.closeStorage(dbPath);
+    }
+
+    @Benchmark
+    public long transactionPointer(final Lookup lookup) {
+        return AidosStorageTransactions.instance().transactionPointer(tangle.transaction(lookup.random.nextInt(tangleSize)).hash);
+    }
+
+    @Benchmark
+    public AidosTransaction loadTransaction(final Lookup lookup) {
+        return AidosStorageTransactions.instance().loadTransaction(pointers[lookup.random.nextInt(tangleSize)]);
+    }
+
+    @Benchmark
+    public long loadTransactionView(final Lookup lookup) {
+        final AidosTransactionView view = AidosStorageTransactions.instance().loadTransaction(pointers[lookup.random.nextInt(tangleSize)], lookup.view);
+        return view.value() + view.trunkTransactionPointer() + view.branchTransactionPointer();
+    }
+}
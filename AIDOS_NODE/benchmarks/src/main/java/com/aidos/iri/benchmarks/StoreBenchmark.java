@@ -0,0 +1,56 @@
+package com.aidos.iri.benchmarks;
+
+import java.io.File;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Stores the whole synthetic tangle, with all the indexes being updated, into a fresh storage per iteration.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 10)
+public class StoreBenchmark {
+
+    @Param({"10000"})
+    public int tangleSize;
+
+    private SyntheticTangle tangle;
+    private File dbPath;
+
+    @Setup
+    public void setUp() {
+        tangle = new SyntheticTangle(SyntheticTangle.DEFAULT_SEED, tangleSize);
+    }
+
+    @Setup(Level.Iteration)
+    public void openStorage() throws Exception {
+        dbPath = SyntheticTangle.openStorage();
+    }
+
+    @TearDown(Level.Iteration)
+    public void closeStorage() {
+        SyntheticTangle.closeStorage(dbPath);
+    }
+
+    @Benchmark
+    public void storeTransactions() {
+        tangle.store();
+    }
+}
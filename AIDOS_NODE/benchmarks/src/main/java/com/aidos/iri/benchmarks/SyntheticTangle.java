@@ -0,0 +1,117 @@
+package com.aidos.iri.benchmarks;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.apache.commons.io.FileUtils;
+
+import com.aidos.iri.AidosLedger;
+import com.aidos.iri.conf.AidosConfiguration;
+import com.aidos.iri.conf.AidosConfiguration.DefaultConfSettings;
+import com.aidos.iri.hash.AidosCurl;
+import com.aidos.iri.model.AidosHash;
+import com.aidos.iri.model.AidosTransaction;
+import com.aidos.iri.service.storage.AidosStorage;
+import com.aidos.iri.service.storage.AidosStorageTransactions;
+
+/**
+ * Reproducible tangle for benchmarks: the same seed and size always give the same transactions, so results can be
+ * compared between releases. Every transaction is a valid zero value bundle of its own which approves two of the
+ * most recent transactions, the first ones approve the genesis.
+ */
+public class SyntheticTangle {
+
+    public static final long DEFAULT_SEED = 0x41494430534L;
+
+    private static final int WINDOW = 32; // Parents are picked among that many most recent transactions
+    private static final int NUMBER_OF_ADDRESSES = 1024;
+
+    private final List<AidosTransaction> transactions;
+
+    public SyntheticTangle(final long seed, final int size) {
+
+        final Random random = new Random(seed);
+        final int[][] addresses = new int[NUMBER_OF_ADDRESSES][];
+        for (int i = 0; i < addresses.length; i++) {
+            addresses[i] = randomTrits(random, AidosTransaction.ADDRESS_TRINARY_SIZE);
+        }
+
+        transactions = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            final AidosHash trunk = parent(random, i), branch = parent(random, i);
+            transactions.add(transaction(random, addresses[random.nextInt(addresses.length)], trunk, branch));
+        }
+    }
+
+    public int size() {
+        return transactions.size();
+    }
+
+    public AidosTransaction transaction(final int index) {
+        return transactions.get(index);
+    }
+
+    public List<AidosTransaction> transactions() {
+        return transactions;
+    }
+
+    public void store() { // Parents go first, so every transaction is stored solid
+        for (final AidosTransaction transaction : transactions) {
+            AidosStorageTransactions.instance().storeTransaction(transaction.hash, transaction, true);
+        }
+    }
+
+    public static File openStorage() throws IOException { // Storage and ledger in a fresh temporary directory
+        final File dbPath = Files.createTempDirectory("aidos-benchmark").toFile();
+        AidosConfiguration.put(DefaultConfSettings.DB_PATH, dbPath.getAbsolutePath());
+        AidosStorage.instance().init();
+        AidosLedger.instance().init();
+        return dbPath;
+    }
+
+    public static void closeStorage(final File dbPath) {
+        AidosLedger.instance().shutdown();
+        AidosStorage.instance().shutdown();
+        FileUtils.deleteQuietly(dbPath);
+    }
+
+    private AidosHash parent(final Random random, final int index) {
+        return index == 0 ? AidosHash.NULL_HASH : hash(transactions.get(index - 1 - random.nextInt(Math.min(index, WINDOW))));
+    }
+
+    private static AidosTransaction transaction(final Random random, final int[] address, final AidosHash trunk, final AidosHash branch) {
+
+        // Value, timestamp and indexes stay zero
+        final int[] trits = new int[AidosTransaction.TRINARY_SIZE];
+        System.arraycopy(randomTrits(random, AidosTransaction.SIGNATURE_MESSAGE_FRAGMENT_TRINARY_SIZE), 0, trits, AidosTransaction.SIGNATURE_MESSAGE_FRAGMENT_TRINARY_OFFSET, AidosTransaction.SIGNATURE_MESSAGE_FRAGMENT_TRINARY_SIZE);
+        System.arraycopy(address, 0, trits, AidosTransaction.ADDRESS_TRINARY_OFFSET, AidosTransaction.ADDRESS_TRINARY_SIZE);
+        System.arraycopy(randomTrits(random, AidosTransaction.TAG_TRINARY_SIZE), 0, trits, AidosTransaction.TAG_TRINARY_OFFSET, AidosTransaction.TAG_TRINARY_SIZE);
+
+        final AidosCurl bundleHash = new AidosCurl();
+        bundleHash.absorb(trits, AidosTransaction.ESSENCE_TRINARY_OFFSET, AidosTransaction.ESSENCE_TRINARY_SIZE);
+        bundleHash.squeeze(trits, AidosTransaction.BUNDLE_TRINARY_OFFSET, AidosTransaction.BUNDLE_TRINARY_SIZE);
+
+        System.arraycopy(trunk.trits(), 0, trits, AidosTransaction.TRUNK_TRANSACTION_TRINARY_OFFSET, AidosTransaction.TRUNK_TRANSACTION_TRINARY_SIZE);
+        System.arraycopy(branch.trits(), 0, trits, AidosTransaction.BRANCH_TRANSACTION_TRINARY_OFFSET, AidosTransaction.BRANCH_TRANSACTION_TRINARY_SIZE);
+        final int nonceOffset = AidosTransaction.BRANCH_TRANSACTION_TRINARY_OFFSET + AidosTransaction.BRANCH_TRANSACTION_TRINARY_SIZE;
+        System.arraycopy(randomTrits(random, AidosTransaction.TRINARY_SIZE - nonceOffset), 0, trits, nonceOffset, AidosTransaction.TRINARY_SIZE - nonceOffset);
+
+        return new AidosTransaction(trits);
+    }
+
+    public static AidosHash hash(final AidosTransaction transaction) {
+        return new AidosHash(transaction.hash, 0, AidosTransaction.HASH_SIZE);
+    }
+
+    public static int[] randomTrits(final Random random, final int length) {
+        final int[] trits = new int[length];
+        for (int i = 0; i < length; i++) {
+            trits[i] = random.nextInt(3) - 1;
+        }
+        return trits;
+    }
+}
@@ -0,0 +1,114 @@
+package com.aidos.iri.benchmarks;
+
+import java.io.File;
+import java.util.HashSet;
+import java.util.LinkedList;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.aidos.iri.model.AidosTransactionView;
+import com.aidos.iri.service.storage.AidosStorageScratchpad;
+import com.aidos.iri.service.storage.AidosStorageTransactions;
+import com.aidos.iri.service.storage.AidosTraversalFlags;
+import com.aidos.iri.utils.AidosLongQueue;
+import com.aidos.iri.utils.AidosLongSet;
+
+/**
+ * Walks the whole synthetic tangle back from its last transaction, once with boxed collections as the node used to
+ * and once with the primitive ones, run with "-prof gc" to compare the allocation rates.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+public class TraversalBenchmark {
+
+    @Param({"100000"})
+    public int tangleSize;
+
+    private File dbPath;
+    private long startPointer;
+
+    @Setup
+    public void setUp() throws Exception {
+        dbPath = SyntheticTangle.openStorage();
+        final SyntheticTangle tangle = new SyntheticTangle(SyntheticTangle.DEFAULT_SEED, tangleSize);
+        tangle.store();
+        startPointer = AidosStorageTransactions.instance().transactionPointer(tangle.transaction(tangleSize - 1).hash);
+    }
+
+    @TearDown
+    public void tearDown() {
+        SyntheticTangle.closeStorage(dbPath);
+    }
+
+    @Benchmark
+    public int boxedWalk() {
+        final AidosTransactionView transaction = new AidosTransactionView();
+        final Set<Long> analyzedTransactions = new HashSet<>();
+        final Queue<Long> nonAnalyzedTransactions = new LinkedList<>();
+        nonAnalyzedTransactions.offer(startPointer);
+        Long pointer;
+        while ((pointer = nonAnalyzedTransactions.poll()) != null) {
+            if (analyzedTransactions.add(pointer)) {
+                AidosStorageTransactions.instance().loadTransaction(pointer, transaction);
+                nonAnalyzedTransactions.offer(transaction.trunkTransactionPointer());
+                nonAnalyzedTransactions.offer(transaction.branchTransactionPointer());
+            }
+        }
+        return analyzedTransactions.size();
+    }
+
+    @Benchmark
+    public int primitiveWalk() {
+        final AidosTransactionView transaction = new AidosTransactionView();
+        final AidosLongSet analyzedTransactions = new AidosLongSet();
+        final AidosLongQueue nonAnalyzedTransactions = new AidosLongQueue();
+        nonAnalyzedTransactions.offer(startPointer);
+        while (!nonAnalyzedTransactions.isEmpty()) {
+            final long pointer = nonAnalyzedTransactions.poll();
+            if (analyzedTransactions.add(pointer)) {
+                AidosStorageTransactions.instance().loadTransaction(pointer, transaction);
+                nonAnalyzedTransactions.offer(transaction.trunkTransactionPointer());
+                nonAnalyzedTransactions.offer(transaction.branchTransactionPointer());
+            }
+        }
+        return analyzedTransactions.size();
+    }
+
+    @Benchmark
+    public int flaggedWalk() {
+        int numberOfAnalyzedTransactions = 0;
+        try (final AidosTraversalFlags analyzedTransactions = AidosStorageScratchpad.instance().traversalFlags()) {
+            final AidosTransactionView transaction = new AidosTransactionView();
+            final AidosLongQueue nonAnalyzedTransactions = new AidosLongQueue();
+            nonAnalyzedTransactions.offer(startPointer);
+            while (!nonAnalyzedTransactions.isEmpty()) {
+                final long pointer = nonAnalyzedTransactions.poll();
+                if (analyzedTransactions.set(pointer)) {
+                    numberOfAnalyzedTransactions++;
+                    AidosStorageTransactions.instance().loadTransaction(pointer, transaction);
+                    nonAnalyzedTransactions.offer(transaction.trunkTransactionPointer());
+                    nonAnalyzedTransactions.offer(transaction.branchTransactionPointer());
+                }
+            }
+        }
+        return numberOfAnalyzedTransactions;
+    }
+}
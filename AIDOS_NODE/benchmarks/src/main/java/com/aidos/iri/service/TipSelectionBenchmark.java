@@ -0,0 +1,65 @@
+package com.aidos.iri.service;
+
+import java.io.File;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.aidos.iri.AidosMilestone;
+import com.aidos.iri.benchmarks.SyntheticTangle;
+import com.aidos.iri.model.AidosHash;
+
+/**
+ * Lives in the service package as tip selection isn't part of the public API of {@link AidosTipsManager}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+public class TipSelectionBenchmark {
+
+    @Param({"10000"})
+    public int tangleSize;
+
+    @Param({"200"})
+    public int milestoneDepth; // Number of transactions stored after the milestone the walk starts from
+
+    @Param({"3"})
+    public int depth;
+
+    private File dbPath;
+    private AidosHash previousMilestone;
+
+    @Setup
+    public void setUp() throws Exception {
+        dbPath = SyntheticTangle.openStorage();
+        final SyntheticTangle tangle = new SyntheticTangle(SyntheticTangle.DEFAULT_SEED, tangleSize);
+        tangle.store();
+        previousMilestone = AidosMilestone.latestSolidSubtangleMilestone;
+        AidosMilestone.latestSolidSubtangleMilestone = SyntheticTangle.hash(tangle.transaction(tangleSize - 1 - milestoneDepth));
+    }
+
+    @TearDown
+    public void tearDown() {
+        AidosMilestone.latestSolidSubtangleMilestone = previousMilestone;
+        SyntheticTangle.closeStorage(dbPath);
+    }
+
+    @Benchmark
+    public AidosHash transactionToApprove() {
+        return AidosTipsManager.transactionToApprove(null, depth);
+    }
+}
@@ -45,6 +45,7 @@ public class Aidos {
         try {
 
             AidosStorage.instance().init();
+            AidosLedger.instance().init();
             AidosNode.instance().init();
             AidosTipsManager.instance().init();
             AidosAPI.instance().init();
@@ -170,6 +171,7 @@ public class Aidos {
                 AidosAPI.instance().shutDown();
                 AidosTipsManager.instance().shutDown();
                 AidosNode.instance().shutdown();
+                AidosLedger.instance().shutdown();
                 AidosStorage.instance().shutdown();
 
             } catch (final Exception e) {
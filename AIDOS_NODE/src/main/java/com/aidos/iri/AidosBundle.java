@@ -12,6 +12,7 @@ import com.aidos.iri.model.AidosTransaction;
 import com.aidos.iri.service.storage.AidosStorageBundle;
 import com.aidos.iri.service.storage.AidosStorageTransactions;
 import com.aidos.iri.utils.AidosConverter;
+import com.aidos.iri.utils.AidosLongList;
 
 /**
  * A bundle is a group of transactions that follow each other from
@@ -59,7 +60,7 @@ public class AidosBundle {
 
                                 final AidosCurl bundleHash = new AidosCurl();
                                 for (final AidosTransaction transaction2 : instanceTransactions) {
-                                    bundleHash.absorb(transaction2.trits(), AidosTransaction.ESSENCE_TRINARY_OFFSET, AidosTransaction.ESSENCE_TRINARY_SIZE);
+                                    bundleHash.absorb(transaction2.bytes, AidosTransaction.ESSENCE_TRINARY_OFFSET, AidosTransaction.ESSENCE_TRINARY_SIZE);
                                 }
                                 final int[] bundleHashTrits = new int[AidosTransaction.BUNDLE_TRINARY_SIZE];
                                 bundleHash.squeeze(bundleHashTrits, 0, bundleHashTrits.length);
@@ -78,7 +79,7 @@ public class AidosBundle {
 
                                                 address.absorb(
                                                         AidosISS.digest(Arrays.copyOfRange(normalizedBundle, offset, offset = (offset + AidosISS.NUMBER_OF_FRAGMENT_CHUNKS) % (AidosCurl.HASH_LENGTH / AidosConverter.NUMBER_OF_TRITS_IN_A_TRYTE)),
-                                                        Arrays.copyOfRange(instanceTransactions.get(j).trits(), AidosTransaction.SIGNATURE_MESSAGE_FRAGMENT_TRINARY_OFFSET, AidosTransaction.SIGNATURE_MESSAGE_FRAGMENT_TRINARY_OFFSET + AidosTransaction.SIGNATURE_MESSAGE_FRAGMENT_TRINARY_SIZE)),
+                                                        AidosConverter.trits(instanceTransactions.get(j).bytes, AidosTransaction.SIGNATURE_MESSAGE_FRAGMENT_TRINARY_OFFSET, AidosTransaction.SIGNATURE_MESSAGE_FRAGMENT_TRINARY_SIZE)),
                                                         0, AidosCurl.HASH_LENGTH);
 
                                             } while (++j < instanceTransactions.size()
@@ -123,7 +124,9 @@ public class AidosBundle {
 
     private Map<Long, AidosTransaction> loadTransactionsFromTangle(final long bundlePointer) {
         final Map<Long, AidosTransaction> bundleTransactions = new HashMap<>();
-        for (final long transactionPointer : AidosStorageBundle.instance().bundleTransactions(bundlePointer)) {
+        final AidosLongList transactionPointers = AidosStorageBundle.instance().bundleTransactions(bundlePointer);
+        for (int i = 0; i < transactionPointers.size(); i++) {
+            final long transactionPointer = transactionPointers.get(i);
             bundleTransactions
                 .put(transactionPointer, AidosStorageTransactions.instance()
                 .loadTransaction(transactionPointer));
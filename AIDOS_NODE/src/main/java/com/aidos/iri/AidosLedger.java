@@ -0,0 +1,191 @@
+package com.aidos.iri;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.aidos.iri.model.AidosHash;
+import com.aidos.iri.model.AidosTransaction;
+import com.aidos.iri.model.AidosTransactionView;
+import com.aidos.iri.service.storage.AidosAbstractStorage;
+import com.aidos.iri.service.storage.AidosStorageTransactions;
+import com.aidos.iri.utils.AidosLongQueue;
+import com.aidos.iri.utils.AidosLongSet;
+
+/**
+ * Balances at the latest solid milestone, kept materialized so that reading them is a map lookup.
+ * A new solid milestone only applies the transactions it confirms on top of the previous state: its past is walked
+ * down to the transactions already stamped with a confirming milestone index. Stamps live in the transaction cells,
+ * the state itself is checkpointed to a file after every milestone.
+ */
+public class AidosLedger {
+
+    private static final Logger log = LoggerFactory.getLogger(AidosLedger.class);
+
+    private static final AidosLedger instance = new AidosLedger();
+    private static final String CHECKPOINT_FILE_NAME = "ledger.iri";
+    private static final int CHECKPOINT_VERSION = 1;
+
+    public static class State {
+
+        public final AidosHash milestone;
+        public final int milestoneIndex;
+        private final Map<AidosHash, Long> balances;
+
+        private State(final AidosHash milestone, final int milestoneIndex, final Map<AidosHash, Long> balances) {
+            this.milestone = milestone;
+            this.milestoneIndex = milestoneIndex;
+            this.balances = balances;
+        }
+
+        public long balance(final AidosHash address) {
+            final Long balance = balances.get(address);
+            return balance == null ? 0 : balance;
+        }
+    }
+
+    private volatile State state;
+
+    public void init() throws IOException {
+
+        state = loadCheckpoint();
+        if (state == null) {
+
+            // Stamps left without a checkpoint can't be trusted, the ledger is rebuilt from the snapshot
+            AidosStorageTransactions.instance().clearConfirmingMilestoneIndexes();
+            state = new State(AidosHash.NULL_HASH, AidosMilestone.MILESTONE_START_INDEX, new HashMap<>(AidosSnapshot.initialState));
+        }
+        log.info("Ledger state loaded at milestone #" + state.milestoneIndex);
+    }
+
+    public State state() {
+        return state;
+    }
+
+    public synchronized void updateSolidMilestone(final AidosHash milestone, final int milestoneIndex) {
+
+        final State previousState = state;
+        final AidosStorageTransactions storage = AidosStorageTransactions.instance();
+        final long milestonePointer = storage.transactionPointer(milestone.bytes());
+        if (milestoneIndex <= previousState.milestoneIndex || milestonePointer <= 0) {
+            return;
+        }
+
+        final Map<AidosHash, Long> balances = new HashMap<>(previousState.balances);
+
+        final AidosTransactionView transaction = new AidosTransactionView();
+        final byte[] address = new byte[AidosTransaction.ADDRESS_SIZE];
+        final AidosLongSet analyzedTransactions = new AidosLongSet();
+        final AidosLongQueue nonAnalyzedTransactions = new AidosLongQueue();
+        nonAnalyzedTransactions.offer(milestonePointer);
+        while (!nonAnalyzedTransactions.isEmpty()) {
+            final long pointer = nonAnalyzedTransactions.poll();
+
+            // Stamps above the previous index were left by an update which didn't reach its checkpoint
+            final long confirmingMilestoneIndex = storage.confirmingMilestoneIndex(pointer);
+            if ((confirmingMilestoneIndex == 0 || confirmingMilestoneIndex > previousState.milestoneIndex) && analyzedTransactions.add(pointer)) {
+
+                storage.loadTransaction(pointer, transaction);
+
+                final long value = transaction.value();
+                if (value != 0) {
+                    balances.merge(new AidosHash(transaction.address(address), 0, AidosTransaction.ADDRESS_SIZE).intern(), value, Long::sum);
+                }
+                storage.setConfirmingMilestoneIndex(pointer, milestoneIndex);
+
+                nonAnalyzedTransactions.offer(transaction.trunkTransactionPointer());
+                nonAnalyzedTransactions.offer(transaction.branchTransactionPointer());
+            }
+        }
+
+        state = new State(milestone, milestoneIndex, balances);
+        try {
+            saveCheckpoint(state);
+        } catch (final IOException e) {
+            log.error("Failed to save ledger checkpoint:", e);
+        }
+        log.info("Ledger state updated to milestone #" + milestoneIndex + ", " + analyzedTransactions.size() + " transactions applied");
+    }
+
+    public void shutdown() {
+        try {
+            saveCheckpoint(state);
+        } catch (final IOException e) {
+            log.error("Failed to save ledger checkpoint:", e);
+        }
+    }
+
+    private static State loadCheckpoint() {
+
+        final Path path = AidosAbstractStorage.path(CHECKPOINT_FILE_NAME);
+        if (!Files.exists(path)) {
+            return null;
+        }
+        try (final DataInputStream input = new DataInputStream(new BufferedInputStream(Files.newInputStream(path)))) {
+
+            if (input.readInt() != CHECKPOINT_VERSION) {
+                log.warn("Ignoring ledger checkpoint of an unknown version");
+                return null;
+            }
+            final byte[] hash = new byte[AidosHash.SIZE_IN_BYTES];
+            input.readFully(hash);
+            final AidosHash milestone = new AidosHash(hash);
+            final int milestoneIndex = input.readInt();
+
+            final int numberOfBalances = input.readInt();
+            final Map<AidosHash, Long> balances = new HashMap<>(numberOfBalances * 4 / 3 + 1);
+            for (int i = 0; i < numberOfBalances; i++) {
+                input.readFully(hash);
+                balances.put(new AidosHash(hash).intern(), input.readLong());
+            }
+            return new State(milestone, milestoneIndex, balances);
+
+        } catch (final IOException e) {
+            log.warn("Ignoring unreadable ledger checkpoint:", e);
+            return null;
+        }
+    }
+
+    private static void saveCheckpoint(final State state) throws IOException {
+
+        // The stamps must be on disk before a checkpoint names their milestone, or a crash would apply them twice
+        AidosStorageTransactions.instance().force();
+
+        final Path path = AidosAbstractStorage.path(CHECKPOINT_FILE_NAME);
+        final Path temporaryPath = path.resolveSibling(CHECKPOINT_FILE_NAME + ".tmp");
+        try (final FileChannel channel = FileChannel.open(temporaryPath, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+                final DataOutputStream output = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(channel)))) {
+
+            output.writeInt(CHECKPOINT_VERSION);
+            output.write(state.milestone.bytes());
+            output.writeInt(state.milestoneIndex);
+
+            output.writeInt(state.balances.size());
+            for (final Map.Entry<AidosHash, Long> balance : state.balances.entrySet()) {
+                output.write(balance.getKey().bytes());
+                output.writeLong(balance.getValue());
+            }
+            output.flush();
+            channel.force(true);
+        }
+        Files.move(temporaryPath, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    public static AidosLedger instance() {
+        return instance;
+    }
+}
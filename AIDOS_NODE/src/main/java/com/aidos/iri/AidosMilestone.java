@@ -1,12 +1,8 @@
 package com.aidos.iri;
 
 import java.util.Arrays;
-import java.util.HashSet;
-import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
-import java.util.Queue;
-import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 
 import com.aidos.iri.hash.AidosCurl;
@@ -16,9 +12,10 @@ import com.aidos.iri.model.AidosTransaction;
 import com.aidos.iri.service.storage.AidosAbstractStorage;
 import com.aidos.iri.service.storage.AidosStorage;
 import com.aidos.iri.service.storage.AidosStorageAddresses;
-import com.aidos.iri.service.storage.AidosStorageScratchpad;
 import com.aidos.iri.service.storage.AidosStorageTransactions;
 import com.aidos.iri.utils.AidosConverter;
+import com.aidos.iri.utils.AidosLongList;
+import com.aidos.iri.utils.AidosLongSet;
 
 public class AidosMilestone {
 
@@ -32,19 +29,21 @@ public class AidosMilestone {
     public static int latestMilestoneIndex = MILESTONE_START_INDEX;
     public static int latestSolidSubtangleMilestoneIndex = MILESTONE_START_INDEX;
 
-    private static final Set<Long> analyzedMilestoneCandidates = new HashSet<>();
+    private static final AidosLongSet analyzedMilestoneCandidates = new AidosLongSet();
     private static final Map<Integer, AidosHash> milestones = new ConcurrentHashMap<>();
 
     public static void updateLatestMilestone() { // refactor
 
-        for (final Long pointer : AidosStorageAddresses.instance().addressesOf(COORDINATOR)) {
+        final AidosLongList milestoneCandidates = AidosStorageAddresses.instance().addressesOf(COORDINATOR);
+        for (int candidateIndex = 0; candidateIndex < milestoneCandidates.size(); candidateIndex++) {
+            final long pointer = milestoneCandidates.get(candidateIndex);
 
             if (analyzedMilestoneCandidates.add(pointer)) {
 
                 final AidosTransaction transaction = AidosStorageTransactions.instance().loadTransaction(pointer);
                 if (transaction.currentIndex == 0) {
 
-                    final int index = (int) AidosConverter.longValue(transaction.trits(), AidosTransaction.TAG_TRINARY_OFFSET, 15);
+                    final int index = (int) AidosConverter.longValue(transaction.bytes, AidosTransaction.TAG_TRINARY_OFFSET, 15);
                     if (index > latestMilestoneIndex) {
 
                         final AidosBundle bundle = new AidosBundle(transaction.bundle);
@@ -58,7 +57,7 @@ public class AidosMilestone {
 
                                     final int[] trunkTransactionTrits = new int[AidosTransaction.TRUNK_TRANSACTION_TRINARY_SIZE];
                                     AidosConverter.getTrits(transaction.trunkTransaction, trunkTransactionTrits);
-                                    final int[] signatureFragmentTrits = Arrays.copyOfRange(transaction.trits(), AidosTransaction.SIGNATURE_MESSAGE_FRAGMENT_TRINARY_OFFSET, AidosTransaction.SIGNATURE_MESSAGE_FRAGMENT_TRINARY_OFFSET + AidosTransaction.SIGNATURE_MESSAGE_FRAGMENT_TRINARY_SIZE);
+                                    final int[] signatureFragmentTrits = AidosConverter.trits(transaction.bytes, AidosTransaction.SIGNATURE_MESSAGE_FRAGMENT_TRINARY_OFFSET, AidosTransaction.SIGNATURE_MESSAGE_FRAGMENT_TRINARY_SIZE);
 
                                     final int[] hash = AidosISS.address(AidosISS.digest(Arrays.copyOf(AidosISS.normalizedBundle(trunkTransactionTrits), AidosISS.NUMBER_OF_FRAGMENT_CHUNKS), signatureFragmentTrits));
 
@@ -68,9 +67,9 @@ public class AidosMilestone {
                                         final AidosCurl curl = new AidosCurl();
                                         if ((indexCopy & 1) == 0) {
                                             curl.absorb(hash, 0, hash.length);
-                                            curl.absorb(transaction2.trits(), i * AidosCurl.HASH_LENGTH, AidosCurl.HASH_LENGTH);
+                                            curl.absorb(transaction2.bytes, i * AidosCurl.HASH_LENGTH, AidosCurl.HASH_LENGTH);
                                         } else {
-                                            curl.absorb(transaction2.trits(), i * AidosCurl.HASH_LENGTH, AidosCurl.HASH_LENGTH);
+                                            curl.absorb(transaction2.bytes, i * AidosCurl.HASH_LENGTH, AidosCurl.HASH_LENGTH);
                                             
                                             curl.absorb(hash, 0, hash.length);
                                         }
@@ -103,33 +102,9 @@ public class AidosMilestone {
             final AidosHash milestone = milestones.get(milestoneIndex);
             if (milestone != null) {
 
-                boolean solid = true;
-
-                synchronized (AidosStorageScratchpad.instance().getAnalyzedTransactionsFlags()) {
-
-                	AidosStorageScratchpad.instance().clearAnalyzedTransactionsFlags();
-
-                    final Queue<Long> nonAnalyzedTransactions = new LinkedList<>();
-                    nonAnalyzedTransactions.offer(AidosStorageTransactions.instance().transactionPointer(milestone.bytes()));
-                    Long pointer;
-                    while ((pointer = nonAnalyzedTransactions.poll()) != null) {
-
-                        if (AidosStorageScratchpad.instance().setAnalyzedTransactionFlag(pointer)) {
-
-                            final AidosTransaction transaction2 = AidosStorageTransactions.instance().loadTransaction(pointer);
-                            if (transaction2.type == AidosAbstractStorage.PREFILLED_SLOT) {
-                                solid = false;
-                                break;
-
-                            } else {
-                                nonAnalyzedTransactions.offer(transaction2.trunkTransactionPointer);
-                                nonAnalyzedTransactions.offer(transaction2.branchTransactionPointer);
-                            }
-                        }
-                    }
-                }
-
-                if (solid) {
+                // Solidity is tracked by the storage as transactions arrive
+                final long pointer = AidosStorageTransactions.instance().transactionPointer(milestone.bytes());
+                if (pointer > 0 && AidosStorageTransactions.instance().transactionSolid(pointer)) {
                     latestSolidSubtangleMilestone = milestone;
                     latestSolidSubtangleMilestoneIndex = milestoneIndex;
                     return;
@@ -1,29 +1,64 @@
 package com.aidos.iri;
 
-import java.net.DatagramPacket;
 import java.net.InetSocketAddress;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
 
-import com.aidos.iri.service.AidosNode;
+import com.aidos.iri.conf.AidosConfiguration;
+import com.aidos.iri.conf.AidosConfiguration.DefaultConfSettings;
+import com.aidos.iri.utils.AidosRateLimiter;
 
 public class AidosNeighbor {
 
+    private static final int OUTBOUND_QUEUE_SIZE = 1000;
+
     private final InetSocketAddress address;
+
+    // Packets waiting for the sender, dropped once too many wait so a neighbor can't hold back the others
+    private final Queue<byte[]> outboundPackets = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger numberOfOutboundPackets = new AtomicInteger();
+    private final AtomicInteger numberOfDroppedPackets = new AtomicInteger();
+    private final AidosRateLimiter broadcastLimiter = new AidosRateLimiter(AidosConfiguration.integer(DefaultConfSettings.BROADCAST_RATE_LIMIT));
     
-    private int numberOfAllTransactions;
-    private int numberOfNewTransactions;
-    private int numberOfInvalidTransactions;
+    // Counted by different stages of the receiver
+    private final AtomicInteger numberOfAllTransactions = new AtomicInteger();
+    private final AtomicInteger numberOfNewTransactions = new AtomicInteger();
+    private final AtomicInteger numberOfInvalidTransactions = new AtomicInteger();
+    private final AtomicInteger numberOfDuplicateTransactions = new AtomicInteger();
+    private final AtomicInteger numberOfUnseenTransactions = new AtomicInteger();
 
     public AidosNeighbor(final InetSocketAddress address) {
         this.address = address;
     }
 
-    public void send(final DatagramPacket packet) {
-        try {
-            packet.setSocketAddress(address);
-            AidosNode.instance().send(packet);
-        } catch (final Exception e) {
-        	// ignore
+    public boolean queue(final byte[] packet) { // Returns false if the packet was dropped
+
+        if (numberOfOutboundPackets.incrementAndGet() > OUTBOUND_QUEUE_SIZE) {
+            numberOfOutboundPackets.decrementAndGet();
+            numberOfDroppedPackets.incrementAndGet();
+            return false;
+        }
+        outboundPackets.offer(packet);
+        return true;
+    }
+
+    public boolean allowBroadcast() { // Returns false, counting a dropped packet, if the broadcast rate is exceeded
+
+        if (broadcastLimiter.tryAcquire()) {
+            return true;
         }
+        numberOfDroppedPackets.incrementAndGet();
+        return false;
+    }
+
+    public byte[] nextPacket() { // Returns null if no packet is waiting
+
+        final byte[] packet = outboundPackets.poll();
+        if (packet != null) {
+            numberOfOutboundPackets.decrementAndGet();
+        }
+        return packet;
     }
     
     @Override
@@ -47,26 +82,46 @@ public class AidosNeighbor {
 	}
     
     public void incAllTransactions() {
-    	numberOfAllTransactions++;
+    	numberOfAllTransactions.incrementAndGet();
     }
     
     public void incNewTransactions() {
-    	numberOfNewTransactions++;
+    	numberOfNewTransactions.incrementAndGet();
     }
     
     public void incInvalidTransactions() {
-    	numberOfInvalidTransactions++;
+    	numberOfInvalidTransactions.incrementAndGet();
+    }
+    
+    public void incDuplicateTransactions() {
+    	numberOfDuplicateTransactions.incrementAndGet();
+    }
+    
+    public void incUnseenTransactions() {
+    	numberOfUnseenTransactions.incrementAndGet();
     }
     
     public int getNumberOfAllTransactions() {
-		return numberOfAllTransactions;
+		return numberOfAllTransactions.get();
 	}
     
     public int getNumberOfInvalidTransactions() {
-		return numberOfInvalidTransactions;
+		return numberOfInvalidTransactions.get();
 	}
     
     public int getNumberOfNewTransactions() {
-		return numberOfNewTransactions;
+		return numberOfNewTransactions.get();
+	}
+    
+    public int getNumberOfDuplicateTransactions() {
+		return numberOfDuplicateTransactions.get();
+	}
+    
+    public int getNumberOfUnseenTransactions() {
+		return numberOfUnseenTransactions.get();
+	}
+    
+    public int getNumberOfDroppedPackets() {
+		return numberOfDroppedPackets.get();
 	}
 }
@@ -486,4 +486,10 @@ public class AidosSnapshot {
         initialState.put(new AidosHash("PPADZYHSXNAJUCPNJCIMFZUNPENIWPOFHPTCUJOOFDPXCEBBVYMIQRUFDYZRSUITDUQXPMVVTGSPPIBXV"), 221000010010L);
         initialState.put(new AidosHash("9AIJKARGEUYAJZZWCCHMM9MHRLRSDEBVTPPDJSJLVIJUMVCYXEFVILMWGNYBUNQYFKRLXVLDECIPDQAS9"), 3812798742493L);
     }
+
+    static { // Keys interned once all are put, so the ledger states copied from the snapshot share them
+        final Map<AidosHash, Long> balances = new HashMap<>(initialState);
+        initialState.clear();
+        balances.forEach((address, balance) -> initialState.put(address.intern(), balance));
+    }
 }
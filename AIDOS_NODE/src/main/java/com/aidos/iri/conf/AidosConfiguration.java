@@ -20,12 +20,23 @@ public class AidosConfiguration {
         API_PORT,
         API_HOST,
         TANGLE_RECEIVER_PORT,
+        TANGLE_RECEIVER_THREADS, // Threads reading packets from the socket
+        TANGLE_RECEIVE_BUFFER_SIZE, // Bytes the kernel may queue for the socket, capped by net.core.rmem_max on Linux
+        BROADCAST_RATE_LIMIT, // Transactions broadcast to each neighbor per second, 0 for no limit
         CORS_ENABLED,
         TESTNET, // not used yet
         HEADLESS,
         REMOTEAPILIMIT,
+        API_POW_THREADS, // Threads and queued requests of the API commands executors
+        API_POW_QUEUE_SIZE,
+        API_TIPS_THREADS,
+        API_TIPS_QUEUE_SIZE,
+        API_QUERY_THREADS,
+        API_QUERY_QUEUE_SIZE,
+        API_TRYTES_CACHE_SIZE, // Transactions whose trytes are kept for getTrytes
     
         NEIGHBORS,
+        DB_PATH,
         DEBUG,
         EXPERIMENTAL // experimental features.
     }
@@ -35,13 +46,24 @@ public class AidosConfiguration {
         conf.put(DefaultConfSettings.API_PORT.name(), "14265");
         conf.put(DefaultConfSettings.API_HOST.name(), "139.59.40.96");
         conf.put(DefaultConfSettings.TANGLE_RECEIVER_PORT.name(), "14265");
+        conf.put(DefaultConfSettings.TANGLE_RECEIVER_THREADS.name(), String.valueOf(Math.max(1, Math.min(4, Runtime.getRuntime().availableProcessors() / 2))));
+        conf.put(DefaultConfSettings.TANGLE_RECEIVE_BUFFER_SIZE.name(), String.valueOf(8 * 1024 * 1024));
+        conf.put(DefaultConfSettings.BROADCAST_RATE_LIMIT.name(), "0");
         conf.put(DefaultConfSettings.CORS_ENABLED.name(), "*");
+        conf.put(DefaultConfSettings.DB_PATH.name(), "");
      
         conf.put(DefaultConfSettings.TESTNET.name(), "false");
         conf.put(DefaultConfSettings.HEADLESS.name(), "false");
         conf.put(DefaultConfSettings.DEBUG.name(), "false");
         conf.put(DefaultConfSettings.REMOTEAPILIMIT.name(), "");
         conf.put(DefaultConfSettings.EXPERIMENTAL.name(), "false");
+        conf.put(DefaultConfSettings.API_POW_THREADS.name(), "1");
+        conf.put(DefaultConfSettings.API_POW_QUEUE_SIZE.name(), "4");
+        conf.put(DefaultConfSettings.API_TIPS_THREADS.name(), "2");
+        conf.put(DefaultConfSettings.API_TIPS_QUEUE_SIZE.name(), "16");
+        conf.put(DefaultConfSettings.API_QUERY_THREADS.name(), String.valueOf(Runtime.getRuntime().availableProcessors()));
+        conf.put(DefaultConfSettings.API_QUERY_QUEUE_SIZE.name(), "64");
+        conf.put(DefaultConfSettings.API_TRYTES_CACHE_SIZE.name(), "4096");
     }
 
     public static String allSettings() {
@@ -0,0 +1,191 @@
+package com.aidos.iri.hash;
+
+import com.aidos.iri.utils.AidosConverter;
+
+/**
+ * Curl over up to 64 messages at once. Every trit of the state is sliced into a low and a high long holding one bit
+ * per message, the representation AidosPearlDiver searches nonces with, so a single transform serves the whole batch.
+ * All the messages of a batch are absorbed and squeezed at the same offset and length.
+ */
+public class AidosBatchCurl {
+
+    public static final int NUMBER_OF_LANES = Long.SIZE;
+    public static final int MIN_BATCH_SIZE = 2; // A single message is hashed faster by the scalar Curl
+
+    private static final int HASH_LENGTH = AidosCurl.HASH_LENGTH;
+    private static final int STATE_LENGTH = 3 * HASH_LENGTH;
+
+    private static final int NUMBER_OF_ROUNDS = 27;
+    private static final long HIGH_BITS = 0b1111111111111111111111111111111111111111111111111111111111111111L;
+
+    private final long[] stateLow = new long[STATE_LENGTH], stateHigh = new long[STATE_LENGTH];
+    private final long[] scratchpadLow = new long[STATE_LENGTH], scratchpadHigh = new long[STATE_LENGTH];
+
+    private final AidosCurl curl = new AidosCurl();
+    private final int[] chunk = new int[HASH_LENGTH]; // Trits of a packed chunk being absorbed
+
+    public AidosBatchCurl() {
+        reset();
+    }
+
+    public void absorb(final int[][] trits, final int numberOfMessages, final int offset, final int length) {
+        checkNumberOfMessages(numberOfMessages);
+        absorb(trits, 0, numberOfMessages, offset, length);
+    }
+
+    public void absorb(final byte[][] bytes, final int numberOfMessages, final int tritOffset, final int length) {
+        checkNumberOfMessages(numberOfMessages);
+        absorb(bytes, 0, numberOfMessages, tritOffset, length);
+    }
+
+    public void squeeze(final int[][] trits, final int numberOfMessages, final int offset, final int length) {
+        checkNumberOfMessages(numberOfMessages);
+        squeeze(trits, 0, numberOfMessages, offset, length);
+    }
+
+    public void reset() {
+        for (int stateIndex = 0; stateIndex < STATE_LENGTH; stateIndex++) {
+            stateLow[stateIndex] = HIGH_BITS;
+            stateHigh[stateIndex] = HIGH_BITS;
+        }
+    }
+
+    /**
+     * Hashes messages[i][offset, offset + length) into hashes[i] for every message, 64 at a time, and one by one
+     * with the scalar Curl when too few are left to fill a batch.
+     */
+    public void hash(final int[][] messages, final int numberOfMessages, final int offset, final int length, final int[][] hashes) {
+
+        int first = 0;
+        while (numberOfMessages - first >= MIN_BATCH_SIZE) {
+
+            final int batchSize = Math.min(numberOfMessages - first, NUMBER_OF_LANES);
+            reset();
+            absorb(messages, first, batchSize, offset, length);
+            squeeze(hashes, first, batchSize, 0, HASH_LENGTH);
+            first += batchSize;
+        }
+        for (; first < numberOfMessages; first++) {
+            curl.reset();
+            curl.absorb(messages[first], offset, length);
+            curl.squeeze(hashes[first], 0, HASH_LENGTH);
+        }
+    }
+
+    /**
+     * Same as {@link #hash(int[][], int, int, int, int[][])} for messages packed 5 trits per byte.
+     */
+    public void hash(final byte[][] messages, final int numberOfMessages, final int tritOffset, final int length, final int[][] hashes) {
+
+        int first = 0;
+        while (numberOfMessages - first >= MIN_BATCH_SIZE) {
+
+            final int batchSize = Math.min(numberOfMessages - first, NUMBER_OF_LANES);
+            reset();
+            absorb(messages, first, batchSize, tritOffset, length);
+            squeeze(hashes, first, batchSize, 0, HASH_LENGTH);
+            first += batchSize;
+        }
+        for (; first < numberOfMessages; first++) {
+            curl.reset();
+            curl.absorb(messages[first], tritOffset, length);
+            curl.squeeze(hashes[first], 0, HASH_LENGTH);
+        }
+    }
+
+    private void absorb(final int[][] trits, final int first, final int numberOfMessages, int offset, int length) {
+
+        do {
+            final int chunkLength = length < HASH_LENGTH ? length : HASH_LENGTH;
+            clearChunk(chunkLength);
+            for (int lane = 0; lane < numberOfMessages; lane++) {
+                setLane(lane, trits[first + lane], offset, chunkLength);
+            }
+            transform();
+
+            offset += HASH_LENGTH;
+        } while ((length -= HASH_LENGTH) > 0);
+    }
+
+    private void absorb(final byte[][] bytes, final int first, final int numberOfMessages, int tritOffset, int length) {
+
+        do {
+            final int chunkLength = length < HASH_LENGTH ? length : HASH_LENGTH;
+            clearChunk(chunkLength);
+            for (int lane = 0; lane < numberOfMessages; lane++) {
+                AidosConverter.getTrits(bytes[first + lane], tritOffset, chunk, 0, chunkLength);
+                setLane(lane, chunk, 0, chunkLength);
+            }
+            transform();
+
+            tritOffset += HASH_LENGTH;
+        } while ((length -= HASH_LENGTH) > 0);
+    }
+
+    private void clearChunk(final int chunkLength) { // All the lanes get 0 trits
+        for (int i = 0; i < chunkLength; i++) {
+            stateLow[i] = HIGH_BITS;
+            stateHigh[i] = HIGH_BITS;
+        }
+    }
+
+    private void setLane(final int lane, final int[] trits, final int offset, final int chunkLength) {
+
+        final long laneMask = ~(1L << lane);
+        for (int i = 0; i < chunkLength; i++) {
+            switch (trits[offset + i]) {
+                case 1: {
+                    stateLow[i] &= laneMask;
+                } break;
+                case -1: {
+                    stateHigh[i] &= laneMask;
+                }
+            }
+        }
+    }
+
+    private void squeeze(final int[][] trits, final int first, final int numberOfMessages, int offset, int length) {
+
+        do {
+            final int chunkLength = length < HASH_LENGTH ? length : HASH_LENGTH;
+            for (int lane = 0; lane < numberOfMessages; lane++) {
+
+                final int[] message = trits[first + lane];
+                final long laneBit = 1L << lane;
+                for (int i = 0; i < chunkLength; i++) {
+                    message[offset + i] = (stateLow[i] & laneBit) == 0 ? 1 : (stateHigh[i] & laneBit) == 0 ? -1 : 0;
+                }
+            }
+            transform();
+
+            offset += HASH_LENGTH;
+        } while ((length -= HASH_LENGTH) > 0);
+    }
+
+    private void transform() {
+
+        int scratchpadIndex = 0;
+        for (int round = NUMBER_OF_ROUNDS; round-- > 0; ) {
+
+            System.arraycopy(stateLow, 0, scratchpadLow, 0, STATE_LENGTH);
+            System.arraycopy(stateHigh, 0, scratchpadHigh, 0, STATE_LENGTH);
+
+            for (int stateIndex = 0; stateIndex < STATE_LENGTH; stateIndex++) {
+
+                final long alpha = scratchpadLow[scratchpadIndex];
+                final long beta = scratchpadHigh[scratchpadIndex];
+                final long gamma = scratchpadHigh[scratchpadIndex += (scratchpadIndex < 365 ? 364 : -365)];
+                final long delta = (alpha | (~gamma)) & (scratchpadLow[scratchpadIndex] ^ beta);
+
+                stateLow[stateIndex] = ~delta;
+                stateHigh[stateIndex] = (alpha ^ gamma) | delta;
+            }
+        }
+    }
+
+    private static void checkNumberOfMessages(final int numberOfMessages) {
+        if (numberOfMessages < 1 || numberOfMessages > NUMBER_OF_LANES) {
+            throw new RuntimeException("Invalid number of messages: " + numberOfMessages);
+        }
+    }
+}
@@ -1,5 +1,7 @@
 package com.aidos.iri.hash;
 
+import com.aidos.iri.utils.AidosConverter;
+
 /**
  * (c) 2016 Come-from-Beyond
  * 
@@ -15,7 +17,7 @@ public class AidosCurl {
     private static final int[] TRUTH_TABLE = {1, 0, -1, 1, -1, 0, -1, 1, 0};
 
     private final int[] state = new int[STATE_LENGTH];
-   
+    private final int[] scratchpad = new int[STATE_LENGTH]; // Reused by every transform, a hash allocates nothing
     
     
     public void absorb(final int[] trits, int offset, int length) {
@@ -30,6 +32,15 @@ public class AidosCurl {
     }
     
 
+    public void absorb(final byte[] bytes, int tritOffset, int length) { // Reads the trits packed 5 per byte without unpacking them first
+
+        do {
+            AidosConverter.getTrits(bytes, tritOffset, state, 0, length < HASH_LENGTH ? length : HASH_LENGTH);
+            transform();
+            tritOffset += HASH_LENGTH;
+        } while ((length -= HASH_LENGTH) > 0);
+    }
+
     public void squeeze(final int[] trits, int offset, int length) {
 
         do {
@@ -41,7 +52,6 @@ public class AidosCurl {
 
     private void transform() {
 
-        final int[] scratchpad = new int[STATE_LENGTH];
         int scratchpadIndex = 0;
         for (int round = 0; round < NUMBER_OF_ROUNDS; round++) {
             System.arraycopy(state, 0, scratchpad, 0, STATE_LENGTH);
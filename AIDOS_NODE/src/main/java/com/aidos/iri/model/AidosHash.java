@@ -4,15 +4,24 @@ import com.aidos.iri.hash.AidosCurl;
 import com.aidos.iri.utils.AidosConverter;
 
 import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 public class AidosHash {
 
     public static final int SIZE_IN_BYTES = 49;
+    private static final int NUMBER_OF_TRYTES = AidosCurl.HASH_LENGTH / AidosConverter.NUMBER_OF_TRITS_IN_A_TRYTE;
 
     public static final AidosHash NULL_HASH = new AidosHash(new int[AidosCurl.HASH_LENGTH]);
 
+    private static final Map<AidosHash, AidosHash> internedHashes = new ConcurrentHashMap<>();
+
     private final byte[] bytes;
     private final int hashCode;
+
+    // Encodings computed on first use, racing threads compute equal values
+    private volatile String trytes;
+    private volatile int[] trits;
     
     // constructors' bill
 
@@ -37,20 +46,39 @@ public class AidosHash {
     }
 
     public AidosHash(final String trytes) {
-        this(AidosConverter.trits(trytes));
+        this(AidosConverter.bytes(trytes.length() > NUMBER_OF_TRYTES ? trytes.substring(0, NUMBER_OF_TRYTES) : trytes)); // Trytes past the hash, e.g. a checksum, are ignored
     }
 
     //
     
+    /**
+     * Returns the trits of the hash, decoded once and then cached. The array is the cached one, not a copy, so it is
+     * read-only: writing to it would corrupt this hash for every holder, interned keys shared by the ledger included.
+     * Callers needing to modify trits copy them first.
+     */
     public int[] trits() {
-        final int[] trits = new int[AidosCurl.HASH_LENGTH];
-        AidosConverter.getTrits(bytes, trits);
+
+        int[] trits = this.trits;
+        if (trits == null) {
+            trits = new int[AidosCurl.HASH_LENGTH];
+            AidosConverter.getTrits(bytes, trits);
+            this.trits = trits;
+        }
         return trits;
     }
 
+    /**
+     * Returns the one instance of all the equal interned hashes. Hashes kept for long as map keys, like the addresses
+     * of the snapshot and of the ledger states, are interned so the maps copied from each other share their keys.
+     */
+    public AidosHash intern() {
+        final AidosHash internedHash = internedHashes.putIfAbsent(this, this);
+        return internedHash == null ? this : internedHash;
+    }
+
     @Override
     public boolean equals(final Object obj) {
-        return Arrays.equals(bytes, ((AidosHash)obj).bytes);
+        return this == obj || Arrays.equals(bytes, ((AidosHash)obj).bytes);
     }
 
     @Override
@@ -60,7 +88,12 @@ public class AidosHash {
 
     @Override
     public String toString() {
-        return AidosConverter.trytes(trits());
+
+        String trytes = this.trytes;
+        if (trytes == null) {
+            this.trytes = trytes = AidosConverter.trytes(bytes, 0, AidosCurl.HASH_LENGTH);
+        }
+        return trytes;
     }
     
     public byte[] bytes() {
@@ -2,6 +2,7 @@ package com.aidos.iri.model;
 
 import java.util.Arrays;
 
+import com.aidos.iri.hash.AidosBatchCurl;
 import com.aidos.iri.hash.AidosCurl;
 import com.aidos.iri.service.storage.AidosAbstractStorage;
 import com.aidos.iri.service.storage.AidosStorage;
@@ -15,18 +16,22 @@ public class AidosTransaction {
     public static final int TYPE_OFFSET = 0, TYPE_SIZE = Byte.BYTES;
     public static final int HASH_OFFSET = TYPE_OFFSET + TYPE_SIZE + ((Long.BYTES - (TYPE_SIZE & (Long.BYTES - 1))) & (Long.BYTES - 1)), HASH_SIZE = 46;
 
-    private static final int BYTES_OFFSET = HASH_OFFSET + HASH_SIZE + ((Long.BYTES - (HASH_SIZE & (Long.BYTES - 1))) & (Long.BYTES - 1)), BYTES_SIZE = SIZE;
+    public static final int BYTES_OFFSET = HASH_OFFSET + HASH_SIZE + ((Long.BYTES - (HASH_SIZE & (Long.BYTES - 1))) & (Long.BYTES - 1)), BYTES_SIZE = SIZE;
 
     public static final int ADDRESS_OFFSET = BYTES_OFFSET + BYTES_SIZE + ((Long.BYTES - (BYTES_SIZE & (Long.BYTES - 1))) & (Long.BYTES - 1)), ADDRESS_SIZE = 49;
     public static final int VALUE_OFFSET = ADDRESS_OFFSET + ADDRESS_SIZE + ((Long.BYTES - (ADDRESS_SIZE & (Long.BYTES - 1))) & (Long.BYTES - 1)), VALUE_SIZE = Long.BYTES;
     public static final int TAG_OFFSET = VALUE_OFFSET + VALUE_SIZE + ((Long.BYTES - (VALUE_SIZE & (Long.BYTES - 1))) & (Long.BYTES - 1)), TAG_SIZE = 17;
-    private static final int CURRENT_INDEX_OFFSET = TAG_OFFSET + TAG_SIZE + ((Long.BYTES - (TAG_SIZE & (Long.BYTES - 1))) & (Long.BYTES - 1)), CURRENT_INDEX_SIZE = Long.BYTES;
-    private static final int LAST_INDEX_OFFSET = CURRENT_INDEX_OFFSET + CURRENT_INDEX_SIZE + ((Long.BYTES - (CURRENT_INDEX_SIZE & (Long.BYTES - 1))) & (Long.BYTES - 1)), LAST_INDEX_SIZE = Long.BYTES;
+    public static final int CURRENT_INDEX_OFFSET = TAG_OFFSET + TAG_SIZE + ((Long.BYTES - (TAG_SIZE & (Long.BYTES - 1))) & (Long.BYTES - 1)), CURRENT_INDEX_SIZE = Long.BYTES;
+    public static final int LAST_INDEX_OFFSET = CURRENT_INDEX_OFFSET + CURRENT_INDEX_SIZE + ((Long.BYTES - (CURRENT_INDEX_SIZE & (Long.BYTES - 1))) & (Long.BYTES - 1)), LAST_INDEX_SIZE = Long.BYTES;
     public static final int BUNDLE_OFFSET = LAST_INDEX_OFFSET + LAST_INDEX_SIZE + ((Long.BYTES - (LAST_INDEX_SIZE & (Long.BYTES - 1))) & (Long.BYTES - 1)), BUNDLE_SIZE = 49;
-    private static final int TRUNK_TRANSACTION_OFFSET = BUNDLE_OFFSET + BUNDLE_SIZE + ((Long.BYTES - (BUNDLE_SIZE & (Long.BYTES - 1))) & (Long.BYTES - 1)), TRUNK_TRANSACTION_SIZE = HASH_SIZE;
-    private static final int BRANCH_TRANSACTION_OFFSET = TRUNK_TRANSACTION_OFFSET + TRUNK_TRANSACTION_SIZE + ((Long.BYTES - (TRUNK_TRANSACTION_SIZE & (Long.BYTES - 1))) & (Long.BYTES - 1)), BRANCH_TRANSACTION_SIZE = HASH_SIZE;
+    public static final int TRUNK_TRANSACTION_OFFSET = BUNDLE_OFFSET + BUNDLE_SIZE + ((Long.BYTES - (BUNDLE_SIZE & (Long.BYTES - 1))) & (Long.BYTES - 1)), TRUNK_TRANSACTION_SIZE = HASH_SIZE;
+    public static final int BRANCH_TRANSACTION_OFFSET = TRUNK_TRANSACTION_OFFSET + TRUNK_TRANSACTION_SIZE + ((Long.BYTES - (TRUNK_TRANSACTION_SIZE & (Long.BYTES - 1))) & (Long.BYTES - 1)), BRANCH_TRANSACTION_SIZE = HASH_SIZE;
 
     public static final int VALIDITY_OFFSET = BRANCH_TRANSACTION_OFFSET + BRANCH_TRANSACTION_SIZE + ((Long.BYTES - (BRANCH_TRANSACTION_SIZE & (Long.BYTES - 1))) & (Long.BYTES - 1)), VALIDITY_SIZE = 1;
+    public static final int SOLID_OFFSET = VALIDITY_OFFSET + VALIDITY_SIZE, SOLID_SIZE = 1; // Non-zero once all the ancestors are known
+    public static final int TRUNK_TRANSACTION_POINTER_OFFSET = SOLID_OFFSET + SOLID_SIZE + ((Long.BYTES - ((VALIDITY_SIZE + SOLID_SIZE) & (Long.BYTES - 1))) & (Long.BYTES - 1)), TRUNK_TRANSACTION_POINTER_SIZE = Long.BYTES;
+    public static final int BRANCH_TRANSACTION_POINTER_OFFSET = TRUNK_TRANSACTION_POINTER_OFFSET + TRUNK_TRANSACTION_POINTER_SIZE, BRANCH_TRANSACTION_POINTER_SIZE = Long.BYTES;
+    public static final int CONFIRMING_MILESTONE_INDEX_OFFSET = BRANCH_TRANSACTION_POINTER_OFFSET + BRANCH_TRANSACTION_POINTER_SIZE + Long.BYTES, CONFIRMING_MILESTONE_INDEX_SIZE = Long.BYTES; // Skips the slot where the genesis cell keeps the format version
 
   /*  public static final long SUPPLY = 2779530283277761L; // = (3^33 - 1) / 2
    * 
@@ -74,19 +79,17 @@ public class AidosTransaction {
     public long branchTransactionPointer;
     private final int validity;
 
-    private int[] trits;
     public final long pointer;
     public int weightMagnitude;
 
     public AidosTransaction(final int[] trits) {
+        this(trits, hashTrits(trits, new AidosCurl()));
+    }
+
+    public AidosTransaction(final int[] trits, final int[] hashTrits) { // The hash must have been computed already, e.g. by AidosBatchCurl
 
-        this.trits = trits;
         bytes = AidosConverter.bytes(trits);
 
-        final AidosCurl curl = new AidosCurl();
-        curl.absorb(trits, 0, TRINARY_SIZE);
-        final int[] hashTrits = new int[AidosCurl.HASH_LENGTH];
-        curl.squeeze(hashTrits, 0, hashTrits.length);
         hash = Arrays.copyOf(AidosConverter.bytes(hashTrits), HASH_SIZE);
 
         address = AidosConverter.bytes(trits, ADDRESS_TRINARY_OFFSET, ADDRESS_TRINARY_SIZE);
@@ -107,23 +110,21 @@ public class AidosTransaction {
         pointer = 0;
     }
 
-    public AidosTransaction(final byte[] bytes, final int[] trits, final AidosCurl curl) {
+    public AidosTransaction(final byte[] bytes, final AidosCurl curl) {
+        this(bytes, hashTrits(bytes, curl));
+    }
+
+    public AidosTransaction(final byte[] bytes, final int[] hashTrits) { // The bytes must have been hashed already, e.g. by AidosBatchCurl
 
         this.bytes = Arrays.copyOf(bytes, BYTES_SIZE);
-        AidosConverter.getTrits(this.bytes, this.trits = trits);
 
         for (int i = VALUE_TRINARY_OFFSET + VALUE_USABLE_TRINARY_SIZE; i < VALUE_TRINARY_OFFSET + VALUE_TRINARY_SIZE; i++) {
 
-            if (trits[i] != 0) {
+            if (AidosConverter.trit(this.bytes, i) != 0) {
                 throw new RuntimeException("Invalid transaction value");
             }
         }
 
-        curl.reset();
-        curl.absorb(trits, 0, TRINARY_SIZE);
-        final int[] hashTrits = new int[AidosCurl.HASH_LENGTH];
-        curl.squeeze(hashTrits, 0, hashTrits.length);
-
         hash = AidosConverter.bytes(hashTrits);
         if (hash[AidosHash.SIZE_IN_BYTES - 4] != 0 || hash[AidosHash.SIZE_IN_BYTES - 3] != 0 || hash[AidosHash.SIZE_IN_BYTES - 2] != 0 || hash[AidosHash.SIZE_IN_BYTES - 1] != 0) {
             throw new RuntimeException("Invalid transaction hash");
@@ -134,14 +135,14 @@ public class AidosTransaction {
             weightMagnitude++;
         }
 
-        address = AidosConverter.bytes(trits, ADDRESS_TRINARY_OFFSET, ADDRESS_TRINARY_SIZE);
-        value = AidosConverter.longValue(trits, VALUE_TRINARY_OFFSET, VALUE_USABLE_TRINARY_SIZE);
-        System.arraycopy(AidosConverter.bytes(trits, TAG_TRINARY_OFFSET, TAG_TRINARY_SIZE), 0, tag = new byte[TAG_SIZE], 0, TAG_SIZE);
-        currentIndex = AidosConverter.longValue(trits, CURRENT_INDEX_TRINARY_OFFSET, CURRENT_INDEX_TRINARY_SIZE);
-        lastIndex = AidosConverter.longValue(trits, LAST_INDEX_TRINARY_OFFSET, LAST_INDEX_TRINARY_SIZE);
-        System.arraycopy(AidosConverter.bytes(trits, BUNDLE_TRINARY_OFFSET, BUNDLE_TRINARY_SIZE), 0, bundle = new byte[BUNDLE_SIZE], 0, BUNDLE_SIZE);
-        System.arraycopy(AidosConverter.bytes(trits, TRUNK_TRANSACTION_TRINARY_OFFSET, TRUNK_TRANSACTION_TRINARY_SIZE), 0, trunkTransaction = new byte[TRUNK_TRANSACTION_SIZE], 0, TRUNK_TRANSACTION_SIZE);
-        System.arraycopy(AidosConverter.bytes(trits, BRANCH_TRANSACTION_TRINARY_OFFSET, BRANCH_TRANSACTION_TRINARY_SIZE), 0, branchTransaction = new byte[BRANCH_TRANSACTION_SIZE], 0, BRANCH_TRANSACTION_SIZE);
+        address = AidosConverter.bytes(this.bytes, ADDRESS_TRINARY_OFFSET, ADDRESS_TRINARY_SIZE);
+        value = AidosConverter.longValue(this.bytes, VALUE_TRINARY_OFFSET, VALUE_USABLE_TRINARY_SIZE);
+        System.arraycopy(AidosConverter.bytes(this.bytes, TAG_TRINARY_OFFSET, TAG_TRINARY_SIZE), 0, tag = new byte[TAG_SIZE], 0, TAG_SIZE);
+        currentIndex = AidosConverter.longValue(this.bytes, CURRENT_INDEX_TRINARY_OFFSET, CURRENT_INDEX_TRINARY_SIZE);
+        lastIndex = AidosConverter.longValue(this.bytes, LAST_INDEX_TRINARY_OFFSET, LAST_INDEX_TRINARY_SIZE);
+        System.arraycopy(AidosConverter.bytes(this.bytes, BUNDLE_TRINARY_OFFSET, BUNDLE_TRINARY_SIZE), 0, bundle = new byte[BUNDLE_SIZE], 0, BUNDLE_SIZE);
+        System.arraycopy(AidosConverter.bytes(this.bytes, TRUNK_TRANSACTION_TRINARY_OFFSET, TRUNK_TRANSACTION_TRINARY_SIZE), 0, trunkTransaction = new byte[TRUNK_TRANSACTION_SIZE], 0, TRUNK_TRANSACTION_SIZE);
+        System.arraycopy(AidosConverter.bytes(this.bytes, BRANCH_TRANSACTION_TRINARY_OFFSET, BRANCH_TRANSACTION_TRINARY_SIZE), 0, branchTransaction = new byte[BRANCH_TRANSACTION_SIZE], 0, BRANCH_TRANSACTION_SIZE);
 
         type = AidosStorage.FILLED_SLOT;
 
@@ -168,26 +169,47 @@ public class AidosTransaction {
         System.arraycopy(mainBuffer, TRUNK_TRANSACTION_OFFSET, trunkTransaction = new byte[TRUNK_TRANSACTION_SIZE], 0, TRUNK_TRANSACTION_SIZE);
         System.arraycopy(mainBuffer, BRANCH_TRANSACTION_OFFSET, branchTransaction = new byte[BRANCH_TRANSACTION_SIZE], 0, BRANCH_TRANSACTION_SIZE);
 
-        trunkTransactionPointer = AidosStorageTransactions.instance().transactionPointer(trunkTransaction);
-        if (trunkTransactionPointer < 0) {
-            trunkTransactionPointer = -trunkTransactionPointer;
-        }
-        branchTransactionPointer = AidosStorageTransactions.instance().transactionPointer(branchTransaction);
-        if (branchTransactionPointer < 0) {
-            branchTransactionPointer = -branchTransactionPointer;
-        }
+        trunkTransactionPointer = AidosStorage.value(mainBuffer, TRUNK_TRANSACTION_POINTER_OFFSET);
+        branchTransactionPointer = AidosStorage.value(mainBuffer, BRANCH_TRANSACTION_POINTER_OFFSET);
 
         validity = mainBuffer[VALIDITY_OFFSET];
 
         this.pointer = pointer;
     }
 
-    public synchronized int[] trits() {
+    public static int[] hashTrits(final int[] trits, final AidosCurl curl) {
+
+        curl.reset();
+        curl.absorb(trits, 0, TRINARY_SIZE);
+        final int[] hashTrits = new int[AidosCurl.HASH_LENGTH];
+        curl.squeeze(hashTrits, 0, hashTrits.length);
+        return hashTrits;
+    }
+
+    public static int[] hashTrits(final byte[] bytes, final AidosCurl curl) { // Hashes the packed trits, trailing bytes of a packet are ignored
+
+        curl.reset();
+        curl.absorb(bytes, 0, TRINARY_SIZE);
+        final int[] hashTrits = new int[AidosCurl.HASH_LENGTH];
+        curl.squeeze(hashTrits, 0, hashTrits.length);
+        return hashTrits;
+    }
+
+    public static AidosTransaction[] transactions(final int[][] trits) { // Hashes the transactions a batch at a time
 
-        if (trits == null) {
-            trits = new int[TRINARY_SIZE];
-            AidosConverter.getTrits(bytes, trits);
+        final int[][] hashTrits = new int[trits.length][AidosCurl.HASH_LENGTH];
+        new AidosBatchCurl().hash(trits, trits.length, 0, TRINARY_SIZE, hashTrits);
+        final AidosTransaction[] transactions = new AidosTransaction[trits.length];
+        for (int i = 0; i < transactions.length; i++) {
+            transactions[i] = new AidosTransaction(trits[i], hashTrits[i]);
         }
+        return transactions;
+    }
+
+    public int[] trits() { // Unpacked on demand, transactions only keep their bytes which hold 5 trits each
+
+        final int[] trits = new int[TRINARY_SIZE];
+        AidosConverter.getTrits(bytes, trits);
         return trits;
     }
 
@@ -198,48 +220,29 @@ public class AidosTransaction {
 
         if (transaction == null) {
             mainBuffer[TYPE_OFFSET] = AidosStorage.PREFILLED_SLOT;
+            // Trunk and branch hashes of a referenced-only transaction are null, i.e. the genesis
+            AidosStorage.setValue(mainBuffer, TRUNK_TRANSACTION_POINTER_OFFSET, AidosAbstractStorage.CELLS_OFFSET - AidosAbstractStorage.SUPER_GROUPS_OFFSET);
+            AidosStorage.setValue(mainBuffer, BRANCH_TRANSACTION_POINTER_OFFSET, AidosAbstractStorage.CELLS_OFFSET - AidosAbstractStorage.SUPER_GROUPS_OFFSET);
         } else {
             mainBuffer[TYPE_OFFSET] = (byte)transaction.type;
 
             System.arraycopy(transaction.bytes, 0, mainBuffer, BYTES_OFFSET, BYTES_SIZE);
             System.arraycopy(transaction.address, 0, mainBuffer, ADDRESS_OFFSET, ADDRESS_SIZE);
             AidosStorage.setValue(mainBuffer, VALUE_OFFSET, transaction.value);
-            final int[] trits = transaction.trits();
-            System.arraycopy(AidosConverter.bytes(trits, TAG_TRINARY_OFFSET, TAG_TRINARY_SIZE), 0, mainBuffer, TAG_OFFSET, TAG_SIZE);
+            System.arraycopy(transaction.tag, 0, mainBuffer, TAG_OFFSET, TAG_SIZE);
             AidosStorage.setValue(mainBuffer, CURRENT_INDEX_OFFSET, transaction.currentIndex);
             AidosStorage.setValue(mainBuffer, LAST_INDEX_OFFSET, transaction.lastIndex);
-            System.arraycopy(AidosConverter.bytes(trits, BUNDLE_TRINARY_OFFSET, BUNDLE_TRINARY_SIZE), 0, mainBuffer, BUNDLE_OFFSET, BUNDLE_SIZE);
+            System.arraycopy(transaction.bundle, 0, mainBuffer, BUNDLE_OFFSET, BUNDLE_SIZE);
             System.arraycopy(transaction.trunkTransaction, 0, mainBuffer, TRUNK_TRANSACTION_OFFSET, TRUNK_TRANSACTION_SIZE);
             System.arraycopy(transaction.branchTransaction, 0, mainBuffer, BRANCH_TRANSACTION_OFFSET, BRANCH_TRANSACTION_SIZE);
 
-            long approvedTransactionPointer = AidosStorageTransactions.instance().transactionPointer(transaction.trunkTransaction);
-            if (approvedTransactionPointer == 0) {
-                AidosStorage.approvedTransactionsToStore[AidosStorage.numberOfApprovedTransactionsToStore++] = transaction.trunkTransaction;
-            } else {
-
-                if (approvedTransactionPointer < 0) {
-                    approvedTransactionPointer = -approvedTransactionPointer;
-                }
-                final long index = (approvedTransactionPointer - (AidosAbstractStorage.CELLS_OFFSET - AidosAbstractStorage.SUPER_GROUPS_OFFSET)) >> 11;
-                AidosStorageTransactions.instance().transactionsTipsFlags().put(
-                		(int)(index >> 3), 
-                		(byte)(AidosStorageTransactions.instance().transactionsTipsFlags().get((int)(index >> 3)) & (0xFF ^ (1 << (index & 7)))));
-            }
-            if (!Arrays.equals(transaction.branchTransaction, transaction.trunkTransaction)) {
-
-                approvedTransactionPointer = AidosStorageTransactions.instance().transactionPointer(transaction.branchTransaction);
-                if (approvedTransactionPointer == 0) {
-                    AidosStorage.approvedTransactionsToStore[AidosStorage.numberOfApprovedTransactionsToStore++] = transaction.branchTransaction;
-                } else {
-
-                    if (approvedTransactionPointer < 0) {
-                        approvedTransactionPointer = -approvedTransactionPointer;
-                    }
-                    final long index = (approvedTransactionPointer - (AidosStorage.CELLS_OFFSET - AidosStorage.SUPER_GROUPS_OFFSET)) >> 11;
-                    AidosStorageTransactions.instance().transactionsTipsFlags().put(
-                    		(int) (index >> 3), 
-                    		(byte) (AidosStorageTransactions.instance().transactionsTipsFlags().get((int) (index >> 3)) & (0xFF ^ (1 << (index & 7)))));
-                }
+            // Both parents are already stored (see AidosStorageTransactions.storeTransaction) and are not tips anymore
+            AidosStorage.setValue(mainBuffer, TRUNK_TRANSACTION_POINTER_OFFSET, transaction.trunkTransactionPointer);
+            AidosStorage.setValue(mainBuffer, BRANCH_TRANSACTION_POINTER_OFFSET, transaction.branchTransactionPointer);
+
+            AidosStorageTransactions.instance().clearTipFlag(transaction.trunkTransactionPointer);
+            if (transaction.branchTransactionPointer != transaction.trunkTransactionPointer) {
+                AidosStorageTransactions.instance().clearTipFlag(transaction.branchTransactionPointer);
             }
         }
     }
@@ -0,0 +1,69 @@
+package com.aidos.iri.model;
+
+import com.aidos.iri.service.storage.AidosStorageTransactions;
+
+/**
+ * Zero-copy view of a stored transaction, fields are decoded on demand from the mapped cell.
+ * Meant for graph walks: one view is reused by a thread for every transaction it visits.
+ */
+public class AidosTransactionView {
+
+    private final AidosStorageTransactions storage = AidosStorageTransactions.instance();
+
+    private long pointer;
+
+    public AidosTransactionView wrap(final long pointer) {
+        this.pointer = pointer;
+        return this;
+    }
+
+    public long pointer() {
+        return pointer;
+    }
+
+    public int type() {
+        return storage.transactionByte(pointer, AidosTransaction.TYPE_OFFSET);
+    }
+
+    public long value() {
+        return storage.transactionValue(pointer, AidosTransaction.VALUE_OFFSET);
+    }
+
+    public long currentIndex() {
+        return storage.transactionValue(pointer, AidosTransaction.CURRENT_INDEX_OFFSET);
+    }
+
+    public long lastIndex() {
+        return storage.transactionValue(pointer, AidosTransaction.LAST_INDEX_OFFSET);
+    }
+
+    public int validity() {
+        return storage.transactionByte(pointer, AidosTransaction.VALIDITY_OFFSET);
+    }
+
+    public boolean solid() {
+        return storage.transactionSolid(pointer);
+    }
+
+    public long trunkTransactionPointer() {
+        return storage.transactionValue(pointer, AidosTransaction.TRUNK_TRANSACTION_POINTER_OFFSET);
+    }
+
+    public long branchTransactionPointer() {
+        return storage.transactionValue(pointer, AidosTransaction.BRANCH_TRANSACTION_POINTER_OFFSET);
+    }
+
+    // The following copy into the given buffer, which is returned
+
+    public byte[] hash(final byte[] buffer) {
+        return storage.transactionBytes(pointer, AidosTransaction.HASH_OFFSET, buffer, AidosTransaction.HASH_SIZE);
+    }
+
+    public byte[] address(final byte[] buffer) {
+        return storage.transactionBytes(pointer, AidosTransaction.ADDRESS_OFFSET, buffer, AidosTransaction.ADDRESS_SIZE);
+    }
+
+    public byte[] bundle(final byte[] buffer) {
+        return storage.transactionBytes(pointer, AidosTransaction.BUNDLE_OFFSET, buffer, AidosTransaction.BUNDLE_SIZE);
+    }
+}
@@ -3,42 +3,40 @@ package com.aidos.iri.service;
 import static io.undertow.Handlers.path;
 
 import java.io.IOException;
-import java.io.UnsupportedEncodingException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
 import java.net.InetAddress;
 import java.net.InetSocketAddress;
 import java.net.URI;
 import java.net.URISyntaxException;
-import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
+import java.util.AbstractList;
+import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.Collections;
 import java.util.HashMap;
-import java.util.HashSet;
-import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
-import java.util.Queue;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
 
-import org.apache.commons.io.IOUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.xnio.channels.StreamSinkChannel;
-import org.xnio.streams.ChannelInputStream;
 
 import com.aidos.iri.Aidos;
+import com.aidos.iri.AidosLedger;
 import com.aidos.iri.AidosMilestone;
 import com.aidos.iri.AidosNeighbor;
-import com.aidos.iri.AidosSnapshot;
 import com.aidos.iri.conf.AidosConfiguration;
 import com.aidos.iri.conf.AidosConfiguration.DefaultConfSettings;
 import com.aidos.iri.hash.AidosCurl;
 import com.aidos.iri.hash.AidosPearlDiver;
 import com.aidos.iri.model.AidosHash;
 import com.aidos.iri.model.AidosTransaction;
+import com.aidos.iri.model.AidosTransactionView;
 import com.aidos.iri.service.dto.*;
 import com.aidos.iri.service.storage.AidosStorage;
 import com.aidos.iri.service.storage.AidosStorageAddresses;
@@ -47,9 +45,15 @@ import com.aidos.iri.service.storage.AidosStorageBundle;
 import com.aidos.iri.service.storage.AidosStorageScratchpad;
 import com.aidos.iri.service.storage.AidosStorageTags;
 import com.aidos.iri.service.storage.AidosStorageTransactions;
+import com.aidos.iri.service.storage.AidosTraversalFlags;
 import com.aidos.iri.utils.AidosConverter;
+import com.aidos.iri.utils.AidosLongList;
+import com.aidos.iri.utils.AidosLongQueue;
+import com.aidos.iri.utils.AidosLongSet;
+import com.aidos.iri.utils.AidosLruCache;
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
+import com.google.gson.JsonIOException;
 
 import io.undertow.Undertow;
 import io.undertow.server.HttpHandler;
@@ -58,7 +62,6 @@ import io.undertow.util.HeaderMap;
 import io.undertow.util.Headers;
 import io.undertow.util.HttpString;
 
-@SuppressWarnings("unchecked")
 public class AidosAPI {
 
     private static final Logger log = LoggerFactory.getLogger(AidosAPI.class);
@@ -66,15 +69,45 @@ public class AidosAPI {
     private Undertow server;
 
     private final Gson gson = new GsonBuilder().create();
-    private final AidosPearlDiver pearlDiver = new AidosPearlDiver();
+
+    // A diver per PoW executor thread, so searches run side by side; all of them are kept to be interrupted together
+    private final Set<AidosPearlDiver> pearlDivers = ConcurrentHashMap.newKeySet();
+    private final ThreadLocal<AidosPearlDiver> pearlDiver = ThreadLocal.withInitial(() -> {
+        final AidosPearlDiver diver = new AidosPearlDiver();
+        pearlDivers.add(diver);
+        return diver;
+    });
 
     private final AtomicInteger counter = new AtomicInteger(0);
+    private final AtomicInteger requestsInProgress = new AtomicInteger(0); // Counted from their dispatch to a worker until answered
+
+    // Slow commands run in executors of their own, the others are served by the worker which parsed them
+    private final Map<String, AidosCommandExecutor> executors = new HashMap<>();
+    private volatile AidosCommandExecutor powExecutor, tipsExecutor, queryExecutor; // Set once initialised, for the status
+
+    private AidosLruCache<AidosHash, String> trytesCache;
 
     public void init() throws IOException {
 
         final int apiPort = AidosConfiguration.integer(DefaultConfSettings.API_PORT);
         final String apiHost = AidosConfiguration.string(DefaultConfSettings.API_HOST);
 
+        final AidosCommandExecutor powExecutor = new AidosCommandExecutor("PoW", AidosConfiguration.integer(DefaultConfSettings.API_POW_THREADS),
+                AidosConfiguration.integer(DefaultConfSettings.API_POW_QUEUE_SIZE));
+        executors.put("attachToTangle", powExecutor);
+        final AidosCommandExecutor tipsExecutor = new AidosCommandExecutor("Tips", AidosConfiguration.integer(DefaultConfSettings.API_TIPS_THREADS),
+                AidosConfiguration.integer(DefaultConfSettings.API_TIPS_QUEUE_SIZE));
+        executors.put("getTransactionsToApprove", tipsExecutor);
+        final AidosCommandExecutor queryExecutor = new AidosCommandExecutor("Query", AidosConfiguration.integer(DefaultConfSettings.API_QUERY_THREADS),
+                AidosConfiguration.integer(DefaultConfSettings.API_QUERY_QUEUE_SIZE));
+        for (final String command : new String[] {"broadcastTransactions", "findTransactions", "getBalances", "getInclusionStates", "storeTransactions"}) {
+            executors.put(command, queryExecutor);
+        }
+        this.powExecutor = powExecutor;
+        this.tipsExecutor = tipsExecutor;
+        this.queryExecutor = queryExecutor;
+        trytesCache = new AidosLruCache<>(AidosConfiguration.integer(DefaultConfSettings.API_TRYTES_CACHE_SIZE));
+
         log.debug("Binding JSON-REST API Undertown server on {}:{}", apiHost, apiPort);
 
         server = Undertow.builder().addHttpListener(apiPort, apiHost)
@@ -83,63 +116,90 @@ public class AidosAPI {
                     public void handleRequest(final HttpServerExchange exchange) throws Exception {
                         if (exchange.isInIoThread()) {
                         
+                            requestsInProgress.incrementAndGet();
+                            AidosNodeStatus.updateRequests(requestsInProgress);
                         	exchange.dispatch(this);
                             return;
                         }
-                        processRequest(exchange);
+                        processRequest(exchange); // Counted out once its response is sent
                     }
                 })).build();
         server.start();
     }
 
-    private void processRequest(final HttpServerExchange exchange) throws IOException {
-        final ChannelInputStream cis = new ChannelInputStream(exchange.getRequestChannel());
+    private void processRequest(final HttpServerExchange exchange) {
+        exchange.startBlocking(); // The request is parsed and the response is written as streams, none is held whole
         exchange.getResponseHeaders().put(Headers.CONTENT_TYPE, "application/json");
 
         final long beginningTime = System.currentTimeMillis();
-        final String body = IOUtils.toString(cis, StandardCharsets.UTF_8);
-        final AidosAbstractResponse response = process(body, exchange.getSourceAddress());
-        sendResponse(exchange, response, beginningTime);
+        final AidosRequest request;
+        try {
+            request = gson.fromJson(new InputStreamReader(exchange.getInputStream(), StandardCharsets.UTF_8), AidosRequest.class);
+        } catch (final Exception e) {
+            log.error("API Exception: ", e);
+            sendResponse(exchange, AidosExceptionResponse.create(e.getLocalizedMessage()), beginningTime);
+            return;
+        }
+
+        if (request != null && accessLimited(request.getCommand(), exchange.getSourceAddress())) {
+            // Refused before reaching an executor, so forbidden commands never take the place of allowed ones
+            sendResponse(exchange, AidosAccessLimitedResponse.create("COMMAND " + request.getCommand() + " is not available on this node"),
+                    beginningTime);
+            return;
+        }
+
+        final AidosCommandExecutor executor = request == null ? null : executors.get(request.getCommand());
+        if (executor == null) {
+            sendResponse(exchange, process(request), beginningTime);
+        } else {
+            // Handed over once this worker returns, a saturated executor refuses the request at once
+            exchange.dispatch(command -> {
+                if (!executor.execute(command)) {
+                    log.debug("{} executor is saturated, '{}' refused", executor.name(), request.getCommand());
+                    sendResponse(exchange, AidosServiceUnavailableResponse.create("COMMAND " + request.getCommand()
+                            + " can't be executed now, too many requests are waiting"), beginningTime);
+                }
+            }, () -> sendResponse(exchange, process(request), beginningTime));
+        }
+    }
+
+    private static boolean accessLimited(final String command, final InetSocketAddress sourceAddress) {
+        return command != null && AidosConfiguration.string(DefaultConfSettings.REMOTEAPILIMIT).contains(command)
+                && !sourceAddress.getAddress().isLoopbackAddress();
     }
 
-    private AidosAbstractResponse process(final String requestString, InetSocketAddress sourceAddress) throws UnsupportedEncodingException {
+    private AidosAbstractResponse process(final AidosRequest request) {
 
         try {
 
-            final Map<String, Object> request = gson.fromJson(requestString, Map.class);
             if (request == null) {
-                return AidosExceptionResponse.create("Invalid request payload: '" + requestString + "'");
+                return AidosExceptionResponse.create("Invalid request payload: empty body");
             }
 
-            final String command = (String) request.get("command");
+            final String command = request.getCommand();
             if (command == null) {
                 return AidosErrorResponse.create("COMMAND parameter has not been specified in the request.");
             }
 
-            if (AidosConfiguration.string(DefaultConfSettings.REMOTEAPILIMIT).contains(command) &&
-                    !sourceAddress.getAddress().isLoopbackAddress()) {
-                return AidosAccessLimitedResponse.create("COMMAND " + command + " is not available on this node");
-            }
-
             log.info("# {} -> Requesting command '{}'", counter.incrementAndGet(), command);
 
             switch (command) {
 
                 case "addNeighbors": {
-                    final List<String> uris = (List<String>) request.get("uris");
+                    final List<String> uris = request.getUris();
                     log.debug("Invoking 'addNeighbors' with {}", uris);
                     return addNeighborsStatement(uris);
                 }
                 case "attachToTangle": {
-                    final AidosHash trunkTransaction = new AidosHash((String) request.get("trunkTransaction"));
-                    final AidosHash branchTransaction = new AidosHash((String) request.get("branchTransaction"));
-                    final int minWeightMagnitude = ((Double) request.get("minWeightMagnitude")).intValue();
-                    final List<String> trytes = (List<String>) request.get("trytes");
+                    final AidosHash trunkTransaction = new AidosHash(request.getTrunkTransaction());
+                    final AidosHash branchTransaction = new AidosHash(request.getBranchTransaction());
+                    final int minWeightMagnitude = request.getMinWeightMagnitude();
+                    final List<String> trytes = request.getTrytes();
 
                     return attachToTangleStatement(trunkTransaction, branchTransaction, minWeightMagnitude, trytes);
                 }
                 case "broadcastTransactions": {
-                    final List<String> trytes = (List<String>) request.get("trytes");
+                    final List<String> trytes = request.getTrytes();
                     log.debug("Invoking 'broadcastTransactions' with {}", trytes);
                     return broadcastTransactionStatement(trytes);
                 }
@@ -147,13 +207,13 @@ public class AidosAPI {
                     return findTransactionStatement(request);
                 }
                 case "getBalances": {
-                    final List<String> addresses = (List<String>) request.get("addresses");
-                    final int threshold = ((Double) request.get("threshold")).intValue();
+                    final List<String> addresses = request.getAddresses();
+                    final int threshold = request.getThreshold();
                     return getBalancesStatement(addresses, threshold);
                 }
                 case "getInclusionStates": {
-                    final List<String> trans = (List<String>) request.get("transactions");
-                    final List<String> tps = (List<String>) request.get("tips");
+                    final List<String> trans = request.getTransactions();
+                    final List<String> tps = request.getTips();
 
                     if (trans == null || tps == null) {
                         return AidosErrorResponse.create("getInclusionStates Bad Request.");
@@ -170,18 +230,13 @@ public class AidosAPI {
                 }
                 case "getNodeInfo": {
                     return AidosGetNodeInfoResponse.create(Aidos.NAME, Aidos.VERSION, Runtime.getRuntime().availableProcessors(),
-                            Runtime.getRuntime().freeMemory(), System.getProperty("java.version"), Runtime.getRuntime().maxMemory(),
-                            Runtime.getRuntime().totalMemory(), AidosMilestone.latestMilestone, AidosMilestone.latestMilestoneIndex,
-                            AidosMilestone.latestSolidSubtangleMilestone, AidosMilestone.latestSolidSubtangleMilestoneIndex,
-                            AidosNode.instance().howManyNeighbors(), AidosNode.instance().queuedTransactionsSize(),
-                            System.currentTimeMillis(), AidosStorageTransactions.instance().tips().size(),
-                            AidosStorageScratchpad.instance().getNumberOfTransactionsToRequest());
+                            System.getProperty("java.version"), AidosNodeStatus.current(), System.currentTimeMillis());
                 }
                 case "getTips": {
                     return getTipsStatement();
                 }
                 case "getTransactionsToApprove": {
-                    final int depth = ((Double) request.get("depth")).intValue();
+                    final int depth = request.getDepth();
                     if (invalidSubtangleStatus()) {
                         return AidosErrorResponse
                                 .create("This operations cannot be executed: The subtangle has not been updated yet.");
@@ -189,23 +244,23 @@ public class AidosAPI {
                     return getTransactionToApproveStatement(depth);
                 }
                 case "getTrytes": {
-                    final List<String> hashes = (List<String>) request.get("hashes");
+                    final List<String> hashes = request.getHashes();
                     log.debug("Executing getTrytesStatement: {}", hashes);
                     return getTrytesStatement(hashes);
                 }
 
                 case "interruptAttachingToTangle": {
-                    pearlDiver.cancel();
+                    pearlDivers.forEach(AidosPearlDiver::cancel);
                     return AidosAbstractResponse.createEmptyResponse();
                 }
                 case "removeNeighbors": {
-                    final List<String> uris = (List<String>) request.get("uris");
+                    final List<String> uris = request.getUris();
                     log.debug("Invoking 'removeNeighbors' with {}", uris);
                     return removeNeighborsStatement(uris);
                 }
 
                 case "storeTransactions": {
-                    List<String> trytes = (List<String>) request.get("trytes");
+                    final List<String> trytes = request.getTrytes();
                     log.debug("Invoking 'storeTransactions' with {}", trytes);
                     return storeTransactionStatement(trytes);
                 }
@@ -235,17 +290,38 @@ public class AidosAPI {
     }
 
     private AidosAbstractResponse getTrytesStatement(List<String> hashes) {
-        final List<String> elements = new LinkedList<>();
-        for (final String hash : hashes) {
-            final AidosTransaction transaction = AidosStorageTransactions.instance().loadTransaction((new AidosHash(hash)).bytes());
-            if (transaction != null) {
-                elements.add(AidosConverter.trytes(transaction.trits()));
+
+        final AidosHash[] transactions = new AidosHash[hashes.size()];
+        final String[] cachedTrytes = new String[transactions.length];
+        int numberOfMissingTransactions = 0;
+        for (int i = 0; i < transactions.length; i++) {
+            transactions[i] = new AidosHash(hashes.get(i));
+            if ((cachedTrytes[i] = trytesCache.get(transactions[i])) == null) {
+                numberOfMissingTransactions++;
+            }
+        }
+
+        // All the transactions not cached are looked up in one batch
+        final byte[][] missingTransactions = new byte[numberOfMissingTransactions][];
+        for (int i = 0, j = 0; i < transactions.length; i++) {
+            if (cachedTrytes[i] == null) {
+                missingTransactions[j++] = transactions[i].bytes();
+            }
+        }
+        final long[] missingPointers = AidosStorageTransactions.instance().transactionPointers(missingTransactions);
+
+        final CachedTrytes elements = new CachedTrytes(transactions.length);
+        for (int i = 0, j = 0; i < transactions.length; i++) {
+            if (cachedTrytes[i] != null) {
+                elements.add(transactions[i], cachedTrytes[i], 0);
+            } else if (missingPointers[j++] > 0) {
+                elements.add(transactions[i], null, missingPointers[j - 1]);
             }
         }
         return AidosGetTrytesResponse.create(elements);
     }
 
-    private synchronized AidosAbstractResponse getTransactionToApproveStatement(final int depth) {
+    private AidosAbstractResponse getTransactionToApproveStatement(final int depth) {
         final AidosHash trunkTransactionToApprove = AidosTipsManager.transactionToApprove(null, depth);
         if (trunkTransactionToApprove == null) {
             return AidosErrorResponse.create("The subtangle is not solid");
@@ -258,13 +334,12 @@ public class AidosAPI {
     }
 
     private AidosAbstractResponse getTipsStatement() {
-        return AidosGetTipsResponse.create(
-                AidosStorageTransactions.instance().tips().stream().map(AidosHash::toString).collect(Collectors.toList()));
+        return AidosGetTipsResponse.create(new StoredTrytes(AidosStorageTransactions.instance().tipPointers(),
+                AidosTransaction.HASH_OFFSET, AidosTransaction.HASH_SIZE, AidosCurl.HASH_LENGTH));
     }
 
     private AidosAbstractResponse storeTransactionStatement(final List<String> trys) {
-        for (final String trytes : trys) {
-            final AidosTransaction transaction = new AidosTransaction(AidosConverter.trits(trytes));
+        for (final AidosTransaction transaction : AidosTransaction.transactions(trys.stream().map(AidosConverter::trits).toArray(int[][]::new))) {
             AidosStorageTransactions.instance().storeTransaction(transaction.hash, transaction, false);
         }
         return AidosAbstractResponse.createEmptyResponse();
@@ -282,11 +357,9 @@ public class AidosAPI {
         int numberOfNonMetTransactions = transactions.size();
         final boolean[] inclusionStates = new boolean[numberOfNonMetTransactions];
 
-        synchronized (AidosStorageScratchpad.instance().getAnalyzedTransactionsFlags()) {
-
-            AidosStorageScratchpad.instance().clearAnalyzedTransactionsFlags();
+        try (final AidosTraversalFlags analyzedTransactions = AidosStorageScratchpad.instance().traversalFlags()) {
 
-            final Queue<Long> nonAnalyzedTransactions = new LinkedList<>();
+            final AidosLongQueue nonAnalyzedTransactions = new AidosLongQueue();
             for (final AidosHash tip : tips) {
 
                 final long pointer = AidosStorageTransactions.instance().transactionPointer(tip.bytes());
@@ -297,18 +370,20 @@ public class AidosAPI {
             }
 
             {
-                Long pointer;
+                final AidosTransactionView transaction = new AidosTransactionView();
+                final byte[] hash = new byte[AidosTransaction.HASH_SIZE];
                 MAIN_LOOP:
-                while ((pointer = nonAnalyzedTransactions.poll()) != null) {
+                while (!nonAnalyzedTransactions.isEmpty()) {
+                    final long pointer = nonAnalyzedTransactions.poll();
 
-                    if (AidosStorageScratchpad.instance().setAnalyzedTransactionFlag(pointer)) {
+                    if (analyzedTransactions.set(pointer)) {
 
-                        final AidosTransaction transaction = AidosStorageTransactions.instance().loadTransaction(pointer);
-                        if (transaction.type == AidosStorage.PREFILLED_SLOT) {
+                        AidosStorageTransactions.instance().loadTransaction(pointer, transaction);
+                        if (transaction.type() == AidosStorage.PREFILLED_SLOT) {
                             return AidosErrorResponse.create("The subtangle is not solid");
                         } else {
 
-                            final AidosHash transactionHash = new AidosHash(transaction.hash, 0, AidosTransaction.HASH_SIZE);
+                            final AidosHash transactionHash = new AidosHash(transaction.hash(hash), 0, AidosTransaction.HASH_SIZE);
                             for (int i = 0; i < inclusionStates.length; i++) {
 
                                 if (!inclusionStates[i] && transactionHash.equals(transactions.get(i))) {
@@ -320,8 +395,8 @@ public class AidosAPI {
                                     }
                                 }
                             }
-                            nonAnalyzedTransactions.offer(transaction.trunkTransactionPointer);
-                            nonAnalyzedTransactions.offer(transaction.branchTransactionPointer);
+                            nonAnalyzedTransactions.offer(transaction.trunkTransactionPointer());
+                            nonAnalyzedTransactions.offer(transaction.branchTransactionPointer());
                         }
                     }
                 }
@@ -330,18 +405,18 @@ public class AidosAPI {
         }
     }
 
-    private AidosAbstractResponse findTransactionStatement(final Map<String, Object> request) {
-        final Set<Long> bundlesTransactions = new HashSet<>();
-        if (request.containsKey("bundles")) {
-            for (final String bundle : (List<String>) request.get("bundles")) {
+    private AidosAbstractResponse findTransactionStatement(final AidosRequest request) {
+        final AidosLongSet bundlesTransactions = new AidosLongSet();
+        if (request.getBundles() != null) {
+            for (final String bundle : request.getBundles()) {
                 bundlesTransactions.addAll(AidosStorageBundle.instance()
                         .bundleTransactions(AidosStorageBundle.instance().bundlePointer((new AidosHash(bundle)).bytes())));
             }
         }
 
-        final Set<Long> addressesTransactions = new HashSet<>();
-        if (request.containsKey("addresses")) {
-            final List<String> addresses = (List<String>) request.get("addresses");
+        final AidosLongSet addressesTransactions = new AidosLongSet();
+        if (request.getAddresses() != null) {
+            final List<String> addresses = request.getAddresses();
             log.debug("Searching: {}", addresses.stream().reduce((a, b) -> a += ',' + b));
 
             for (final String address : addresses) {
@@ -353,9 +428,9 @@ public class AidosAPI {
             }
         }
 
-        final Set<Long> tagsTransactions = new HashSet<>();
-        if (request.containsKey("tags")) {
-            for (String tag : (List<String>) request.get("tags")) {
+        final AidosLongSet tagsTransactions = new AidosLongSet();
+        if (request.getTags() != null) {
+            for (String tag : request.getTags()) {
                 while (tag.length() < AidosCurl.HASH_LENGTH / AidosConverter.NUMBER_OF_TRITS_IN_A_TRYTE) {
                     tag += AidosConverter.TRYTE_ALPHABET.charAt(0);
                 }
@@ -364,19 +439,19 @@ public class AidosAPI {
             }
         }
 
-        final Set<Long> approveeTransactions = new HashSet<>();
+        final AidosLongSet approveeTransactions = new AidosLongSet();
 
-        if (request.containsKey("approvees")) {
-            for (final String approvee : (List<String>) request.get("approvees")) {
+        if (request.getApprovees() != null) {
+            for (final String approvee : request.getApprovees()) {
                 approveeTransactions.addAll(AidosStorageApprovers.instance().approveeTransactions(
                         AidosStorageApprovers.instance().approveePointer((new AidosHash(approvee)).bytes())));
             }
         }
 
         // need refactoring
-        final Set<Long> foundTransactions = bundlesTransactions.isEmpty() ? (addressesTransactions.isEmpty()
+        final AidosLongSet foundTransactions = bundlesTransactions.isEmpty() ? (addressesTransactions.isEmpty()
                 ? (tagsTransactions.isEmpty()
-                ? (approveeTransactions.isEmpty() ? new HashSet<>() : approveeTransactions) : tagsTransactions)
+                ? (approveeTransactions.isEmpty() ? new AidosLongSet() : approveeTransactions) : tagsTransactions)
                 : addressesTransactions) : bundlesTransactions;
 
         if (!addressesTransactions.isEmpty()) {
@@ -389,17 +464,14 @@ public class AidosAPI {
             foundTransactions.retainAll(approveeTransactions);
         }
 
-        final List<String> elements = foundTransactions.stream()
-                .map(pointer -> new AidosHash(AidosStorageTransactions.instance().loadTransaction(pointer).hash, 0,
-                        AidosTransaction.HASH_SIZE).toString())
-                .collect(Collectors.toCollection(LinkedList::new));
+        final AidosLongList pointers = new AidosLongList(foundTransactions.size());
+        foundTransactions.forEach(pointers::add);
 
-        return AidosFindTransactionsResponse.create(elements);
+        return AidosFindTransactionsResponse.create(new StoredTrytes(pointers, AidosTransaction.HASH_OFFSET, AidosTransaction.HASH_SIZE, AidosCurl.HASH_LENGTH));
     }
 
     private AidosAbstractResponse broadcastTransactionStatement(final List<String> trytes2) {
-        for (final String tryte : trytes2) {
-            final AidosTransaction transaction = new AidosTransaction(AidosConverter.trits(tryte));
+        for (final AidosTransaction transaction : AidosTransaction.transactions(trytes2.stream().map(AidosConverter::trits).toArray(int[][]::new))) {
             transaction.weightMagnitude = AidosCurl.HASH_LENGTH;
             AidosNode.instance().broadcast(transaction);
         }
@@ -413,54 +485,20 @@ public class AidosAPI {
         }
 
         final List<AidosHash> addresses = addrss.stream().map(address -> (new AidosHash(address)))
-                .collect(Collectors.toCollection(LinkedList::new));
-
-        final Map<AidosHash, Long> balances = new HashMap<>();
-        for (final AidosHash address : addresses) {
-            balances.put(address,
-                    AidosSnapshot.initialState.containsKey(address) ? AidosSnapshot.initialState.get(address) : Long.valueOf(0));
-        }
-
-        final AidosHash milestone = AidosMilestone.latestSolidSubtangleMilestone;
-        final int milestoneIndex = AidosMilestone.latestSolidSubtangleMilestoneIndex;
-
-        synchronized (AidosStorageScratchpad.instance().getAnalyzedTransactionsFlags()) {
-
-            AidosStorageScratchpad.instance().clearAnalyzedTransactionsFlags();
-
-            final Queue<Long> nonAnalyzedTransactions = new LinkedList<>(
-                    Collections.singleton(AidosStorageTransactions.instance().transactionPointer(milestone.bytes())));
-            Long pointer;
-            while ((pointer = nonAnalyzedTransactions.poll()) != null) {
-
-                if (AidosStorageScratchpad.instance().setAnalyzedTransactionFlag(pointer)) {
-
-                    final AidosTransaction transaction = AidosStorageTransactions.instance().loadTransaction(pointer);
+                .collect(Collectors.toList());
 
-                    if (transaction.value != 0) {
+        // Materialized at every solid milestone, no walk is needed
+        final AidosLedger.State ledgerState = AidosLedger.instance().state();
 
-                        final AidosHash address = new AidosHash(transaction.address, 0, AidosTransaction.ADDRESS_SIZE);
-                        final Long balance = balances.get(address);
-                        if (balance != null) {
+        final List<String> elements = addresses.stream().map(address -> Long.toString(ledgerState.balance(address)))
+                .collect(Collectors.toList());
 
-                            balances.put(address, balance + transaction.value);
-                        }
-                    }
-                    nonAnalyzedTransactions.offer(transaction.trunkTransactionPointer);
-                    nonAnalyzedTransactions.offer(transaction.branchTransactionPointer);
-                }
-            }
-        }
-
-        final List<String> elements = addresses.stream().map(address -> balances.get(address).toString())
-                .collect(Collectors.toCollection(LinkedList::new));
-
-        return AidosGetBalancesResponse.create(elements, milestone, milestoneIndex);
+        return AidosGetBalancesResponse.create(elements, ledgerState.milestone, ledgerState.milestoneIndex);
     }
 
-    private synchronized AidosAbstractResponse attachToTangleStatement(final AidosHash trunkTransaction, final AidosHash branchTransaction,
+    private AidosAbstractResponse attachToTangleStatement(final AidosHash trunkTransaction, final AidosHash branchTransaction,
                                                                   final int minWeightMagnitude, final List<String> trytes) {
-        final List<AidosTransaction> transactions = new LinkedList<>();
+        final List<AidosTransaction> transactions = new ArrayList<>(trytes.size());
 
         AidosHash prevTransaction = null;
 
@@ -474,7 +512,7 @@ public class AidosAPI {
                     transactionTrits, AidosTransaction.BRANCH_TRANSACTION_TRINARY_OFFSET,
                     AidosTransaction.BRANCH_TRANSACTION_TRINARY_SIZE);
 
-            if (!pearlDiver.search(transactionTrits, minWeightMagnitude, 0)) {
+            if (!pearlDiver.get().search(transactionTrits, minWeightMagnitude, 0)) {
                 transactions.clear();
                 break;
             }
@@ -483,9 +521,9 @@ public class AidosAPI {
             prevTransaction = new AidosHash(transaction.hash, 0, AidosTransaction.HASH_SIZE);
         }
 
-        final List<String> elements = new LinkedList<>();
+        final List<String> elements = new ArrayList<>(transactions.size());
         for (int i = transactions.size(); i-- > 0; ) {
-            elements.add(AidosConverter.trytes(transactions.get(i).trits()));
+            elements.add(AidosConverter.trytes(transactions.get(i).bytes, 0, AidosTransaction.TRINARY_SIZE));
         }
         return AidosAttachToTangleResponse.create(elements);
     }
@@ -506,10 +544,8 @@ public class AidosAPI {
         return AidosAddedNeighborsResponse.create(numberOfAddedNeighbors);
     }
 
-    private void sendResponse(final HttpServerExchange exchange, final AidosAbstractResponse res, final long beginningTime)
-            throws IOException {
+    private void sendResponse(final HttpServerExchange exchange, final AidosAbstractResponse res, final long beginningTime) {
         res.setDuration((int) (System.currentTimeMillis() - beginningTime));
-        final String response = gson.toJson(res);
 
         if (res instanceof AidosErrorResponse) {
             exchange.setStatusCode(400); // bad request
@@ -517,29 +553,81 @@ public class AidosAPI {
             exchange.setStatusCode(401); // api method not allowed
         } else if (res instanceof AidosExceptionResponse) {
             exchange.setStatusCode(500); // internal error
+        } else if (res instanceof AidosServiceUnavailableResponse) {
+            exchange.setStatusCode(503); // too many requests waiting
         }
 
         setupResponseHeaders(exchange);
 
-        ByteBuffer responseBuf = ByteBuffer.wrap(response.getBytes(StandardCharsets.UTF_8));
-        exchange.setResponseContentLength(responseBuf.array().length);
-        StreamSinkChannel sinkChannel = exchange.getResponseChannel();
-        sinkChannel.getWriteSetter().set( channel -> {
-            if (responseBuf.remaining() > 0)
-                try {
-                    sinkChannel.write(responseBuf);
-                    if (responseBuf.remaining() == 0) {
-                        exchange.endExchange();
-                    }
-                } catch (IOException e) {
-                    log.error("Error writing response",e);
-                    exchange.endExchange();
-                }
-            else {
-                exchange.endExchange();
+        // Written through the pooled buffers of the exchange, large responses go out chunked as they are encoded
+        try (final Writer writer = new OutputStreamWriter(exchange.getOutputStream(), StandardCharsets.UTF_8)) {
+            gson.toJson(res, writer);
+        } catch (final IOException | JsonIOException e) {
+            log.error("Error writing response", e);
+        } finally {
+            exchange.endExchange();
+            requestsInProgress.decrementAndGet();
+            AidosNodeStatus.updateRequests(requestsInProgress);
+        }
+    }
+
+    /**
+     * Trytes of a field of stored transactions, encoded only when the response is written so large responses never
+     * hold more than the pointers. Stored cells never change once filled, so the encoding is the same at any time.
+     */
+    private static class StoredTrytes extends AbstractList<String> {
+
+        final AidosLongList pointers;
+        private final int offset, size, tritsSize;
+        private final byte[] buffer;
+
+        StoredTrytes(final AidosLongList pointers, final int offset, final int size, final int tritsSize) {
+            this.pointers = pointers;
+            this.offset = offset;
+            this.size = size;
+            this.tritsSize = tritsSize;
+            buffer = new byte[(tritsSize + AidosConverter.NUMBER_OF_TRITS_IN_A_BYTE - 1) / AidosConverter.NUMBER_OF_TRITS_IN_A_BYTE]; // Bytes past the stored field stay zero
+        }
+
+        @Override
+        public String get(final int index) {
+            return AidosConverter.trytes(AidosStorageTransactions.instance().transactionBytes(pointers.get(index), offset, buffer, size), 0, tritsSize);
+        }
+
+        @Override
+        public int size() {
+            return pointers.size();
+        }
+    }
+
+    /**
+     * Trytes of whole stored transactions, those not found in the cache are encoded and cached when written.
+     */
+    private class CachedTrytes extends StoredTrytes {
+
+        private final List<AidosHash> transactions;
+        private final List<String> cachedTrytes;
+
+        CachedTrytes(final int capacity) {
+            super(new AidosLongList(capacity), AidosTransaction.BYTES_OFFSET, AidosTransaction.BYTES_SIZE, AidosTransaction.TRINARY_SIZE);
+            transactions = new ArrayList<>(capacity);
+            cachedTrytes = new ArrayList<>(capacity);
+        }
+
+        void add(final AidosHash transaction, final String trytes, final long pointer) { // Pointer is ignored if the trytes are cached
+            transactions.add(transaction);
+            cachedTrytes.add(trytes);
+            pointers.add(pointer);
+        }
+
+        @Override
+        public String get(final int index) {
+            String trytes = cachedTrytes.get(index);
+            if (trytes == null) {
+                trytesCache.put(transactions.get(index), trytes = super.get(index));
             }
-        });
-        sinkChannel.resumeWrites();
+            return trytes;
+        }
     }
 
     private static void setupResponseHeaders(final HttpServerExchange exchange) {
@@ -549,10 +637,20 @@ public class AidosAPI {
         headerMap.add(new HttpString("Keep-Alive"), "timeout=500, max=100");
     }
 
+    void refreshStatus() { // Called by the status refresher of the node, does nothing until the API is initialised
+
+        final AidosCommandExecutor powExecutor = this.powExecutor, tipsExecutor = this.tipsExecutor, queryExecutor = this.queryExecutor;
+        if (queryExecutor != null) {
+            AidosNodeStatus.updateExecutors(powExecutor.queueSize(), powExecutor.rejections(), tipsExecutor.queueSize(),
+                    tipsExecutor.rejections(), queryExecutor.queueSize(), queryExecutor.rejections());
+        }
+    }
+
     public void shutDown() {
         if (server != null) {
             server.stop();
         }
+        executors.values().stream().distinct().forEach(AidosCommandExecutor::shutdown);
     }
 
     private static AidosAPI instance = new AidosAPI();
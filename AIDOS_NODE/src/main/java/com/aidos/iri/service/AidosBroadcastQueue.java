@@ -0,0 +1,118 @@
+package com.aidos.iri.service;
+
+import java.util.Comparator;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+import com.aidos.iri.model.AidosTransaction;
+
+/**
+ * Bounded queue of transactions to broadcast, the heaviest first and among equally heavy ones the newest first. When
+ * it's full the lightest transaction is dropped, the oldest of them if several are equally light, so a burst of cheap
+ * transactions can't push out the ones which took more work. The broadcaster waits on it instead of polling.
+ */
+public class AidosBroadcastQueue {
+
+    private static class Entry {
+
+        final AidosTransaction transaction;
+        final int weightMagnitude;
+        final long sequence;
+        final long queuingTime;
+
+        Entry(final AidosTransaction transaction, final long sequence, final long queuingTime) {
+            this.transaction = transaction;
+            weightMagnitude = transaction.weightMagnitude;
+            this.sequence = sequence;
+            this.queuingTime = queuingTime;
+        }
+    }
+
+    private static final Comparator<Entry> ORDER = (entry1, entry2) -> entry1.weightMagnitude == entry2.weightMagnitude
+            ? Long.compare(entry2.sequence, entry1.sequence) : entry2.weightMagnitude - entry1.weightMagnitude;
+
+    private final int capacity;
+    private final TreeSet<Entry> entries = new TreeSet<>(ORDER);
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition notEmpty = lock.newCondition();
+    private long sequence;
+
+    private final AtomicLong queued = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong taken = new AtomicLong();
+    private final AtomicLong waitingTime = new AtomicLong();
+
+    public AidosBroadcastQueue(final int capacity) {
+
+        if (capacity < 1) {
+            throw new RuntimeException("Invalid broadcast queue capacity: " + capacity);
+        }
+        this.capacity = capacity;
+    }
+
+    public void offer(final AidosTransaction transaction) {
+
+        lock.lock();
+        try {
+            entries.add(new Entry(transaction, sequence++, System.nanoTime()));
+            queued.incrementAndGet();
+            if (entries.size() > capacity) {
+                entries.pollLast();
+                dropped.incrementAndGet();
+            }
+            notEmpty.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public AidosTransaction poll(final long timeout, final TimeUnit unit) throws InterruptedException { // Returns null on timeout
+
+        final Entry entry;
+        lock.lock();
+        try {
+            long nanos = unit.toNanos(timeout);
+            while (entries.isEmpty()) {
+                if (nanos <= 0) {
+                    return null;
+                }
+                nanos = notEmpty.awaitNanos(nanos);
+            }
+            entry = entries.pollFirst();
+        } finally {
+            lock.unlock();
+        }
+        taken.incrementAndGet();
+        waitingTime.addAndGet(System.nanoTime() - entry.queuingTime);
+        return entry.transaction;
+    }
+
+    public int size() {
+
+        lock.lock();
+        try {
+            return entries.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long queued() {
+        return queued.get();
+    }
+
+    public long dropped() {
+        return dropped.get();
+    }
+
+    public long taken() {
+        return taken.get();
+    }
+
+    public long waitingTime() { // Total nanoseconds the taken transactions waited
+        return waitingTime.get();
+    }
+}
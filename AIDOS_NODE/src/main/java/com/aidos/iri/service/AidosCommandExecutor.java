@@ -0,0 +1,61 @@
+package com.aidos.iri.service;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Fixed pool of threads running the API commands of one kind, with a bounded queue of waiting requests. Once both
+ * are full new requests are refused at once instead of waiting, so a burst of slow commands can't delay the others.
+ */
+public class AidosCommandExecutor {
+
+    private final String name;
+    private final ThreadPoolExecutor executor;
+    private final AtomicLong rejections = new AtomicLong();
+
+    public AidosCommandExecutor(final String name, final int numberOfThreads, final int queueSize) {
+
+        if (numberOfThreads < 1 || queueSize < 1) {
+            throw new RuntimeException("Invalid " + name + " executor size: " + numberOfThreads + " threads, " + queueSize + " queued");
+        }
+        this.name = name;
+
+        final AtomicInteger numberOfCreatedThreads = new AtomicInteger();
+        executor = new ThreadPoolExecutor(numberOfThreads, numberOfThreads, 0, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(queueSize), runnable -> {
+            final Thread thread = new Thread(runnable, "API " + name + " #" + numberOfCreatedThreads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public boolean execute(final Runnable command) { // Returns false if the command was refused
+
+        try {
+            executor.execute(command);
+            return true;
+        } catch (final RejectedExecutionException e) {
+            rejections.incrementAndGet();
+            return false;
+        }
+    }
+
+    public String name() {
+        return name;
+    }
+
+    public int queueSize() {
+        return executor.getQueue().size();
+    }
+
+    public long rejections() {
+        return rejections.get();
+    }
+
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
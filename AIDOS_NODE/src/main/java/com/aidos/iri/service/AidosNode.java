@@ -1,25 +1,33 @@
 package com.aidos.iri.service;
 
 import java.io.IOException;
-import java.net.DatagramPacket;
-import java.net.DatagramSocket;
 import java.net.InetAddress;
 import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.net.StandardSocketOptions;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.net.UnknownHostException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.DatagramChannel;
 import java.security.SecureRandom;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
-import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.Queue;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.LockSupport;
 import java.util.stream.Collectors;
 
 import org.apache.commons.lang3.StringUtils;
@@ -30,12 +38,16 @@ import com.aidos.iri.AidosMilestone;
 import com.aidos.iri.AidosNeighbor;
 import com.aidos.iri.conf.AidosConfiguration;
 import com.aidos.iri.conf.AidosConfiguration.DefaultConfSettings;
+import com.aidos.iri.hash.AidosBatchCurl;
 import com.aidos.iri.hash.AidosCurl;
-import com.aidos.iri.model.AidosHash;
 import com.aidos.iri.model.AidosTransaction;
 import com.aidos.iri.service.storage.AidosStorage;
 import com.aidos.iri.service.storage.AidosStorageScratchpad;
 import com.aidos.iri.service.storage.AidosStorageTransactions;
+import com.aidos.iri.utils.AidosDuplicateFilter;
+import com.aidos.iri.utils.AidosLongList;
+import com.aidos.iri.utils.AidosStageQueue;
+import com.aidos.iri.utils.AidosUdpStatistics;
 
 /**
  * The class node is responsible for managing Thread's connection.
@@ -48,27 +60,73 @@ public class AidosNode {
 
     private static final int TRANSACTION_PACKET_SIZE = 1650;
     private static final int QUEUE_SIZE = 1000;
-    private static final int PAUSE_BETWEEN_TRANSACTIONS = 1;
+    private static final int BROADCASTER_PAUSE = 1000;
+    private static final int STAGE_QUEUE_SIZE = 256;
+    private static final int STATUS_REFRESH_INTERVAL = 1000;
+    private static final int DUPLICATE_FILTER_SIZE = 1 << 14; // Each entry retains the transaction bytes, about 26 MB in all
+    private static final int SENDING_BATCH_SIZE = 16;
+    private static final long SENDER_PAUSE = TimeUnit.MILLISECONDS.toNanos(100);
 
-    private DatagramSocket socket;
+    private DatagramChannel channel;
+    private int receiveBufferSize;
 
     private final AtomicBoolean shuttingDown = new AtomicBoolean(false);
 
     private final List<AidosNeighbor> neighbors = new CopyOnWriteArrayList<>();
-    private final ConcurrentSkipListSet<AidosTransaction> queuedTransactions = weightQueue();
+    private final AidosBroadcastQueue queuedTransactions = new AidosBroadcastQueue(QUEUE_SIZE);
+
+    /**
+     * Outgoing packets are built by the threads sending them, each in a buffer of its own, and queued to their neighbor.
+     * The sender thread goes round the neighbors sending a few queued packets of each at a time, so no thread waits
+     * for another to build or send its packets.
+     */
+    private final Queue<byte[]> freeOutboundPackets = new ConcurrentLinkedQueue<>();
+    private volatile Thread senderThread;
+
+    /**
+     * Received packets go through three stages: receiver threads read them into a fixed ring of buffers, hasher
+     * threads convert and hash them a batch at a time, and the storer thread, the only one writing received
+     * transactions, stores them and answers the requests. A stage waits when the queue of the next one is full and the
+     * receivers wait for a free buffer, so a slow stage holds packets back in the socket instead of on the heap.
+     * Copies of recently hashed transactions are recognized by the receivers and go straight to the storer, which only
+     * answers their requests.
+     */
+    private static class ReceivedPacket {
+
+        final byte[] data = new byte[TRANSACTION_PACKET_SIZE];
+        final int[] hashTrits = new int[AidosCurl.HASH_LENGTH];
+
+        long fingerprint;
+        byte[] knownHash; // Set for duplicates of recently hashed transactions, which are not hashed again
+
+        AidosNeighbor neighbor;
+        AidosTransaction transaction;
+    }
+
+    private final AidosStageQueue<ReceivedPacket> hashingQueue = new AidosStageQueue<>(STAGE_QUEUE_SIZE, shuttingDown);
+    private final AidosStageQueue<ReceivedPacket> storingQueue = new AidosStageQueue<>(STAGE_QUEUE_SIZE, shuttingDown);
+    private final AidosDuplicateFilter duplicateFilter = new AidosDuplicateFilter(DUPLICATE_FILTER_SIZE);
 
-    private final DatagramPacket receivingPacket = new DatagramPacket(new byte[TRANSACTION_PACKET_SIZE],
-            TRANSACTION_PACKET_SIZE);
-    private final DatagramPacket sendingPacket = new DatagramPacket(new byte[TRANSACTION_PACKET_SIZE],
-            TRANSACTION_PACKET_SIZE);
-    private final DatagramPacket tipRequestingPacket = new DatagramPacket(new byte[TRANSACTION_PACKET_SIZE],
-            TRANSACTION_PACKET_SIZE);
+    private final int numberOfHashers = Math.max(1, Runtime.getRuntime().availableProcessors() - 2);
+    private int numberOfReceivers;
 
-    private final ExecutorService executor = Executors.newFixedThreadPool(4);
+    // Enough buffers to fill both queues plus a batch per hasher, the receivers never run out of them
+    private int numberOfPacketBuffers;
+    private BlockingQueue<ReceivedPacket> freePackets;
+    private ExecutorService executor;
 
     public void init() throws Exception {
 
-        socket = new DatagramSocket(AidosConfiguration.integer(DefaultConfSettings.TANGLE_RECEIVER_PORT));
+        channel = DatagramChannel.open();
+        channel.setOption(StandardSocketOptions.SO_RCVBUF, AidosConfiguration.integer(DefaultConfSettings.TANGLE_RECEIVE_BUFFER_SIZE));
+        channel.bind(new InetSocketAddress(AidosConfiguration.integer(DefaultConfSettings.TANGLE_RECEIVER_PORT)));
+        receiveBufferSize = channel.getOption(StandardSocketOptions.SO_RCVBUF);
+        log.info("Receive buffer size: {} bytes", receiveBufferSize);
+
+        numberOfReceivers = Math.max(1, AidosConfiguration.integer(DefaultConfSettings.TANGLE_RECEIVER_THREADS));
+        numberOfPacketBuffers = STAGE_QUEUE_SIZE * 2 + numberOfHashers * AidosBatchCurl.NUMBER_OF_LANES + numberOfReceivers + 1;
+        freePackets = new ArrayBlockingQueue<>(numberOfPacketBuffers);
+        executor = Executors.newFixedThreadPool(6 + numberOfReceivers + numberOfHashers);
 
         Arrays.stream(AidosConfiguration.string(DefaultConfSettings.NEIGHBORS)
                 .split(" "))
@@ -88,14 +146,59 @@ public class AidosNode {
                 })
                 .forEach(neighbors::add);
 
-        executor.submit(spawnReceiverThread());
+        for (int i = 0; i < numberOfPacketBuffers; i++) {
+            freePackets.add(new ReceivedPacket());
+        }
+        for (int i = 0; i < numberOfReceivers; i++) {
+            executor.submit(spawnReceiverThread());
+        }
+        for (int i = 0; i < numberOfHashers; i++) {
+            executor.submit(spawnHasherThread());
+        }
+        executor.submit(spawnStorerThread());
+        executor.submit(spawnSenderThread());
         executor.submit(spawnBroadcasterThread());
         executor.submit(spawnTipRequesterThread());
         executor.submit(spawnNeighborDNSRefresherThread());
+        executor.submit(spawnStatusRefresherThread());
 
         executor.shutdown();
     }
 
+    private Runnable spawnStatusRefresherThread() {
+        return () -> {
+
+            log.info("Spawning Status Refresher Thread");
+
+            long previousBroadcastsSent = 0, previousBroadcastsWaitingTime = 0;
+
+            while (!shuttingDown.get()) {
+
+                try {
+                    final long broadcastsSent = queuedTransactions.taken(), broadcastsWaitingTime = queuedTransactions.waitingTime();
+                    AidosNodeStatus.updateBroadcasts(queuedTransactions.queued(), queuedTransactions.dropped(), broadcastsSent,
+                            broadcastsSent == previousBroadcastsSent ? 0 : TimeUnit.NANOSECONDS.toMillis(
+                                    (broadcastsWaitingTime - previousBroadcastsWaitingTime) / (broadcastsSent - previousBroadcastsSent)));
+                    previousBroadcastsSent = broadcastsSent;
+                    previousBroadcastsWaitingTime = broadcastsWaitingTime;
+
+                    AidosNodeStatus.updateNode(howManyNeighbors(), queuedTransactionsSize(), hashingQueueSize(), storingQueueSize(),
+                            receiverStalls(), hasherStalls(), AidosStorageScratchpad.instance().getNumberOfTransactionsToRequest());
+                    AidosNodeStatus.updateReceiver(receiveBufferSize,
+                            AidosUdpStatistics.droppedPackets(AidosConfiguration.integer(DefaultConfSettings.TANGLE_RECEIVER_PORT)));
+                    AidosNodeStatus.updateStorage(AidosStorageTransactions.instance().numberOfStoredTransactions(),
+                            AidosStorageTransactions.instance().numberOfTips());
+                    AidosAPI.instance().refreshStatus();
+
+                    Thread.sleep(STATUS_REFRESH_INTERVAL);
+                } catch (final Exception e) {
+                    log.error("Status Refresher Thread Exception:", e);
+                }
+            }
+            log.info("Shutting down Status Refresher Thread");
+        };
+    }
+
     private Map<String, String> neighborIpCache = new HashMap<>();
     
     private Runnable spawnNeighborDNSRefresherThread() {
@@ -168,87 +271,216 @@ public class AidosNode {
     private Runnable spawnReceiverThread() {
         return () -> {
 
-            final AidosCurl curl = new AidosCurl();
-            final int[] receivedTransactionTrits = new int[AidosTransaction.TRINARY_SIZE];
-            final byte[] requestedTransaction = new byte[AidosTransaction.HASH_SIZE];
+            // One byte more than a packet, so longer datagrams don't pass as packets when truncated
+            final ByteBuffer buffer = ByteBuffer.allocateDirect(TRANSACTION_PACKET_SIZE + 1);
 
             log.info("Spawning Receiver Thread");
 
-            final SecureRandom rnd = new SecureRandom();
-            long randomTipBroadcastCounter = 0;
-
             while (!shuttingDown.get()) {
 
+                ReceivedPacket receivedPacket = null;
                 try {
-                    socket.receive(receivingPacket);
+                    receivedPacket = freePackets.take();
+                    buffer.clear();
+                    final SocketAddress address = channel.receive(buffer);
+                    buffer.flip();
 
-                    if (receivingPacket.getLength() == TRANSACTION_PACKET_SIZE) {
+                    if (buffer.remaining() == TRANSACTION_PACKET_SIZE) {
 
                         for (final AidosNeighbor neighbor : neighbors) {
-                            if (neighbor.getAddress().equals(receivingPacket.getSocketAddress())) {
-                                try {
-
-                                    neighbor.incAllTransactions();
-                                    final AidosTransaction receivedTransaction = new AidosTransaction(receivingPacket.getData(),
-                                            receivedTransactionTrits, curl);
-                                    if (AidosStorageTransactions.instance().storeTransaction(receivedTransaction.hash,
-                                            receivedTransaction, false) != 0) {
-                                        neighbor.incNewTransactions();
-                                        broadcast(receivedTransaction);
-                                    }
-
-                                    final long transactionPointer;
-                                    System.arraycopy(receivingPacket.getData(), AidosTransaction.SIZE, requestedTransaction,
-                                            0, AidosTransaction.HASH_SIZE);
-                                    if (Arrays.equals(requestedTransaction, receivedTransaction.hash)) {
-
-                                        if (AidosConfiguration.booling(DefaultConfSettings.EXPERIMENTAL) &&
-                                                ++randomTipBroadcastCounter % 3 == 0) {
-                                            log.info("Experimental: Random Tip Broadcaster.");
-
-                                            final String [] tips = AidosStorageTransactions.instance().tips().stream()
-                                                    .map(AidosHash::toString)
-                                                    .toArray(size -> new String[size]);
-                                            final String rndTipHash = tips[rnd.nextInt(tips.length)];
-
-                                            transactionPointer = AidosStorageTransactions.instance()
-                                                    .transactionPointer(rndTipHash.getBytes());
-                                        } else {
-                                            transactionPointer = AidosStorageTransactions.instance()
-                                                    .transactionPointer(AidosMilestone.latestMilestone.bytes());
-                                        }
-                                    } else {
-                                        transactionPointer = AidosStorageTransactions.instance().transactionPointer(requestedTransaction);
+                            if (neighbor.getAddress().equals(address)) {
+
+                                buffer.get(receivedPacket.data);
+                                neighbor.incAllTransactions();
+                                receivedPacket.neighbor = neighbor;
+                                receivedPacket.fingerprint = AidosDuplicateFilter.fingerprint(receivedPacket.data, 0, AidosTransaction.SIZE);
+                                receivedPacket.knownHash = duplicateFilter.hash(receivedPacket.fingerprint, receivedPacket.data, 0);
+                                if (receivedPacket.knownHash != null) {
+                                    neighbor.incDuplicateTransactions();
+                                    if (storingQueue.put(receivedPacket)) {
+                                        receivedPacket = null;
                                     }
-                                    if (transactionPointer > AidosStorage.CELLS_OFFSET - AidosStorage.SUPER_GROUPS_OFFSET) {
-                                        synchronized (sendingPacket) {
-                                            System.arraycopy(
-                                                    AidosStorageTransactions.instance()
-                                                            .loadTransaction(transactionPointer).bytes,
-                                                    0, sendingPacket.getData(), 0, AidosTransaction.SIZE);
-                                            AidosStorageScratchpad.instance().transactionToRequest(sendingPacket.getData(),
-                                                    AidosTransaction.SIZE);
-                                            neighbor.send(sendingPacket);
-                                        }
+                                } else {
+                                    neighbor.incUnseenTransactions();
+                                    if (hashingQueue.put(receivedPacket)) {
+                                        receivedPacket = null;
                                     }
-                                } catch (final RuntimeException e) {
-                                    log.error("Received an Invalid Transaction. Dropping it...");
-                                    neighbor.incInvalidTransactions();
                                 }
                                 break;
                             }
                         }
-                    } else {
-                        receivingPacket.setLength(TRANSACTION_PACKET_SIZE);
                     }
+                } catch (final ClosedChannelException e) {
+                    // shutting down
                 } catch (final Exception e) {
                     log.error("Receiver Thread Exception:", e);
+                } finally {
+                    if (receivedPacket != null) {
+                        release(receivedPacket);
+                    }
                 }
             }
             log.info("Shutting down spawning Receiver Thread");
         };
     }
 
+    private Runnable spawnHasherThread() {
+        return () -> {
+
+            final AidosBatchCurl curl = new AidosBatchCurl();
+            final List<ReceivedPacket> batch = new ArrayList<>(AidosBatchCurl.NUMBER_OF_LANES);
+            final byte[][] bytes = new byte[AidosBatchCurl.NUMBER_OF_LANES][];
+            final int[][] hashTrits = new int[AidosBatchCurl.NUMBER_OF_LANES][];
+
+            log.info("Spawning Hasher Thread");
+
+            while (!shuttingDown.get()) {
+
+                int handedOver = 0; // Packets of the batch already stored or released, the others go back to the pool
+                try {
+                    final ReceivedPacket firstPacket = hashingQueue.take();
+                    if (firstPacket == null) {
+                        continue;
+                    }
+                    batch.add(firstPacket);
+                    hashingQueue.drainTo(batch, AidosBatchCurl.NUMBER_OF_LANES - 1);
+
+                    for (int i = 0; i < batch.size(); i++) {
+                        final ReceivedPacket receivedPacket = batch.get(i);
+                        bytes[i] = receivedPacket.data;
+                        hashTrits[i] = receivedPacket.hashTrits;
+                    }
+                    curl.hash(bytes, batch.size(), 0, AidosTransaction.TRINARY_SIZE, hashTrits);
+
+                    for (; handedOver < batch.size(); handedOver++) {
+                        final ReceivedPacket receivedPacket = batch.get(handedOver);
+                        try {
+                            receivedPacket.transaction = new AidosTransaction(receivedPacket.data, receivedPacket.hashTrits);
+                        } catch (final RuntimeException e) {
+                            log.error("Received an Invalid Transaction. Dropping it...");
+                            receivedPacket.neighbor.incInvalidTransactions();
+                            release(receivedPacket);
+                            continue;
+                        }
+                        duplicateFilter.add(receivedPacket.fingerprint, receivedPacket.transaction.bytes,
+                                receivedPacket.transaction.hash);
+                        if (!storingQueue.put(receivedPacket)) {
+                            release(receivedPacket);
+                        }
+                    }
+                } catch (final Exception e) {
+                    log.error("Hasher Thread Exception:", e);
+                } finally {
+                    for (int i = handedOver; i < batch.size(); i++) {
+                        release(batch.get(i));
+                    }
+                    batch.clear();
+                }
+            }
+            log.info("Shutting down Hasher Thread");
+        };
+    }
+
+    private Runnable spawnStorerThread() {
+        return () -> {
+
+            final byte[] requestedTransaction = new byte[AidosTransaction.HASH_SIZE];
+
+            log.info("Spawning Storer Thread");
+
+            final SecureRandom rnd = new SecureRandom();
+            long randomTipBroadcastCounter = 0;
+
+            while (!shuttingDown.get()) {
+
+                ReceivedPacket receivedPacket = null;
+                try {
+                    if ((receivedPacket = storingQueue.take()) == null) {
+                        continue;
+                    }
+                    final AidosNeighbor neighbor = receivedPacket.neighbor;
+                    final AidosTransaction receivedTransaction = receivedPacket.transaction;
+                    final byte[] receivedHash;
+                    if (receivedTransaction == null) {
+                        receivedHash = receivedPacket.knownHash; // Already stored or on its way to be
+                    } else {
+                        receivedHash = receivedTransaction.hash;
+                        if (AidosStorageTransactions.instance().storeTransaction(receivedTransaction.hash,
+                                receivedTransaction, false) != 0) {
+                            neighbor.incNewTransactions();
+                            broadcast(receivedTransaction);
+                        }
+                    }
+
+                    final long transactionPointer;
+                    System.arraycopy(receivedPacket.data, AidosTransaction.SIZE, requestedTransaction,
+                            0, AidosTransaction.HASH_SIZE);
+                    if (Arrays.equals(requestedTransaction, receivedHash)) {
+
+                        if (AidosConfiguration.booling(DefaultConfSettings.EXPERIMENTAL) &&
+                                ++randomTipBroadcastCounter % 3 == 0) {
+                            log.info("Experimental: Random Tip Broadcaster.");
+
+                            final AidosLongList tipPointers = AidosStorageTransactions.instance().tipPointers();
+                            transactionPointer = tipPointers.size() == 0 ? 0 : tipPointers.get(rnd.nextInt(tipPointers.size()));
+                        } else {
+                            transactionPointer = AidosStorageTransactions.instance()
+                                    .transactionPointer(AidosMilestone.latestMilestone.bytes());
+                        }
+                    } else {
+                        transactionPointer = AidosStorageTransactions.instance().transactionPointer(requestedTransaction);
+                    }
+                    if (transactionPointer > AidosStorage.CELLS_OFFSET - AidosStorage.SUPER_GROUPS_OFFSET) {
+                        send(neighbor, AidosStorageTransactions.instance().loadTransaction(transactionPointer).bytes, null);
+                    }
+                } catch (final Exception e) {
+                    log.error("Storer Thread Exception:", e);
+                } finally {
+                    if (receivedPacket != null) {
+                        release(receivedPacket);
+                    }
+                }
+            }
+            log.info("Shutting down Storer Thread");
+        };
+    }
+
+    private Runnable spawnSenderThread() {
+        return () -> {
+
+            final ByteBuffer buffer = ByteBuffer.allocateDirect(TRANSACTION_PACKET_SIZE);
+            senderThread = Thread.currentThread();
+
+            log.info("Spawning Sender Thread");
+
+            while (!shuttingDown.get()) {
+
+                boolean sentPackets = false;
+                for (final AidosNeighbor neighbor : neighbors) {
+
+                    byte[] packet;
+                    for (int i = 0; i < SENDING_BATCH_SIZE && (packet = neighbor.nextPacket()) != null; i++) {
+                        try {
+                            buffer.clear();
+                            buffer.put(packet).flip();
+                            channel.send(buffer, neighbor.getAddress());
+                        } catch (final ClosedChannelException e) {
+                            // shutting down
+                        } catch (final Exception e) {
+                            // ignore
+                        }
+                        freeOutboundPackets.offer(packet);
+                        sentPackets = true;
+                    }
+                }
+                if (!sentPackets) {
+                    LockSupport.parkNanos(SENDER_PAUSE); // Woken up by the next queued packet
+                }
+            }
+            log.info("Shutting down Sender Thread");
+        };
+    }
+
     private Runnable spawnBroadcasterThread() {
         return () -> {
 
@@ -257,24 +489,19 @@ public class AidosNode {
             while (!shuttingDown.get()) {
 
                 try {
-                    final AidosTransaction transaction = queuedTransactions.pollFirst();
+                    final AidosTransaction transaction = queuedTransactions.poll(BROADCASTER_PAUSE, TimeUnit.MILLISECONDS);
                     if (transaction != null) {
 
                         for (final AidosNeighbor neighbor : neighbors) {
                             try {
-                                synchronized (sendingPacket) {
-                                    System.arraycopy(transaction.bytes, 0, sendingPacket.getData(), 0,
-                                            AidosTransaction.SIZE);
-                                    AidosStorageScratchpad.instance().transactionToRequest(sendingPacket.getData(),
-                                            AidosTransaction.SIZE);
-                                    neighbor.send(sendingPacket);
+                                if (neighbor.allowBroadcast()) {
+                                    send(neighbor, transaction.bytes, null);
                                 }
                             } catch (final Exception e) {
                                 // ignore
                             }
                         }
                     }
-                    Thread.sleep(PAUSE_BETWEEN_TRANSACTIONS);
                 } catch (final Exception e) {
                     log.error("Broadcaster Thread Exception:", e);
                 }
@@ -293,11 +520,7 @@ public class AidosNode {
                 try {
                     final AidosTransaction transaction = AidosStorageTransactions.instance()
                             .loadMilestone(AidosMilestone.latestMilestone);
-                    System.arraycopy(transaction.bytes, 0, tipRequestingPacket.getData(), 0, AidosTransaction.SIZE);
-                    System.arraycopy(transaction.hash, 0, tipRequestingPacket.getData(), AidosTransaction.SIZE,
-                            AidosTransaction.HASH_SIZE);
-
-                    neighbors.forEach(n -> n.send(tipRequestingPacket));
+                    neighbors.forEach(n -> send(n, transaction.bytes, transaction.hash));
 
                     Thread.sleep(5000);
                 } catch (final Exception e) {
@@ -308,37 +531,48 @@ public class AidosNode {
         };
     }
 
-    private static ConcurrentSkipListSet<AidosTransaction> weightQueue() {
-        return new ConcurrentSkipListSet<>((transaction1, transaction2) -> {
-            if (transaction1.weightMagnitude == transaction2.weightMagnitude) {
-                for (int i = 0; i < AidosTransaction.HASH_SIZE; i++) {
-                    if (transaction1.hash[i] != transaction2.hash[i]) {
-                        return transaction2.hash[i] - transaction1.hash[i];
-                    }
-                }
-                return 0;
-            }
-            return transaction2.weightMagnitude - transaction1.weightMagnitude;
-        });
+    public void broadcast(final AidosTransaction transaction) {
+        queuedTransactions.offer(transaction);
     }
 
-    public void broadcast(final AidosTransaction transaction) {
-        queuedTransactions.add(transaction);
-        if (queuedTransactions.size() > QUEUE_SIZE) {
-            queuedTransactions.pollLast();
-        }
+    private void release(final ReceivedPacket receivedPacket) {
+        receivedPacket.knownHash = null;
+        receivedPacket.neighbor = null;
+        receivedPacket.transaction = null;
+        freePackets.offer(receivedPacket);
     }
 
     public void shutdown() throws InterruptedException {
         shuttingDown.set(true);
+        if (executor == null) { // Not started
+            return;
+        }
+        try {
+            channel.close(); // Wakes up the receivers
+        } catch (final IOException e) {
+            // ignore
+        }
         executor.awaitTermination(6, TimeUnit.SECONDS);
     }
 
-    public void send(final DatagramPacket packet) {
-        try {
-            socket.send(packet);
-        } catch (IOException e) {
-            // ignore
+    // Requests the given transaction, or the next missing one if it's null
+    private void send(final AidosNeighbor neighbor, final byte[] transactionBytes, final byte[] requestedTransaction) {
+
+        byte[] packet = freeOutboundPackets.poll();
+        if (packet == null) {
+            packet = new byte[TRANSACTION_PACKET_SIZE];
+        }
+        System.arraycopy(transactionBytes, 0, packet, 0, AidosTransaction.SIZE);
+        if (requestedTransaction == null) {
+            AidosStorageScratchpad.instance().transactionToRequest(packet, AidosTransaction.SIZE);
+        } else {
+            System.arraycopy(requestedTransaction, 0, packet, AidosTransaction.SIZE, AidosTransaction.HASH_SIZE);
+        }
+
+        if (neighbor.queue(packet)) {
+            LockSupport.unpark(senderThread);
+        } else {
+            freeOutboundPackets.offer(packet);
         }
     }
     
@@ -373,6 +607,22 @@ public class AidosNode {
         return queuedTransactions.size();
     }
 
+    public int hashingQueueSize() {
+        return hashingQueue.size();
+    }
+
+    public int storingQueueSize() {
+        return storingQueue.size();
+    }
+
+    public long receiverStalls() { // Times the receiver had to wait for the hashers
+        return hashingQueue.stalls();
+    }
+
+    public long hasherStalls() { // Times the hashers had to wait for the storer
+        return storingQueue.stalls();
+    }
+
     public int howManyNeighbors() {
         return neighbors.size();
     }
@@ -0,0 +1,261 @@
+package com.aidos.iri.service;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+import com.aidos.iri.AidosMilestone;
+import com.aidos.iri.model.AidosHash;
+
+/**
+ * Immutable snapshot of the node status served by getNodeInfo. Every component refreshes its own part of it (the
+ * milestone tracker the milestones, the node its queues and the storage counts, and the API its requests),
+ * so reading the status is a single volatile read which never waits for any of them.
+ */
+public class AidosNodeStatus implements Cloneable {
+
+    private static final AtomicReference<AidosNodeStatus> current = new AtomicReference<>(new AidosNodeStatus());
+
+    private AidosHash latestMilestone = AidosHash.NULL_HASH;
+    private int latestMilestoneIndex = AidosMilestone.MILESTONE_START_INDEX;
+    private AidosHash latestSolidSubtangleMilestone = AidosHash.NULL_HASH;
+    private int latestSolidSubtangleMilestoneIndex = AidosMilestone.MILESTONE_START_INDEX;
+
+    private long storedTransactions;
+    private int tips;
+
+    private long jreFreeMemory;
+    private long jreMaxMemory;
+    private long jreTotalMemory;
+    private int neighbors;
+    private int packetsQueueSize;
+    private int hashingQueueSize;
+    private int storingQueueSize;
+    private long receiverStalls;
+    private long hasherStalls;
+    private int transactionsToRequest;
+
+    private long broadcastsQueued;
+    private long broadcastsDropped;
+    private long broadcastsSent;
+    private long broadcastLatency;
+
+    private int receiveBufferSize;
+    private long droppedPackets = -1;
+
+    private int requestsInProgress;
+    private int powQueueSize;
+    private long powRejections;
+    private int tipsQueueSize;
+    private long tipsRejections;
+    private int queryQueueSize;
+    private long queryRejections;
+
+    private AidosNodeStatus() {}
+
+    public static AidosNodeStatus current() {
+        return current.get();
+    }
+
+    public static void updateMilestones(final AidosHash latestMilestone, final int latestMilestoneIndex,
+            final AidosHash latestSolidSubtangleMilestone, final int latestSolidSubtangleMilestoneIndex) {
+        update(status -> {
+            status.latestMilestone = latestMilestone;
+            status.latestMilestoneIndex = latestMilestoneIndex;
+            status.latestSolidSubtangleMilestone = latestSolidSubtangleMilestone;
+            status.latestSolidSubtangleMilestoneIndex = latestSolidSubtangleMilestoneIndex;
+        });
+    }
+
+    public static void updateStorage(final long storedTransactions, final int tips) {
+        update(status -> {
+            status.storedTransactions = storedTransactions;
+            status.tips = tips;
+        });
+    }
+
+    public static void updateNode(final int neighbors, final int packetsQueueSize, final int hashingQueueSize, final int storingQueueSize,
+            final long receiverStalls, final long hasherStalls, final int transactionsToRequest) {
+        final Runtime runtime = Runtime.getRuntime();
+        final long jreFreeMemory = runtime.freeMemory(), jreMaxMemory = runtime.maxMemory(), jreTotalMemory = runtime.totalMemory();
+        update(status -> {
+            status.jreFreeMemory = jreFreeMemory;
+            status.jreMaxMemory = jreMaxMemory;
+            status.jreTotalMemory = jreTotalMemory;
+            status.neighbors = neighbors;
+            status.packetsQueueSize = packetsQueueSize;
+            status.hashingQueueSize = hashingQueueSize;
+            status.storingQueueSize = storingQueueSize;
+            status.receiverStalls = receiverStalls;
+            status.hasherStalls = hasherStalls;
+            status.transactionsToRequest = transactionsToRequest;
+        });
+    }
+
+    public static void updateBroadcasts(final long broadcastsQueued, final long broadcastsDropped, final long broadcastsSent,
+            final long broadcastLatency) {
+        update(status -> {
+            status.broadcastsQueued = broadcastsQueued;
+            status.broadcastsDropped = broadcastsDropped;
+            status.broadcastsSent = broadcastsSent;
+            status.broadcastLatency = broadcastLatency;
+        });
+    }
+
+    public static void updateReceiver(final int receiveBufferSize, final long droppedPackets) {
+        update(status -> {
+            status.receiveBufferSize = receiveBufferSize;
+            status.droppedPackets = droppedPackets;
+        });
+    }
+
+    public static void updateRequests(final AtomicInteger requestsInProgress) { // Read on every attempt, so the last one wins
+        update(status -> status.requestsInProgress = requestsInProgress.get());
+    }
+
+    public static void updateExecutors(final int powQueueSize, final long powRejections, final int tipsQueueSize, final long tipsRejections,
+            final int queryQueueSize, final long queryRejections) {
+        update(status -> {
+            status.powQueueSize = powQueueSize;
+            status.powRejections = powRejections;
+            status.tipsQueueSize = tipsQueueSize;
+            status.tipsRejections = tipsRejections;
+            status.queryQueueSize = queryQueueSize;
+            status.queryRejections = queryRejections;
+        });
+    }
+
+    private static void update(final Consumer<AidosNodeStatus> changes) { // Published copies are never modified
+
+        AidosNodeStatus status, newStatus;
+        do {
+            status = current.get();
+            newStatus = status.copy();
+            changes.accept(newStatus);
+        } while (!current.compareAndSet(status, newStatus));
+    }
+
+    private AidosNodeStatus copy() {
+        try {
+            return (AidosNodeStatus) clone();
+        } catch (final CloneNotSupportedException e) {
+            throw new AssertionError(e);
+        }
+    }
+
+    public AidosHash latestMilestone() {
+        return latestMilestone;
+    }
+
+    public int latestMilestoneIndex() {
+        return latestMilestoneIndex;
+    }
+
+    public AidosHash latestSolidSubtangleMilestone() {
+        return latestSolidSubtangleMilestone;
+    }
+
+    public int latestSolidSubtangleMilestoneIndex() {
+        return latestSolidSubtangleMilestoneIndex;
+    }
+
+    public long storedTransactions() {
+        return storedTransactions;
+    }
+
+    public int tips() {
+        return tips;
+    }
+
+    public long jreFreeMemory() {
+        return jreFreeMemory;
+    }
+
+    public long jreMaxMemory() {
+        return jreMaxMemory;
+    }
+
+    public long jreTotalMemory() {
+        return jreTotalMemory;
+    }
+
+    public int neighbors() {
+        return neighbors;
+    }
+
+    public int packetsQueueSize() {
+        return packetsQueueSize;
+    }
+
+    public int hashingQueueSize() {
+        return hashingQueueSize;
+    }
+
+    public int storingQueueSize() {
+        return storingQueueSize;
+    }
+
+    public long receiverStalls() {
+        return receiverStalls;
+    }
+
+    public long hasherStalls() {
+        return hasherStalls;
+    }
+
+    public int transactionsToRequest() {
+        return transactionsToRequest;
+    }
+
+    public long broadcastsQueued() {
+        return broadcastsQueued;
+    }
+
+    public long broadcastsDropped() {
+        return broadcastsDropped;
+    }
+
+    public long broadcastsSent() {
+        return broadcastsSent;
+    }
+
+    public long broadcastLatency() { // Average milliseconds broadcast transactions recently waited in the queue
+        return broadcastLatency;
+    }
+
+    public int receiveBufferSize() {
+        return receiveBufferSize;
+    }
+
+    public long droppedPackets() { // Dropped by the kernel, -1 if unknown
+        return droppedPackets;
+    }
+
+    public int requestsInProgress() {
+        return requestsInProgress;
+    }
+
+    public int powQueueSize() {
+        return powQueueSize;
+    }
+
+    public long powRejections() {
+        return powRejections;
+    }
+
+    public int tipsQueueSize() {
+        return tipsQueueSize;
+    }
+
+    public long tipsRejections() {
+        return tipsRejections;
+    }
+
+    public int queryQueueSize() {
+        return queryQueueSize;
+    }
+
+    public long queryRejections() {
+        return queryRejections;
+    }
+}
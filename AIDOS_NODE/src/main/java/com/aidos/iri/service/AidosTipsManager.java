@@ -1,28 +1,29 @@
 package com.aidos.iri.service;
 
 import java.util.Arrays;
-import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
-import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
-import java.util.Queue;
 import java.util.Set;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.aidos.iri.AidosBundle;
+import com.aidos.iri.AidosLedger;
 import com.aidos.iri.AidosMilestone;
 import com.aidos.iri.AidosSnapshot;
 import com.aidos.iri.model.AidosHash;
 import com.aidos.iri.model.AidosTransaction;
+import com.aidos.iri.model.AidosTransactionView;
 import com.aidos.iri.service.storage.AidosStorage;
 import com.aidos.iri.service.storage.AidosStorageApprovers;
 import com.aidos.iri.service.storage.AidosStorageScratchpad;
 import com.aidos.iri.service.storage.AidosStorageTransactions;
+import com.aidos.iri.service.storage.AidosTraversalFlags;
+import com.aidos.iri.utils.AidosLongQueue;
 
 public class AidosTipsManager {
 
@@ -42,6 +43,9 @@ public class AidosTipsManager {
 
                     AidosMilestone.updateLatestMilestone();
                     AidosMilestone.updateLatestSolidSubtangleMilestone();
+                    AidosLedger.instance().updateSolidMilestone(AidosMilestone.latestSolidSubtangleMilestone, AidosMilestone.latestSolidSubtangleMilestoneIndex);
+                    AidosNodeStatus.updateMilestones(AidosMilestone.latestMilestone, AidosMilestone.latestMilestoneIndex,
+                            AidosMilestone.latestSolidSubtangleMilestone, AidosMilestone.latestSolidSubtangleMilestoneIndex);
 
                     if (previousLatestMilestoneIndex != AidosMilestone.latestMilestoneIndex) {
                         log.info("Latest milestone has changed from #" + previousLatestMilestoneIndex + " to #" + AidosMilestone.latestMilestoneIndex);
@@ -62,40 +66,43 @@ public class AidosTipsManager {
         shuttingDown = true;
     }
 
-    static synchronized AidosHash transactionToApprove(final AidosHash extraTip, int depth) {
+    static AidosHash transactionToApprove(final AidosHash extraTip, int depth) {
 
         final AidosHash preferableMilestone = AidosMilestone.latestSolidSubtangleMilestone;
 
-        synchronized (AidosStorageScratchpad.instance().getAnalyzedTransactionsFlags()) {
-
-        	AidosStorageScratchpad.instance().clearAnalyzedTransactionsFlags();
+        try (final AidosTraversalFlags analyzedTransactions = AidosStorageScratchpad.instance().traversalFlags()) {
 
             Map<AidosHash, Long> state = new HashMap<>(AidosSnapshot.initialState);
 
+            final AidosTransactionView transaction = new AidosTransactionView();
+            final byte[] hash = new byte[AidosTransaction.HASH_SIZE];
+            final byte[] bundleHash = new byte[AidosTransaction.BUNDLE_SIZE];
+
             {
                 int numberOfAnalyzedTransactions = 0;
 
-                final Queue<Long> nonAnalyzedTransactions = new LinkedList<>(Collections.singleton(AidosStorageTransactions.instance().transactionPointer((extraTip == null ? preferableMilestone : extraTip).bytes())));
-                Long pointer;
-                while ((pointer = nonAnalyzedTransactions.poll()) != null) {
+                final AidosLongQueue nonAnalyzedTransactions = new AidosLongQueue();
+                nonAnalyzedTransactions.offer(AidosStorageTransactions.instance().transactionPointer((extraTip == null ? preferableMilestone : extraTip).bytes()));
+                while (!nonAnalyzedTransactions.isEmpty()) {
+                    final long pointer = nonAnalyzedTransactions.poll();
 
-                    if (AidosStorageScratchpad.instance().setAnalyzedTransactionFlag(pointer)) {
+                    if (analyzedTransactions.set(pointer)) {
 
                         numberOfAnalyzedTransactions++;
 
-                        final AidosTransaction transaction = AidosStorageTransactions.instance().loadTransaction(pointer);
-                        if (transaction.type == AidosStorage.PREFILLED_SLOT) {
+                        AidosStorageTransactions.instance().loadTransaction(pointer, transaction);
+                        if (transaction.type() == AidosStorage.PREFILLED_SLOT) {
                             return null;
                         } else {
 
-                            if (transaction.currentIndex == 0) {
+                            if (transaction.currentIndex() == 0) {
 
                                 boolean validBundle = false;
 
-                                final AidosBundle bundle = new AidosBundle(transaction.bundle);
+                                final AidosBundle bundle = new AidosBundle(transaction.bundle(bundleHash));
                                 for (final List<AidosTransaction> bundleTransactions : bundle.getTransactions()) {
 
-                                    if (bundleTransactions.get(0).pointer == transaction.pointer) {
+                                    if (bundleTransactions.get(0).pointer == transaction.pointer()) {
 
                                         validBundle = true;
 
@@ -113,8 +120,8 @@ public class AidosTipsManager {
                                 }
                             }
 
-                            nonAnalyzedTransactions.offer(transaction.trunkTransactionPointer);
-                            nonAnalyzedTransactions.offer(transaction.branchTransactionPointer);
+                            nonAnalyzedTransactions.offer(transaction.trunkTransactionPointer());
+                            nonAnalyzedTransactions.offer(transaction.branchTransactionPointer());
                         }
                     }
                 }
@@ -136,48 +143,50 @@ public class AidosTipsManager {
                 }
             }
 
-            AidosStorageScratchpad.instance().saveAnalyzedTransactionsFlags();
-            AidosStorageScratchpad.instance().clearAnalyzedTransactionsFlags();
+            analyzedTransactions.save();
+            analyzedTransactions.clear();
 
             final Set<AidosHash> tailsToAnalyze = new HashSet<>();
 
             AidosHash tip = preferableMilestone;
             if (extraTip != null) {
 
-                AidosTransaction transaction = AidosStorageTransactions.instance().loadTransaction(AidosStorageTransactions.instance().transactionPointer(tip.bytes()));
+                AidosStorageTransactions.instance().loadTransaction(AidosStorageTransactions.instance().transactionPointer(tip.bytes()), transaction);
                 while (depth-- > 0 && !tip.equals(AidosHash.NULL_HASH)) {
 
-                    tip = new AidosHash(transaction.hash, 0, AidosTransaction.HASH_SIZE);
+                    tip = new AidosHash(transaction.hash(hash), 0, AidosTransaction.HASH_SIZE);
                     do {
-                        transaction = AidosStorageTransactions.instance().loadTransaction(transaction.trunkTransactionPointer);
-                    } while (transaction.currentIndex != 0);
+                        AidosStorageTransactions.instance().loadTransaction(transaction.trunkTransactionPointer(), transaction);
+                    } while (transaction.currentIndex() != 0);
                 }
             }
-            final Queue<Long> nonAnalyzedTransactions = new LinkedList<>(Collections.singleton(AidosStorageTransactions.instance().transactionPointer(tip.bytes())));
-            Long pointer;
-            while ((pointer = nonAnalyzedTransactions.poll()) != null) {
+            final AidosLongQueue nonAnalyzedTransactions = new AidosLongQueue();
+            nonAnalyzedTransactions.offer(AidosStorageTransactions.instance().transactionPointer(tip.bytes()));
+            while (!nonAnalyzedTransactions.isEmpty()) {
+                final long pointer = nonAnalyzedTransactions.poll();
 
-                if (AidosStorageScratchpad.instance().setAnalyzedTransactionFlag(pointer)) {
+                if (analyzedTransactions.set(pointer)) {
 
-                    final AidosTransaction transaction = AidosStorageTransactions.instance().loadTransaction(pointer);
+                    AidosStorageTransactions.instance().loadTransaction(pointer, transaction);
+                    transaction.hash(hash);
 
-                    if (transaction.currentIndex == 0) {
-                        tailsToAnalyze.add(new AidosHash(transaction.hash, 0, AidosTransaction.HASH_SIZE));
+                    if (transaction.currentIndex() == 0) {
+                        tailsToAnalyze.add(new AidosHash(hash, 0, AidosTransaction.HASH_SIZE));
                     }
 
-                    AidosStorageApprovers.instance().approveeTransactions(AidosStorageApprovers.instance().approveePointer(transaction.hash)).forEach(nonAnalyzedTransactions::offer);
+                    AidosStorageApprovers.instance().approveeTransactions(AidosStorageApprovers.instance().approveePointer(hash)).forEach(nonAnalyzedTransactions::offer);
                 }
             }
 
             if (extraTip != null) {
 
-                AidosStorageScratchpad.instance().loadAnalyzedTransactionsFlags();
+                analyzedTransactions.load();
 
                 final Iterator<AidosHash> tailsToAnalyzeIterator = tailsToAnalyze.iterator();
                 while (tailsToAnalyzeIterator.hasNext()) {
 
                     final AidosTransaction tail = AidosStorageTransactions.instance().loadTransaction(tailsToAnalyzeIterator.next().bytes());
-                    if (AidosStorageScratchpad.instance().analyzedTransactionFlag(tail.pointer)) {
+                    if (analyzedTransactions.get(tail.pointer)) {
                         tailsToAnalyzeIterator.remove();
                     }
                 }
@@ -188,24 +197,25 @@ public class AidosTipsManager {
             int bestRating = 0;
             for (final AidosHash tail : tailsToAnalyze) {
 
-            	AidosStorageScratchpad.instance().loadAnalyzedTransactionsFlags();
+            	analyzedTransactions.load();
 
                 Set<AidosHash> extraTransactions = new HashSet<>();
 
                 nonAnalyzedTransactions.clear();
                 nonAnalyzedTransactions.offer(AidosStorageTransactions.instance().transactionPointer(tail.bytes()));
-                while ((pointer = nonAnalyzedTransactions.poll()) != null) {
+                while (!nonAnalyzedTransactions.isEmpty()) {
+                    final long pointer = nonAnalyzedTransactions.poll();
 
-                    if (AidosStorageScratchpad.instance().setAnalyzedTransactionFlag(pointer)) {
+                    if (analyzedTransactions.set(pointer)) {
 
-                        final AidosTransaction transaction = AidosStorageTransactions.instance().loadTransaction(pointer);
-                        if (transaction.type == AidosStorage.PREFILLED_SLOT) {
+                        AidosStorageTransactions.instance().loadTransaction(pointer, transaction);
+                        if (transaction.type() == AidosStorage.PREFILLED_SLOT) {
                             extraTransactions = null;
                             break;
                         } else {
-                            extraTransactions.add(new AidosHash(transaction.hash, 0, AidosTransaction.HASH_SIZE));
-                            nonAnalyzedTransactions.offer(transaction.trunkTransactionPointer);
-                            nonAnalyzedTransactions.offer(transaction.branchTransactionPointer);
+                            extraTransactions.add(new AidosHash(transaction.hash(hash), 0, AidosTransaction.HASH_SIZE));
+                            nonAnalyzedTransactions.offer(transaction.trunkTransactionPointer());
+                            nonAnalyzedTransactions.offer(transaction.branchTransactionPointer());
                         }
                     }
                 }
@@ -216,13 +226,13 @@ public class AidosTipsManager {
 
                     for (final AidosHash extraTransaction : extraTransactions) {
 
-                        final AidosTransaction transaction = AidosStorageTransactions.instance().loadTransaction(extraTransaction.bytes());
-                        if (transaction != null && transaction.currentIndex == 0) {
+                        final long extraTransactionPointer = AidosStorageTransactions.instance().transactionPointer(extraTransaction.bytes());
+                        if (extraTransactionPointer > 0 && AidosStorageTransactions.instance().loadTransaction(extraTransactionPointer, transaction).currentIndex() == 0) {
 
-                            final AidosBundle bundle = new AidosBundle(transaction.bundle);
+                            final AidosBundle bundle = new AidosBundle(transaction.bundle(bundleHash));
                             for (final List<AidosTransaction> bundleTransactions : bundle.getTransactions()) {
 
-                                if (Arrays.equals(bundleTransactions.get(0).hash, transaction.hash)) {
+                                if (Arrays.equals(bundleTransactions.get(0).hash, transaction.hash(hash))) {
 
                                     for (final AidosTransaction bundleTransaction : bundleTransactions) {
 
@@ -246,11 +256,12 @@ public class AidosTipsManager {
 
                         for (final AidosHash extraTransaction : extraTransactions) {
 
-                            final AidosTransaction transaction = AidosStorageTransactions.instance().loadTransaction(extraTransaction.bytes());
-                            if (transaction.value != 0) {
-                                final AidosHash address = new AidosHash(transaction.address);
+                            AidosStorageTransactions.instance().loadTransaction(AidosStorageTransactions.instance().transactionPointer(extraTransaction.bytes()), transaction);
+                            final long transactionValue = transaction.value();
+                            if (transactionValue != 0) {
+                                final AidosHash address = new AidosHash(transaction.address(new byte[AidosTransaction.ADDRESS_SIZE]));
                                 final Long value = stateCopy.get(address);
-                                stateCopy.put(address, value == null ? transaction.value : (value + transaction.value));
+                                stateCopy.put(address, value == null ? transactionValue : (value + transactionValue));
                             }
                         }
 
@@ -14,6 +14,7 @@ public class AidosGetNeighborsResponse extends AidosAbstractResponse {
 
     	private String address;
     	public int numberOfAllTransactions, numberOfNewTransactions, numberOfInvalidTransactions;
+    	public int numberOfDuplicateTransactions, numberOfUnseenTransactions, numberOfDroppedPackets;
 
         public String getAddress() {
             return address;
@@ -27,6 +28,15 @@ public class AidosGetNeighborsResponse extends AidosAbstractResponse {
         public int getNumberOfInvalidTransactions() {
 			return numberOfInvalidTransactions;
 		}
+        public int getNumberOfDuplicateTransactions() {
+            return numberOfDuplicateTransactions;
+        }
+        public int getNumberOfUnseenTransactions() {
+            return numberOfUnseenTransactions;
+        }
+        public int getNumberOfDroppedPackets() {
+            return numberOfDroppedPackets;
+        }
 
         public static Neighbor createFrom(com.aidos.iri.AidosNeighbor n) {
         	Neighbor ne = new Neighbor();
@@ -34,6 +44,9 @@ public class AidosGetNeighborsResponse extends AidosAbstractResponse {
         	ne.numberOfAllTransactions = n.getNumberOfAllTransactions();
         	ne.numberOfInvalidTransactions = n.getNumberOfInvalidTransactions();
         	ne.numberOfNewTransactions = n.getNumberOfNewTransactions();
+        	ne.numberOfDuplicateTransactions = n.getNumberOfDuplicateTransactions();
+        	ne.numberOfUnseenTransactions = n.getNumberOfUnseenTransactions();
+        	ne.numberOfDroppedPackets = n.getNumberOfDroppedPackets();
         	return ne;
         }
     }
@@ -1,6 +1,6 @@
 package com.aidos.iri.service.dto;
 
-import com.aidos.iri.model.AidosHash;
+import com.aidos.iri.service.AidosNodeStatus;
 
 public class AidosGetNodeInfoResponse extends AidosAbstractResponse {
 
@@ -20,35 +20,68 @@ public class AidosGetNodeInfoResponse extends AidosAbstractResponse {
 
     private int neighbors;
     private int packetsQueueSize;
+    private int hashingQueueSize;
+    private int storingQueueSize;
+    private long receiverStalls;
+    private long hasherStalls;
+    private long broadcastsQueued;
+    private long broadcastsDropped;
+    private long broadcastsSent;
+    private long broadcastLatency;
+    private int receiveBufferSize;
+    private long droppedPackets;
     private long time;
     private int tips;
     private int transactionsToRequest;
-
-	public static AidosAbstractResponse create(String appName, String appVersion, int jreAvailableProcessors, long jreFreeMemory,
-	        String jreVersion, long maxMemory, long totalMemory, AidosHash latestMilestone, int latestMilestoneIndex,
-	        AidosHash latestSolidSubtangleMilestone, int latestSolidSubtangleMilestoneIndex,
-	        int neighbors, int packetsQueueSize,
-	        long currentTimeMillis, int tips, int numberOfTransactionsToRequest) {
+    private long storedTransactions;
+    private int requestsInProgress;
+    private int powQueueSize;
+    private long powRejections;
+    private int tipsQueueSize;
+    private long tipsRejections;
+    private int queryQueueSize;
+    private long queryRejections;
+
+	public static AidosAbstractResponse create(String appName, String appVersion, int jreAvailableProcessors, String jreVersion,
+	        AidosNodeStatus status, long currentTimeMillis) {
 		final AidosGetNodeInfoResponse res = new AidosGetNodeInfoResponse();
 		res.appName = appName;
 		res.appVersion = appVersion;
 		res.jreAvailableProcessors = jreAvailableProcessors;
-		res.jreFreeMemory = jreFreeMemory;
+		res.jreFreeMemory = status.jreFreeMemory();
 		res.jreVersion = jreVersion;
 
-		res.jreMaxMemory = maxMemory;
-		res.jreTotalMemory = totalMemory;
-		res.latestMilestone = latestMilestone.toString();
-		res.latestMilestoneIndex = latestMilestoneIndex;
-
-		res.latestSolidSubtangleMilestone = latestSolidSubtangleMilestone.toString();
-		res.latestSolidSubtangleMilestoneIndex = latestSolidSubtangleMilestoneIndex;
-
-		res.neighbors = neighbors;
-		res.packetsQueueSize = packetsQueueSize;
+		res.jreMaxMemory = status.jreMaxMemory();
+		res.jreTotalMemory = status.jreTotalMemory();
+		res.latestMilestone = status.latestMilestone().toString();
+		res.latestMilestoneIndex = status.latestMilestoneIndex();
+
+		res.latestSolidSubtangleMilestone = status.latestSolidSubtangleMilestone().toString();
+		res.latestSolidSubtangleMilestoneIndex = status.latestSolidSubtangleMilestoneIndex();
+
+		res.neighbors = status.neighbors();
+		res.packetsQueueSize = status.packetsQueueSize();
+		res.hashingQueueSize = status.hashingQueueSize();
+		res.storingQueueSize = status.storingQueueSize();
+		res.receiverStalls = status.receiverStalls();
+		res.hasherStalls = status.hasherStalls();
+		res.broadcastsQueued = status.broadcastsQueued();
+		res.broadcastsDropped = status.broadcastsDropped();
+		res.broadcastsSent = status.broadcastsSent();
+		res.broadcastLatency = status.broadcastLatency();
+		res.receiveBufferSize = status.receiveBufferSize();
+		res.droppedPackets = status.droppedPackets();
 		res.time = currentTimeMillis;
-		res.tips = tips;
-		res.transactionsToRequest = numberOfTransactionsToRequest;
+		res.tips = status.tips();
+		res.transactionsToRequest = status.transactionsToRequest();
+		res.storedTransactions = status.storedTransactions();
+		res.requestsInProgress = status.requestsInProgress();
+		res.powQueueSize = status.powQueueSize();
+		res.powRejections = status.powRejections();
+		res.tipsQueueSize = status.tipsQueueSize();
+		res.tipsRejections = status.tipsRejections();
+		res.queryQueueSize = status.queryQueueSize();
+		res.queryRejections = status.queryRejections();
 		return res;
 	}
 
@@ -104,6 +137,46 @@ public class AidosGetNodeInfoResponse extends AidosAbstractResponse {
 		return packetsQueueSize;
 	}
 
+	public int getHashingQueueSize() {
+		return hashingQueueSize;
+	}
+
+	public int getStoringQueueSize() {
+		return storingQueueSize;
+	}
+
+	public long getReceiverStalls() {
+		return receiverStalls;
+	}
+
+	public long getHasherStalls() {
+		return hasherStalls;
+	}
+
+	public long getBroadcastsQueued() {
+		return broadcastsQueued;
+	}
+
+	public long getBroadcastsDropped() {
+		return broadcastsDropped;
+	}
+
+	public long getBroadcastsSent() {
+		return broadcastsSent;
+	}
+
+	public long getBroadcastLatency() {
+		return broadcastLatency;
+	}
+
+	public int getReceiveBufferSize() {
+		return receiveBufferSize;
+	}
+
+	public long getDroppedPackets() {
+		return droppedPackets;
+	}
+
 	public long getTime() {
 		return time;
 	}
@@ -116,4 +189,36 @@ public class AidosGetNodeInfoResponse extends AidosAbstractResponse {
 		return transactionsToRequest;
 	}
 
+	public long getStoredTransactions() {
+		return storedTransactions;
+	}
+
+	public int getRequestsInProgress() {
+		return requestsInProgress;
+	}
+
+	public int getPowQueueSize() {
+		return powQueueSize;
+	}
+
+	public long getPowRejections() {
+		return powRejections;
+	}
+
+	public int getTipsQueueSize() {
+		return tipsQueueSize;
+	}
+
+	public long getTipsRejections() {
+		return tipsRejections;
+	}
+
+	public int getQueryQueueSize() {
+		return queryQueueSize;
+	}
+
+	public long getQueryRejections() {
+		return queryRejections;
+	}
+
 }
@@ -4,15 +4,15 @@ import java.util.List;
 
 public class AidosGetTipsResponse extends AidosAbstractResponse {
 	
-	private String [] hashes;
+	private List<String> hashes; // Elements may be encoded only while the response is written
 
 	public static AidosAbstractResponse create(List<String> elements) {
 		AidosGetTipsResponse res = new AidosGetTipsResponse();
-		res.hashes = elements.toArray(new String[] {});
+		res.hashes = elements;
 		return res;
 	}
 	
-	public String[] getHashes() {
+	public List<String> getHashes() {
 		return hashes;
 	}
 
@@ -4,15 +4,15 @@ import java.util.List;
 
 public class AidosGetTrytesResponse extends AidosAbstractResponse {
 	
-    private String [] trytes;
+    private List<String> trytes; // Elements may be encoded only while the response is written
     
 	public static AidosGetTrytesResponse create(List<String> elements) {
 		AidosGetTrytesResponse res = new AidosGetTrytesResponse();
-		res.trytes = elements.toArray(new String[] {});
+		res.trytes = elements;
 		return res;
 	}
 
-	public String [] getTrytes() {
+	public List<String> getTrytes() {
 		return trytes;
 	}
 }
@@ -0,0 +1,89 @@
+package com.aidos.iri.service.dto;
+
+import java.util.List;
+
+/**
+ * Parameters of all the API commands, parsed straight from the request body. Each command reads only its own
+ * parameters, those missing from the body stay null.
+ */
+public class AidosRequest {
+
+	private String command;
+
+	private List<String> uris;
+	private String trunkTransaction;
+	private String branchTransaction;
+	private Integer minWeightMagnitude;
+	private List<String> trytes;
+
+	private List<String> bundles;
+	private List<String> addresses;
+	private List<String> tags;
+	private List<String> approvees;
+
+	private Integer threshold;
+	private List<String> transactions;
+	private List<String> tips;
+	private Integer depth;
+	private List<String> hashes;
+
+	public String getCommand() {
+		return command;
+	}
+
+	public List<String> getUris() {
+		return uris;
+	}
+
+	public String getTrunkTransaction() {
+		return trunkTransaction;
+	}
+
+	public String getBranchTransaction() {
+		return branchTransaction;
+	}
+
+	public Integer getMinWeightMagnitude() {
+		return minWeightMagnitude;
+	}
+
+	public List<String> getTrytes() {
+		return trytes;
+	}
+
+	public List<String> getBundles() {
+		return bundles;
+	}
+
+	public List<String> getAddresses() {
+		return addresses;
+	}
+
+	public List<String> getTags() {
+		return tags;
+	}
+
+	public List<String> getApprovees() {
+		return approvees;
+	}
+
+	public Integer getThreshold() {
+		return threshold;
+	}
+
+	public List<String> getTransactions() {
+		return transactions;
+	}
+
+	public List<String> getTips() {
+		return tips;
+	}
+
+	public Integer getDepth() {
+		return depth;
+	}
+
+	public List<String> getHashes() {
+		return hashes;
+	}
+}
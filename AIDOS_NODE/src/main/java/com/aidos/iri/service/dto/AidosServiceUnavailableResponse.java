@@ -0,0 +1,16 @@
+package com.aidos.iri.service.dto;
+
+public class AidosServiceUnavailableResponse extends AidosAbstractResponse {
+
+    private String error;
+
+    public static AidosAbstractResponse create(String error) {
+        AidosServiceUnavailableResponse res = new AidosServiceUnavailableResponse();
+        res.error = error;
+        return res;
+    }
+
+    public String getError() {
+        return error;
+    }
+}
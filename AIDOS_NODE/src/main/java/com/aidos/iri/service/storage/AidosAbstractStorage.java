@@ -3,7 +3,34 @@ package com.aidos.iri.service.storage;
 import java.io.IOException;
 import java.nio.ByteBuffer;
 import java.nio.MappedByteBuffer;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.StampedLock;
 
+import com.aidos.iri.conf.AidosConfiguration;
+import com.aidos.iri.conf.AidosConfiguration.DefaultConfSettings;
+import com.aidos.iri.model.AidosTransaction;
+import com.aidos.iri.utils.AidosLongList;
+
+/**
+ * Concurrency model: all mutations are serialized on the AidosStorage.class monitor (single writer),
+ * while lookups run without it. Every cell is guarded by one of CELL_LOCK_STRIPES stamped locks, so a reader
+ * either gets a consistent value or retries, and writers append new cells before linking them into the trie.
+ * Lookups read single fields straight from the mapped chunks. Slot hashes never change once a cell is linked, and
+ * the only change of a type byte is a slot going from PREFILLED_SLOT to FILLED_SLOT when the referenced transaction
+ * arrives (likewise the solid flag only goes from 0 to 1). Both are single-byte writes, so a reader sees either the
+ * old or the new state, never a mix: the old one is what it would have seen a moment earlier, and the fields it then
+ * reads are validated against the stamped lock the writer holds while it rewrites the cell. Only 8-byte pointers and
+ * multi-byte fields need validating.
+ */
 public abstract class AidosAbstractStorage {
 
     public final static int CELL_SIZE = 2048;
@@ -20,16 +47,6 @@ public abstract class AidosAbstractStorage {
 	
     public final static int CELLS_OFFSET = SUPER_GROUPS_OFFSET + SUPER_GROUPS_SIZE;
 
-    public final static int TRANSACTIONS_TO_REQUEST_OFFSET = 0, TRANSACTIONS_TO_REQUEST_SIZE = CHUNK_SIZE;
-	
-    public final static int ANALYZED_TRANSACTIONS_FLAGS_OFFSET = TRANSACTIONS_TO_REQUEST_OFFSET
-            + TRANSACTIONS_TO_REQUEST_SIZE,
-            ANALYZED_TRANSACTIONS_FLAGS_SIZE = MAX_NUMBER_OF_CHUNKS * CELLS_PER_CHUNK / Byte.SIZE;
-
-    public final static int ANALYZED_TRANSACTIONS_FLAGS_COPY_OFFSET = ANALYZED_TRANSACTIONS_FLAGS_OFFSET
-            + ANALYZED_TRANSACTIONS_FLAGS_SIZE,
-            ANALYZED_TRANSACTIONS_FLAGS_COPY_SIZE = ANALYZED_TRANSACTIONS_FLAGS_SIZE;
-
     public final static int GROUP = 0; // transactions GROUP means that's it's a non-leaf node (leafs store transaction bytes)
     public final static int PREFILLED_SLOT = 1; // means that we know only hash of the tx, the rest is unknown yet: only another tx references that hash
     public final static int FILLED_SLOT = -1; //  knows the hash only coz another tx references that hash
@@ -38,8 +55,39 @@ public abstract class AidosAbstractStorage {
 
     protected static final byte[] ZEROED_BUFFER = new byte[CELL_SIZE];
 	
-    protected static final byte[] mainBuffer = new byte[CELL_SIZE];
-    protected static final byte[] auxBuffer = new byte[CELL_SIZE];
+    private static final int CELL_LOCK_STRIPES = 4096;
+
+    // Batched lookups are split into ranges walked in parallel only when there are enough of them
+    private static final int PARALLEL_LOOKUPS_THRESHOLD = 256, LOOKUPS_PER_RANGE = 64;
+
+    // Helps the caller of a batched lookup walk its ranges, a lookup finding no free helper walks them all itself
+    private static final ThreadPoolExecutor LOOKUP_EXECUTOR;
+    static {
+        final int numberOfThreads = Math.max(1, Runtime.getRuntime().availableProcessors() - 1);
+        final AtomicInteger numberOfCreatedThreads = new AtomicInteger();
+        LOOKUP_EXECUTOR = new ThreadPoolExecutor(numberOfThreads, numberOfThreads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(numberOfThreads), runnable -> {
+            final Thread thread = new Thread(runnable, "Storage Lookup #" + numberOfCreatedThreads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    // Only used by the writer, i.e. while holding the AidosStorage.class monitor
+    protected final byte[] mainBuffer = new byte[CELL_SIZE];
+    protected final byte[] auxBuffer = new byte[CELL_SIZE];
+
+    // Used by lookups, which don't take the writer monitor
+    // Only for lookups that need a whole cell, e.g. loading a transaction
+    protected static final ThreadLocal<byte[]> readBuffer = ThreadLocal.withInitial(() -> new byte[CELL_SIZE]);
+
+    private final StampedLock[] cellLocks = new StampedLock[CELL_LOCK_STRIPES];
+
+    protected AidosAbstractStorage() {
+        for (int i = 0; i < CELL_LOCK_STRIPES; i++) {
+            cellLocks[i] = new StampedLock();
+        }
+    }
     
 	public static long value(final byte[] buffer, final int offset) {
         return ((long)(buffer[offset] & 0xFF)) + (((long)(buffer[offset + 1] & 0xFF)) << 8) + (((long)(buffer[offset + 2] & 0xFF)) << 16) + (((long)(buffer[offset + 3] & 0xFF)) << 24) + (((long)(buffer[offset + 4] & 0xFF)) << 32) + (((long)(buffer[offset + 5] & 0xFF)) << 40) + (((long)(buffer[offset + 6] & 0xFF)) << 48) + (((long)(buffer[offset + 7] & 0xFF)) << 56);
@@ -68,6 +116,298 @@ public abstract class AidosAbstractStorage {
         }
     }
 	
+    public static Path path(final String fileName) {
+        return Paths.get(AidosConfiguration.string(DefaultConfSettings.DB_PATH), fileName);
+    }
+
+    protected StampedLock cellLock(final long pointer) {
+        return cellLocks[(int) (pointer >> 11) & (CELL_LOCK_STRIPES - 1)];
+    }
+
+    protected void readCell(final ByteBuffer[] chunks, final long pointer, final byte[] buffer) {
+        readField(chunks, pointer, 0, buffer, CELL_SIZE);
+    }
+
+    protected void readField(final ByteBuffer[] chunks, final long pointer, final int offset, final byte[] buffer, final int length) {
+        readField(chunks, pointer, offset, buffer, 0, length);
+    }
+
+    protected void readField(final ByteBuffer[] chunks, final long pointer, final int offset, final byte[] buffer, final int bufferOffset,
+            final int length) {
+
+        final StampedLock lock = cellLock(pointer);
+        long stamp = lock.tryOptimisticRead();
+        if (stamp != 0) {
+            copyField(chunks, pointer, offset, buffer, bufferOffset, length);
+            if (lock.validate(stamp)) {
+                return;
+            }
+        }
+        stamp = lock.readLock();
+        try {
+            copyField(chunks, pointer, offset, buffer, bufferOffset, length);
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    protected void writeCell(final ByteBuffer[] chunks, final long pointer, final byte[] buffer) {
+
+        final StampedLock lock = cellLock(pointer);
+        final long stamp = lock.writeLock();
+        try {
+            ((ByteBuffer) chunks[(int) (pointer >> 27)].position((int) (pointer & (CHUNK_SIZE - 1)))).put(buffer);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    protected void writeValue(final ByteBuffer[] chunks, final long pointer, final int offset, final long value) {
+
+        final StampedLock lock = cellLock(pointer);
+        final long stamp = lock.writeLock();
+        try {
+            chunks[(int) (pointer >> 27)].putLong((int) (pointer & (CHUNK_SIZE - 1)) + offset, Long.reverseBytes(value));
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    protected void writeByte(final ByteBuffer[] chunks, final long pointer, final int offset, final byte value) {
+
+        final StampedLock lock = cellLock(pointer);
+        final long stamp = lock.writeLock();
+        try {
+            chunks[(int) (pointer >> 27)].put((int) (pointer & (CHUNK_SIZE - 1)) + offset, value);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    protected static byte cellType(final ByteBuffer[] chunks, final long pointer) { // May lag a PREFILLED_SLOT -> FILLED_SLOT change
+        return cellByte(chunks, pointer, AidosTransaction.TYPE_OFFSET);
+    }
+
+    protected static byte cellByte(final ByteBuffer[] chunks, final long pointer, final int offset) {
+        return chunks[(int) (pointer >> 27)].get((int) (pointer & (CHUNK_SIZE - 1)) + offset);
+    }
+
+    protected long cellValue(final ByteBuffer[] chunks, final long pointer, final int offset) {
+
+        final StampedLock lock = cellLock(pointer);
+        long stamp = lock.tryOptimisticRead();
+        if (stamp != 0) {
+            final long value = rawValue(chunks, pointer, offset);
+            if (lock.validate(stamp)) {
+                return value;
+            }
+        }
+        stamp = lock.readLock();
+        try {
+            return rawValue(chunks, pointer, offset);
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    protected static boolean cellMatches(final ByteBuffer[] chunks, final long pointer, final int offset, final byte[] hash, final int from, final int to) {
+
+        final ByteBuffer chunk = chunks[(int) (pointer >> 27)];
+        final int hashOffset = (int) (pointer & (CHUNK_SIZE - 1)) + offset;
+        for (int i = from; i < to; i++) {
+            if (chunk.get(hashOffset + i) != hash[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    protected long slotPointer(final ByteBuffer[] chunks, final byte[] hash, final int hashSize) { // Returns 0 if there is no slot for the hash
+
+        long pointer = ((hash[0] + 128) + ((hash[1] + 128) << 8)) << 11;
+        for (int depth = 2; depth < hashSize; depth++) {
+
+            if (cellType(chunks, pointer) == GROUP) {
+                if ((pointer = cellValue(chunks, pointer, (hash[depth] + 128) << 3)) == 0) {
+                    return 0;
+                }
+            } else {
+                return cellMatches(chunks, pointer, AidosTransaction.HASH_OFFSET, hash, depth, hashSize) ? pointer : 0;
+            }
+        }
+        throw new IllegalStateException("Corrupted storage");
+    }
+
+    /**
+     * Looks up the slots of many hashes at once, same results as slotPointer. The hashes are walked in the order of their
+     * leading bytes, so each walk resumes from the cells shared with the previous hash and the cells of close hashes are
+     * read together. Large batches are split into ranges, which the lookup threads help the caller walk.
+     */
+    protected void slotPointers(final ByteBuffer[] chunks, final byte[][] hashes, final int hashSize, final long[] pointers) {
+
+        // The leading bytes of each hash above its index, sorting them orders the hashes by the cells they start from
+        final long[] order = new long[hashes.length];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = ((long) prefix(hashes[i], hashSize) << 32) | i;
+        }
+        Arrays.sort(order);
+
+        final int numberOfRanges = hashes.length < PARALLEL_LOOKUPS_THRESHOLD ? 1 : (hashes.length + LOOKUPS_PER_RANGE - 1) / LOOKUPS_PER_RANGE;
+        if (numberOfRanges == 1) {
+            slotPointers(chunks, hashes, hashSize, pointers, order, 0, order.length);
+            return;
+        }
+
+        // Ranges are claimed one by one by the caller and by the helpers which start in time
+        final AtomicInteger nextRange = new AtomicInteger();
+        final CountDownLatch walkedRanges = new CountDownLatch(numberOfRanges);
+        final AtomicReference<RuntimeException> failure = new AtomicReference<>();
+        final Runnable walker = () -> {
+            int range;
+            while ((range = nextRange.getAndIncrement()) < numberOfRanges) {
+                try {
+                    slotPointers(chunks, hashes, hashSize, pointers, order,
+                            range * order.length / numberOfRanges, (range + 1) * order.length / numberOfRanges);
+                } catch (final RuntimeException e) {
+                    failure.compareAndSet(null, e);
+                } finally {
+                    walkedRanges.countDown();
+                }
+            }
+        };
+        for (int i = 1; i < numberOfRanges && i <= LOOKUP_EXECUTOR.getMaximumPoolSize(); i++) {
+            try {
+                LOOKUP_EXECUTOR.execute(walker);
+            } catch (final RejectedExecutionException e) {
+                break;
+            }
+        }
+        walker.run();
+
+        boolean interrupted = false;
+        while (true) {
+            try {
+                walkedRanges.await();
+                break;
+            } catch (final InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+        if (failure.get() != null) {
+            throw failure.get();
+        }
+    }
+
+    private void slotPointers(final ByteBuffer[] chunks, final byte[][] hashes, final int hashSize, final long[] pointers,
+            final long[] order, final int from, final int to) {
+
+        final long[] path = new long[hashSize]; // Cells read at each depth for the previous hash
+        byte[] previousHash = null;
+        int previousDepth = 0;
+        for (int i = from; i < to; i++) {
+
+            final int index = (int) order[i];
+            final byte[] hash = hashes[index];
+            int depth = previousHash == null ? 0 : Math.min(commonPrefix(previousHash, hash, hashSize), previousDepth);
+            long pointer;
+            if (depth < 2) {
+                pointer = ((hash[0] + 128) + ((hash[1] + 128) << 8)) << 11;
+                depth = 2;
+            } else {
+                pointer = path[depth];
+            }
+
+            pointers[index] = 0;
+            for (; depth < hashSize; depth++) {
+
+                path[depth] = pointer;
+                if (cellType(chunks, pointer) == GROUP) {
+                    if ((pointer = cellValue(chunks, pointer, (hash[depth] + 128) << 3)) == 0) {
+                        break;
+                    }
+                } else {
+                    if (cellMatches(chunks, pointer, AidosTransaction.HASH_OFFSET, hash, depth, hashSize)) {
+                        pointers[index] = pointer;
+                    }
+                    break;
+                }
+            }
+            if (depth == hashSize) {
+                throw new IllegalStateException("Corrupted storage");
+            }
+            previousHash = hash;
+            previousDepth = depth;
+        }
+    }
+
+    private static int prefix(final byte[] hash, final int size) { // Orders as the hashes do, by their leading bytes
+
+        int prefix = hash[0];
+        for (int i = 1; i < Integer.BYTES; i++) {
+            prefix = (prefix << 8) | (i < size ? hash[i] + 128 : 0);
+        }
+        return prefix;
+    }
+
+    private static int commonPrefix(final byte[] first, final byte[] second, final int size) {
+        int i = 0;
+        while (i < size && first[i] == second[i]) {
+            i++;
+        }
+        return i;
+    }
+
+    protected AidosLongList slotTransactions(final ByteBuffer[] chunks, long pointer) {
+
+        final AidosLongList transactions = new AidosLongList();
+
+        if (pointer != 0) {
+
+            int offset = ZEROTH_POINTER_OFFSET - Long.BYTES;
+            while (true) {
+
+                while ((offset += Long.BYTES) < CELL_SIZE - Long.BYTES) {
+
+                    final long transactionPointer = cellValue(chunks, pointer, offset);
+                    if (transactionPointer == 0) {
+                        break;
+                    } else {
+                        transactions.add(transactionPointer);
+                    }
+                }
+                if (offset == CELL_SIZE - Long.BYTES) {
+
+                    final long nextCellPointer = cellValue(chunks, pointer, offset);
+                    if (nextCellPointer == 0) {
+                        break;
+                    } else {
+                        pointer = nextCellPointer;
+                        offset = -Long.BYTES;
+                    }
+                } else {
+                    break;
+                }
+            }
+        }
+        return transactions;
+    }
+
+    private static long rawValue(final ByteBuffer[] chunks, final long pointer, final int offset) {
+        // Cells are little endian (see setValue) while mapped chunks keep the default big endian order
+        return Long.reverseBytes(chunks[(int) (pointer >> 27)].getLong((int) (pointer & (CHUNK_SIZE - 1)) + offset));
+    }
+
+    private static void copyField(final ByteBuffer[] chunks, final long pointer, final int offset, final byte[] buffer, final int bufferOffset,
+            final int length) {
+        // The writer moves the position of the shared chunk, so lookups work on their own view of it
+        final ByteBuffer chunk = chunks[(int) (pointer >> 27)].duplicate();
+        chunk.position((int) (pointer & (CHUNK_SIZE - 1)) + offset);
+        chunk.get(buffer, bufferOffset, length);
+    }
+
 	protected void emptyMainBuffer() {
         System.arraycopy(ZEROED_BUFFER, 0, mainBuffer, 0, CELL_SIZE);
 	}
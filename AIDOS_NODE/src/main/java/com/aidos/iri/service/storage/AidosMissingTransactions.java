@@ -0,0 +1,70 @@
+package com.aidos.iri.service.storage;
+
+import com.aidos.iri.utils.AidosLongQueue;
+import com.aidos.iri.utils.AidosLongSet;
+
+/**
+ * Cell pointers of the transactions which are referenced but not stored yet, kept up to date by the writer instead
+ * of being searched for. Transactions never requested go first, the others are requested again once the retry interval
+ * passed since their previous request. Each request goes out in the next packet to whichever neighbor, so the retries
+ * of a transaction go round the neighbors. Stored transactions are only removed from the set and skipped once they
+ * come up in the queues, so every operation takes constant time on average.
+ */
+public class AidosMissingTransactions {
+
+    private final long retryInterval;
+
+    private final AidosLongSet pointers = new AidosLongSet();
+    private final AidosLongQueue newPointers = new AidosLongQueue();
+    private final AidosLongQueue requestedPointers = new AidosLongQueue(); // In the order of their retry times
+    private final AidosLongQueue retryTimes = new AidosLongQueue();
+
+    public AidosMissingTransactions(final long retryInterval) { // In milliseconds
+        this.retryInterval = retryInterval;
+    }
+
+    public synchronized void add(final long pointer) {
+        if (pointers.add(pointer)) {
+            newPointers.offer(pointer);
+        }
+    }
+
+    public synchronized void remove(final long pointer) {
+        pointers.remove(pointer);
+    }
+
+    public synchronized long next(final long now) { // Returns 0 if none is due to be requested
+
+        while (!requestedPointers.isEmpty() && retryTimes.peek() <= now) {
+            retryTimes.poll();
+            final long pointer = requestedPointers.poll();
+            if (pointers.contains(pointer)) {
+                return requested(pointer, now);
+            }
+        }
+        while (!newPointers.isEmpty()) {
+            final long pointer = newPointers.poll();
+            if (pointers.contains(pointer)) {
+                return requested(pointer, now);
+            }
+        }
+        return 0;
+    }
+
+    public synchronized int size() {
+        return pointers.size();
+    }
+
+    public synchronized void clear() {
+        pointers.clear();
+        newPointers.clear();
+        requestedPointers.clear();
+        retryTimes.clear();
+    }
+
+    private long requested(final long pointer, final long now) {
+        requestedPointers.offer(pointer);
+        retryTimes.offer(now + retryInterval);
+        return pointer;
+    }
+}
@@ -3,7 +3,6 @@ package com.aidos.iri.service.storage;
 import java.io.IOException;
 import java.nio.ByteBuffer;
 import java.nio.channels.FileChannel;
-import java.nio.file.Paths;
 import java.nio.file.StandardOpenOption;
 import java.util.Collections;
 import java.util.LinkedList;
@@ -23,12 +22,8 @@ public class AidosStorage extends AidosAbstractStorage {
 	
     private static final Logger log = LoggerFactory.getLogger(AidosStorage.class);
 
-    public static final byte[][] approvedTransactionsToStore = new byte[2][];
-
     private volatile boolean launched;
 
-    public static int numberOfApprovedTransactionsToStore;
-
     private AidosStorageTransactions storageTransactionInstance = AidosStorageTransactions.instance();
     private AidosStorageBundle storageBundleInstance = AidosStorageBundle.instance();
     private AidosStorageAddresses storageAddressesInstance = AidosStorageAddresses.instance();
@@ -47,6 +42,7 @@ public class AidosStorage extends AidosAbstractStorage {
             storageApprovers.init();
             storageScratchpad.init();
             storageTransactionInstance.updateBundleAddressTagApprovers();
+            storageTransactionInstance.upgradeFormat();
             launched = true;
         }
     }
@@ -70,11 +66,7 @@ public class AidosStorage extends AidosAbstractStorage {
 
     void updateBundleAddressTagAndApprovers(final long transactionPointer) {
 
-        final AidosTransaction transaction = new AidosTransaction(mainBuffer, transactionPointer);
-        for (int j = 0; j < numberOfApprovedTransactionsToStore; j++) {
-            AidosStorageTransactions.instance().storeTransaction(approvedTransactionsToStore[j], null, false);
-        }
-        numberOfApprovedTransactionsToStore = 0;
+        final AidosTransaction transaction = storageTransactionInstance.loadTransaction(transactionPointer);
 
         AidosStorageBundle.instance().updateBundle(transactionPointer, transaction);
         AidosStorageAddresses.instance().updateAddresses(transactionPointer, transaction);
@@ -84,6 +76,8 @@ public class AidosStorage extends AidosAbstractStorage {
         if (transaction.branchTransactionPointer != transaction.trunkTransactionPointer) {
         	AidosStorageApprovers.instance().updateApprover(transaction.branchTransaction, transactionPointer);
         }
+
+        storageTransactionInstance.updateSolidity(transactionPointer);
     }
     
     // methods helper
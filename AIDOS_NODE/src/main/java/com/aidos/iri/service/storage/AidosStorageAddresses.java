@@ -3,16 +3,14 @@ package com.aidos.iri.service.storage;
 import java.io.IOException;
 import java.nio.ByteBuffer;
 import java.nio.channels.FileChannel;
-import java.nio.file.Paths;
 import java.nio.file.StandardOpenOption;
-import java.util.LinkedList;
-import java.util.List;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.aidos.iri.model.AidosHash;
 import com.aidos.iri.model.AidosTransaction;
+import com.aidos.iri.utils.AidosLongList;
 
 public class AidosStorageAddresses extends AidosAbstractStorage {
 
@@ -27,7 +25,8 @@ public class AidosStorageAddresses extends AidosAbstractStorage {
 
 	@Override
 	public void init() throws IOException {
-		addressesChannel = FileChannel.open(Paths.get(ADDRESSES_FILE_NAME), StandardOpenOption.CREATE,
+		addressesNextPointer = SUPER_GROUPS_SIZE; // Storage may be reopened
+		addressesChannel = FileChannel.open(path(ADDRESSES_FILE_NAME), StandardOpenOption.CREATE,
 		        StandardOpenOption.READ, StandardOpenOption.WRITE);
 		addressesChunks[0] = addressesChannel.map(FileChannel.MapMode.READ_WRITE, 0, SUPER_GROUPS_SIZE);
 		final long addressesChannelSize = addressesChannel.size();
@@ -73,66 +72,11 @@ public class AidosStorageAddresses extends AidosAbstractStorage {
 	}
 
 	public long addressPointer(final byte[] hash) {
-        synchronized (AidosStorage.class) {
-        long pointer = ((hash[0] + 128) + ((hash[1] + 128) << 8)) << 11;
-        for (int depth = 2; depth < AidosTransaction.ADDRESS_SIZE; depth++) {
-
-            ((ByteBuffer)addressesChunks[(int)(pointer >> 27)].position((int)(pointer & (CHUNK_SIZE - 1)))).get(mainBuffer);
-            if (mainBuffer[AidosTransaction.TYPE_OFFSET] == GROUP) {
-                if ((pointer = value(mainBuffer, (hash[depth] + 128) << 3)) == 0) {
-                    return 0;
-                }
-            } else {
-
-                for (; depth < AidosTransaction.ADDRESS_SIZE; depth++) {
-                    if (mainBuffer[AidosTransaction.HASH_OFFSET + depth] != hash[depth]) {
-                        return 0;
-                    }
-                }
-                return pointer;
-            }
-        }
-		}
-        throw new IllegalStateException("Corrupted storage");
+        return slotPointer(addressesChunks, hash, AidosTransaction.ADDRESS_SIZE);
     }
 	
-	public List<Long> addressTransactions(final long pointer) {
-
-        synchronized (AidosStorage.class) {
-        final List<Long> addressTransactions = new LinkedList<>();
-
-        if (pointer != 0) {
-
-            ((ByteBuffer) addressesChunks[(int) (pointer >> 27)].position((int) (pointer & (CHUNK_SIZE - 1)))).get(mainBuffer);
-            int offset = ZEROTH_POINTER_OFFSET - Long.BYTES;
-            while (true) {
-
-                while ((offset += Long.BYTES) < CELL_SIZE - Long.BYTES) {
-
-                    final long transactionPointer = value(mainBuffer, offset);
-                    if (transactionPointer == 0) {
-                        break;
-                    } else {
-                        addressTransactions.add(transactionPointer);
-                    }
-                }
-                if (offset == CELL_SIZE - Long.BYTES) {
-
-                    final long nextCellPointer = value(mainBuffer, offset);
-                    if (nextCellPointer == 0) {
-                        break;
-                    } else {
-                        ((ByteBuffer) addressesChunks[(int) (nextCellPointer >> 27)].position((int) (nextCellPointer & (CHUNK_SIZE - 1)))).get(mainBuffer);
-                        offset = -Long.BYTES;
-                    }
-                } else {
-                    break;
-                }
-            }
-        }
-        
-        return addressTransactions;
-        }
+	public AidosLongList addressTransactions(final long pointer) {
+        return slotTransactions(addressesChunks, pointer);
     }
 	
 	public void updateAddresses(final long transactionPointer, final AidosTransaction transaction) {
@@ -147,14 +91,13 @@ public class AidosStorageAddresses extends AidosAbstractStorage {
                     prevPointer = pointer;
                     if ((pointer = value(mainBuffer, (transaction.address[depth] + 128) << 3)) == 0) {
 
+                        System.arraycopy(ZEROED_BUFFER, 0, auxBuffer, 0, CELL_SIZE);
+                        auxBuffer[AidosTransaction.TYPE_OFFSET] = FILLED_SLOT;
+                        System.arraycopy(transaction.address, 0, auxBuffer, 8, AidosTransaction.ADDRESS_SIZE);
+                        setValue(auxBuffer, ZEROTH_POINTER_OFFSET, transactionPointer);
                         setValue(mainBuffer, (transaction.address[depth] + 128) << 3, addressesNextPointer);
-                        ((ByteBuffer)addressesChunks[(int)(prevPointer >> 27)].position((int)(prevPointer & (CHUNK_SIZE - 1)))).put(mainBuffer);
-
-                        System.arraycopy(ZEROED_BUFFER, 0, mainBuffer, 0, CELL_SIZE);
-                        mainBuffer[AidosTransaction.TYPE_OFFSET] = FILLED_SLOT;
-                        System.arraycopy(transaction.address, 0, mainBuffer, 8, AidosTransaction.ADDRESS_SIZE);
-                        setValue(mainBuffer, ZEROTH_POINTER_OFFSET, transactionPointer);
-                        appendToAddresses();
+                        appendToAddresses(auxBuffer);
+                        writeCell(addressesChunks, prevPointer, mainBuffer);
 
                         break;
                     }
@@ -169,27 +112,29 @@ public class AidosStorageAddresses extends AidosAbstractStorage {
 
                             final int differentHashByte = mainBuffer[AidosTransaction.HASH_OFFSET + i];
 
-                            ((ByteBuffer)addressesChunks[(int)(prevPointer >> 27)].position((int)(prevPointer & (CHUNK_SIZE - 1)))).get(mainBuffer);
-                            setValue(mainBuffer, (transaction.address[depth - 1] + 128) << 3, addressesNextPointer);
-                            ((ByteBuffer)addressesChunks[(int)(prevPointer >> 27)].position((int)(prevPointer & (CHUNK_SIZE - 1)))).put(mainBuffer);
+                            final long firstNewPointer = addressesNextPointer;
 
                             for (int j = depth; j < i; j++) {
 
                                 System.arraycopy(ZEROED_BUFFER, 0, mainBuffer, 0, CELL_SIZE);
                                 setValue(mainBuffer, (transaction.address[j] + 128) << 3, addressesNextPointer + CELL_SIZE);
-                                appendToAddresses();
+                                appendToAddresses(mainBuffer);
                             }
 
                             System.arraycopy(ZEROED_BUFFER, 0, mainBuffer, 0, CELL_SIZE);
                             setValue(mainBuffer, (differentHashByte + 128) << 3, pointer);
                             setValue(mainBuffer, (transaction.address[i] + 128) << 3, addressesNextPointer + CELL_SIZE);
-                            appendToAddresses();
+                            appendToAddresses(mainBuffer);
 
                             System.arraycopy(ZEROED_BUFFER, 0, mainBuffer, 0, CELL_SIZE);
                             mainBuffer[AidosTransaction.TYPE_OFFSET] = FILLED_SLOT;
                             System.arraycopy(transaction.address, 0, mainBuffer, 8, AidosTransaction.ADDRESS_SIZE);
                             setValue(mainBuffer, ZEROTH_POINTER_OFFSET, transactionPointer);
-                            appendToAddresses();
+                            appendToAddresses(mainBuffer);
+
+                            ((ByteBuffer)addressesChunks[(int)(prevPointer >> 27)].position((int)(prevPointer & (CHUNK_SIZE - 1)))).get(mainBuffer);
+                            setValue(mainBuffer, (transaction.address[depth - 1] + 128) << 3, firstNewPointer);
+                            writeCell(addressesChunks, prevPointer, mainBuffer);
 
                             sameAddress = false;
 
@@ -211,12 +156,11 @@ public class AidosStorageAddresses extends AidosAbstractStorage {
                                 final long nextCellPointer = value(mainBuffer, offset);
                                 if (nextCellPointer == 0) {
 
+                                    System.arraycopy(ZEROED_BUFFER, 0, auxBuffer, 0, CELL_SIZE);
+                                    setValue(auxBuffer, 0, transactionPointer);
                                     setValue(mainBuffer, offset, addressesNextPointer);
-                                    ((ByteBuffer)addressesChunks[(int)(pointer >> 27)].position((int)(pointer & (CHUNK_SIZE - 1)))).put(mainBuffer);
-
-                                    System.arraycopy(ZEROED_BUFFER, 0, mainBuffer, 0, CELL_SIZE);
-                                    setValue(mainBuffer, 0, transactionPointer);
-                                    appendToAddresses();
+                                    appendToAddresses(auxBuffer);
+                                    writeCell(addressesChunks, pointer, mainBuffer);
                                     break;
 
                                 } else {
@@ -226,7 +170,7 @@ public class AidosStorageAddresses extends AidosAbstractStorage {
                                 }
                             } else {
                                 setValue(mainBuffer, offset, transactionPointer);
-                                ((ByteBuffer)addressesChunks[(int)(pointer >> 27)].position((int)(pointer & (CHUNK_SIZE - 1)))).put(mainBuffer);
+                                writeCell(addressesChunks, pointer, mainBuffer);
                                 break;
                             }
                         }
@@ -237,9 +181,9 @@ public class AidosStorageAddresses extends AidosAbstractStorage {
         }
 	}
 	
-    private void appendToAddresses() {
+    private void appendToAddresses(final byte[] buffer) {
 
-        ((ByteBuffer)addressesChunks[(int)(addressesNextPointer >> 27)].position((int)(addressesNextPointer & (CHUNK_SIZE - 1)))).put(mainBuffer);
+        writeCell(addressesChunks, addressesNextPointer, buffer);
         if (((addressesNextPointer += CELL_SIZE) & (CHUNK_SIZE - 1)) == 0) {
 
             try {
@@ -255,7 +199,7 @@ public class AidosStorageAddresses extends AidosAbstractStorage {
 		return instance;
 	}
 
-	public List<Long> addressesOf(final AidosHash hash) {
+	public AidosLongList addressesOf(final AidosHash hash) {
 		return addressTransactions(addressPointer(hash.bytes()));
 	}
 }
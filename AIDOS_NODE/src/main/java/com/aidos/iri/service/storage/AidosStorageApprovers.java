@@ -3,15 +3,13 @@ package com.aidos.iri.service.storage;
 import java.io.IOException;
 import java.nio.ByteBuffer;
 import java.nio.channels.FileChannel;
-import java.nio.file.Paths;
 import java.nio.file.StandardOpenOption;
-import java.util.LinkedList;
-import java.util.List;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.aidos.iri.model.AidosTransaction;
+import com.aidos.iri.utils.AidosLongList;
 
 public class AidosStorageApprovers extends AidosAbstractStorage {
 
@@ -26,7 +24,8 @@ public class AidosStorageApprovers extends AidosAbstractStorage {
 
 	@Override
 	public void init() throws IOException {
-		approversChannel = FileChannel.open(Paths.get(APPROVERS_FILE_NAME), 
+		approversNextPointer = SUPER_GROUPS_SIZE; // Storage may be reopened
+		approversChannel = FileChannel.open(path(APPROVERS_FILE_NAME), 
 				StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
 		
 		approversChunks[0] = approversChannel.map(FileChannel.MapMode.READ_WRITE, 0, SUPER_GROUPS_SIZE);
@@ -72,75 +71,16 @@ public class AidosStorageApprovers extends AidosAbstractStorage {
 	}
 	
 	public long approveePointer(final byte[] hash) {
-		synchronized (AidosStorage.class) {
-
-        long pointer = ((hash[0] + 128) + ((hash[1] + 128) << 8)) << 11;
-        for (int depth = 2; depth < AidosTransaction.HASH_SIZE; depth++) {
-
-            ((ByteBuffer)approversChunks[(int)(pointer >> 27)].position((int)(pointer & (CHUNK_SIZE - 1)))).get(mainBuffer);
-
-            if (mainBuffer[AidosTransaction.TYPE_OFFSET] == GROUP) {
-                if ((pointer = value(mainBuffer, (hash[depth] + 128) << 3)) == 0) {
-                    return 0;
-                }
-
-            } else {
-
-                for (; depth < AidosTransaction.HASH_SIZE; depth++) {
-                    if (mainBuffer[AidosTransaction.HASH_OFFSET + depth] != hash[depth]) {
-                        return 0;
-                    }
-                }
-
-                return pointer;
-            }
-        }
-        }
-        throw new IllegalStateException("Corrupted storage");
+        return slotPointer(approversChunks, hash, AidosTransaction.HASH_SIZE);
     }
 
-    public List<Long> approveeTransactions(final long pointer) {
-
-    	synchronized (AidosStorage.class) {
-        final List<Long> approveeTransactions = new LinkedList<>();
-
-        if (pointer != 0) {
-
-            ((ByteBuffer) approversChunks[(int) (pointer >> 27)].position((int) (pointer & (CHUNK_SIZE - 1)))).get(mainBuffer);
-            int offset = ZEROTH_POINTER_OFFSET - Long.BYTES;
-            while (true) {
-
-                while ((offset += Long.BYTES) < CELL_SIZE - Long.BYTES) {
-
-                    final long transactionPointer = value(mainBuffer, offset);
-                    if (transactionPointer == 0) {
-                        break;
-                    } else {
-                        approveeTransactions.add(transactionPointer);
-                    }
-                }
-                if (offset == CELL_SIZE - Long.BYTES) {
-
-                    final long nextCellPointer = value(mainBuffer, offset);
-                    if (nextCellPointer == 0) {
-                        break;
-                    } else {
-                        ((ByteBuffer) approversChunks[(int) (nextCellPointer >> 27)].position((int) (nextCellPointer & (CHUNK_SIZE - 1)))).get(mainBuffer);
-                        offset = -Long.BYTES;
-                    }
-                } else {
-                    break;
-                }
-            }
-        }
-
-        return approveeTransactions;
-    	}
+    public AidosLongList approveeTransactions(final long pointer) {
+        return slotTransactions(approversChunks, pointer);
     }
 
-    private void appendToApprovers() {
+    private void appendToApprovers(final byte[] buffer) {
 
-        ((ByteBuffer)approversChunks[(int)(approversNextPointer >> 27)].position((int)(approversNextPointer & (CHUNK_SIZE - 1)))).put(mainBuffer);
+        writeCell(approversChunks, approversNextPointer, buffer);
         if (((approversNextPointer += CELL_SIZE) & (CHUNK_SIZE - 1)) == 0) {
 
             try {
@@ -163,14 +103,13 @@ public class AidosStorageApprovers extends AidosAbstractStorage {
                 prevPointer = pointer;
                 if ((pointer = value(mainBuffer, (hash[depth] + 128) << 3)) == 0) {
 
+                    System.arraycopy(ZEROED_BUFFER, 0, auxBuffer, 0, CELL_SIZE);
+                    auxBuffer[AidosTransaction.TYPE_OFFSET] = FILLED_SLOT;
+                    System.arraycopy(hash, 0, auxBuffer, 8, AidosTransaction.HASH_SIZE);
+                    setValue(auxBuffer, ZEROTH_POINTER_OFFSET, transactionPointer);
                     setValue(mainBuffer, (hash[depth] + 128) << 3, approversNextPointer);
-                    ((ByteBuffer)approversChunks[(int)(prevPointer >> 27)].position((int)(prevPointer & (CHUNK_SIZE - 1)))).put(mainBuffer);
-
-                    System.arraycopy(ZEROED_BUFFER, 0, mainBuffer, 0, CELL_SIZE);
-                    mainBuffer[AidosTransaction.TYPE_OFFSET] = FILLED_SLOT;
-                    System.arraycopy(hash, 0, mainBuffer, 8, AidosTransaction.HASH_SIZE);
-                    setValue(mainBuffer, ZEROTH_POINTER_OFFSET, transactionPointer);
-                    appendToApprovers();
+                    appendToApprovers(auxBuffer);
+                    writeCell(approversChunks, prevPointer, mainBuffer);
 
                     return;
                 }
@@ -183,27 +122,29 @@ public class AidosStorageApprovers extends AidosAbstractStorage {
 
                         final int differentHashByte = mainBuffer[AidosTransaction.HASH_OFFSET + i];
 
-                        ((ByteBuffer)approversChunks[(int)(prevPointer >> 27)].position((int)(prevPointer & (CHUNK_SIZE - 1)))).get(mainBuffer);
-                        setValue(mainBuffer, (hash[depth - 1] + 128) << 3, approversNextPointer);
-                        ((ByteBuffer)approversChunks[(int)(prevPointer >> 27)].position((int)(prevPointer & (CHUNK_SIZE - 1)))).put(mainBuffer);
+                        final long firstNewPointer = approversNextPointer;
 
                         for (int j = depth; j < i; j++) {
 
                             System.arraycopy(ZEROED_BUFFER, 0, mainBuffer, 0, CELL_SIZE);
                             setValue(mainBuffer, (hash[j] + 128) << 3, approversNextPointer + CELL_SIZE);
-                            appendToApprovers();
+                            appendToApprovers(mainBuffer);
                         }
 
                         System.arraycopy(ZEROED_BUFFER, 0, mainBuffer, 0, CELL_SIZE);
                         setValue(mainBuffer, (differentHashByte + 128) << 3, pointer);
                         setValue(mainBuffer, (hash[i] + 128) << 3, approversNextPointer + CELL_SIZE);
-                        appendToApprovers();
+                        appendToApprovers(mainBuffer);
 
                         System.arraycopy(ZEROED_BUFFER, 0, mainBuffer, 0, CELL_SIZE);
                         mainBuffer[AidosTransaction.TYPE_OFFSET] = FILLED_SLOT;
                         System.arraycopy(hash, 0, mainBuffer, 8, AidosTransaction.HASH_SIZE);
                         setValue(mainBuffer, ZEROTH_POINTER_OFFSET, transactionPointer);
-                        appendToApprovers();
+                        appendToApprovers(mainBuffer);
+
+                        ((ByteBuffer)approversChunks[(int)(prevPointer >> 27)].position((int)(prevPointer & (CHUNK_SIZE - 1)))).get(mainBuffer);
+                        setValue(mainBuffer, (hash[depth - 1] + 128) << 3, firstNewPointer);
+                        writeCell(approversChunks, prevPointer, mainBuffer);
 
                         return;
                     }
@@ -219,12 +160,11 @@ public class AidosStorageApprovers extends AidosAbstractStorage {
                         final long nextCellPointer = value(mainBuffer, offset);
                         if (nextCellPointer == 0) {
 
+                            System.arraycopy(ZEROED_BUFFER, 0, auxBuffer, 0, CELL_SIZE);
+                            setValue(auxBuffer, 0, transactionPointer);
                             setValue(mainBuffer, offset, approversNextPointer);
-                            ((ByteBuffer)approversChunks[(int)(pointer >> 27)].position((int)(pointer & (CHUNK_SIZE - 1)))).put(mainBuffer);
-
-                            System.arraycopy(ZEROED_BUFFER, 0, mainBuffer, 0, CELL_SIZE);
-                            setValue(mainBuffer, 0, transactionPointer);
-                            appendToApprovers();
+                            appendToApprovers(auxBuffer);
+                            writeCell(approversChunks, pointer, mainBuffer);
 
                             return;
                         } else {
@@ -234,7 +174,7 @@ public class AidosStorageApprovers extends AidosAbstractStorage {
                         }
                     } else {
                         setValue(mainBuffer, offset, transactionPointer);
-                        ((ByteBuffer)approversChunks[(int)(pointer >> 27)].position((int)(pointer & (CHUNK_SIZE - 1)))).put(mainBuffer);
+                        writeCell(approversChunks, pointer, mainBuffer);
                         return;
                     }
                 }
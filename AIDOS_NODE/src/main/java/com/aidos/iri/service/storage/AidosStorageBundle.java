@@ -3,15 +3,13 @@ package com.aidos.iri.service.storage;
 import java.io.IOException;
 import java.nio.ByteBuffer;
 import java.nio.channels.FileChannel;
-import java.nio.file.Paths;
 import java.nio.file.StandardOpenOption;
-import java.util.LinkedList;
-import java.util.List;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.aidos.iri.model.AidosTransaction;
+import com.aidos.iri.utils.AidosLongList;
 
 public class AidosStorageBundle extends AidosAbstractStorage {
 
@@ -26,8 +24,9 @@ public class AidosStorageBundle extends AidosAbstractStorage {
 
 	@Override
 	public void init() throws IOException {
+		bundlesNextPointer = SUPER_GROUPS_SIZE; // Storage may be reopened
 
-		bundlesChannel = FileChannel.open(Paths.get(BUNDLES_FILE_NAME), StandardOpenOption.CREATE,
+		bundlesChannel = FileChannel.open(path(BUNDLES_FILE_NAME), StandardOpenOption.CREATE,
 		        StandardOpenOption.READ, StandardOpenOption.WRITE);
 		bundlesChunks[0] = bundlesChannel.map(FileChannel.MapMode.READ_WRITE, 0, SUPER_GROUPS_SIZE);
 		final long bundlesChannelSize = bundlesChannel.size();
@@ -77,65 +76,12 @@ public class AidosStorageBundle extends AidosAbstractStorage {
 	}
 	
 	public long bundlePointer(final byte[] hash) {
-		synchronized (AidosStorage.class) {
-        long pointer = ((hash[0] + 128) + ((hash[1] + 128) << 8)) << 11;
-        for (int depth = 2; depth < AidosTransaction.BUNDLE_SIZE; depth++) {
-
-            ((ByteBuffer)bundlesChunks[(int)(pointer >> 27)].position((int)(pointer & (CHUNK_SIZE - 1)))).get(mainBuffer);
-
-            if (mainBuffer[AidosTransaction.TYPE_OFFSET] == GROUP) {
-                if ((pointer = value(mainBuffer, (hash[depth] + 128) << 3)) == 0) {
-                    return 0;
-                }
-            } else {
-                for (; depth < AidosTransaction.BUNDLE_SIZE; depth++) {
-                    if (mainBuffer[AidosTransaction.HASH_OFFSET + depth] != hash[depth]) {
-                        return 0;
-                    }
-                }
-                return pointer;
-            }
-        }
-		}
-        throw new IllegalStateException("Corrupted storage");
+        return slotPointer(bundlesChunks, hash, AidosTransaction.BUNDLE_SIZE);
     }
 
 
-    public List<Long> bundleTransactions(final long pointer) {
-    	synchronized (AidosStorage.class) {
-        final List<Long> bundleTransactions = new LinkedList<>();
-
-        if (pointer != 0) {
-
-            ((ByteBuffer) bundlesChunks[(int) (pointer >> 27)].position((int) (pointer & (CHUNK_SIZE - 1)))).get(mainBuffer);
-            int offset = ZEROTH_POINTER_OFFSET - Long.BYTES;
-            while (true) {
-
-                while ((offset += Long.BYTES) < CELL_SIZE - Long.BYTES) {
-
-                    final long transactionPointer = value(mainBuffer, offset);
-                    if (transactionPointer == 0) {
-                        break;
-                    } else {
-                        bundleTransactions.add(transactionPointer);
-                    }
-                }
-                if (offset == CELL_SIZE - Long.BYTES) {
-
-                    final long nextCellPointer = value(mainBuffer, offset);
-                    if (nextCellPointer == 0) {
-                        break;
-                    } else {
-                        ((ByteBuffer) bundlesChunks[(int) (nextCellPointer >> 27)].position((int) (nextCellPointer & (CHUNK_SIZE - 1)))).get(mainBuffer);
-                        offset = -Long.BYTES;
-                    }
-                } else {
-                    break;
-                }
-            }
-        }
-        return bundleTransactions;
-    	}
+    public AidosLongList bundleTransactions(final long pointer) {
+        return slotTransactions(bundlesChunks, pointer);
     }
     
     public void updateBundle(final long transactionPointer, final AidosTransaction transaction) {
@@ -150,14 +96,13 @@ public class AidosStorageBundle extends AidosAbstractStorage {
                     prevPointer = pointer;
                     if ((pointer = value(mainBuffer, (transaction.bundle[depth] + 128) << 3)) == 0) {
 
+                        System.arraycopy(ZEROED_BUFFER, 0, auxBuffer, 0, CELL_SIZE);
+                        auxBuffer[AidosTransaction.TYPE_OFFSET] = FILLED_SLOT;
+                        System.arraycopy(transaction.bundle, 0, auxBuffer, 8, AidosTransaction.BUNDLE_SIZE);
+                        setValue(auxBuffer, ZEROTH_POINTER_OFFSET, transactionPointer);
                         setValue(mainBuffer, (transaction.bundle[depth] + 128) << 3, bundlesNextPointer);
-                        ((ByteBuffer)bundlesChunks[(int)(prevPointer >> 27)].position((int)(prevPointer & (CHUNK_SIZE - 1)))).put(mainBuffer);
-
-                        emptyMainBuffer();
-                        mainBuffer[AidosTransaction.TYPE_OFFSET] = FILLED_SLOT;
-                        System.arraycopy(transaction.bundle, 0, mainBuffer, 8, AidosTransaction.BUNDLE_SIZE);
-                        setValue(mainBuffer, ZEROTH_POINTER_OFFSET, transactionPointer);
-                        appendToBundles();
+                        appendToBundles(auxBuffer);
+                        writeCell(bundlesChunks, prevPointer, mainBuffer);
                         break;
                     }
 
@@ -171,26 +116,28 @@ public class AidosStorageBundle extends AidosAbstractStorage {
 
                             final int differentHashByte = mainBuffer[AidosTransaction.HASH_OFFSET + i];
 
-                            ((ByteBuffer)bundlesChunks[(int)(prevPointer >> 27)].position((int)(prevPointer & (CHUNK_SIZE - 1)))).get(mainBuffer);
-                            setValue(mainBuffer, (transaction.bundle[depth - 1] + 128) << 3, bundlesNextPointer);
-                            ((ByteBuffer)bundlesChunks[(int)(prevPointer >> 27)].position((int)(prevPointer & (CHUNK_SIZE - 1)))).put(mainBuffer);
+                            final long firstNewPointer = bundlesNextPointer;
 
                             for (int j = depth; j < i; j++) {
                                 emptyMainBuffer();
                                 setValue(mainBuffer, (transaction.bundle[j] + 128) << 3, bundlesNextPointer + CELL_SIZE);
-                                appendToBundles();
+                                appendToBundles(mainBuffer);
                             }
 
                             System.arraycopy(ZEROED_BUFFER, 0, mainBuffer, 0, CELL_SIZE);
                             setValue(mainBuffer, (differentHashByte + 128) << 3, pointer);
                             setValue(mainBuffer, (transaction.bundle[i] + 128) << 3, bundlesNextPointer + CELL_SIZE);
-                            appendToBundles();
+                            appendToBundles(mainBuffer);
 
                             System.arraycopy(ZEROED_BUFFER, 0, mainBuffer, 0, CELL_SIZE);
                             mainBuffer[AidosTransaction.TYPE_OFFSET] = FILLED_SLOT;
                             System.arraycopy(transaction.bundle, 0, mainBuffer, 8, AidosTransaction.BUNDLE_SIZE);
                             setValue(mainBuffer, ZEROTH_POINTER_OFFSET, transactionPointer);
-                            appendToBundles();
+                            appendToBundles(mainBuffer);
+
+                            ((ByteBuffer)bundlesChunks[(int)(prevPointer >> 27)].position((int)(prevPointer & (CHUNK_SIZE - 1)))).get(mainBuffer);
+                            setValue(mainBuffer, (transaction.bundle[depth - 1] + 128) << 3, firstNewPointer);
+                            writeCell(bundlesChunks, prevPointer, mainBuffer);
 
                             sameBundle = false;
 
@@ -212,12 +159,11 @@ public class AidosStorageBundle extends AidosAbstractStorage {
                                 final long nextCellPointer = value(mainBuffer, offset);
                                 if (nextCellPointer == 0) {
 
+                                    System.arraycopy(ZEROED_BUFFER, 0, auxBuffer, 0, CELL_SIZE);
+                                    setValue(auxBuffer, 0, transactionPointer);
                                     setValue(mainBuffer, offset, bundlesNextPointer);
-                                    ((ByteBuffer)bundlesChunks[(int)(pointer >> 27)].position((int)(pointer & (CHUNK_SIZE - 1)))).put(mainBuffer);
-
-                                    System.arraycopy(ZEROED_BUFFER, 0, mainBuffer, 0, CELL_SIZE);
-                                    setValue(mainBuffer, 0, transactionPointer);
-                                    appendToBundles();
+                                    appendToBundles(auxBuffer);
+                                    writeCell(bundlesChunks, pointer, mainBuffer);
 
                                     break;
 
@@ -229,7 +175,7 @@ public class AidosStorageBundle extends AidosAbstractStorage {
 
                             } else {
                                 setValue(mainBuffer, offset, transactionPointer);
-                                ((ByteBuffer)bundlesChunks[(int)(pointer >> 27)].position((int)(pointer & (CHUNK_SIZE - 1)))).put(mainBuffer);
+                                writeCell(bundlesChunks, pointer, mainBuffer);
                                 break;
                             }
                         }
@@ -241,9 +187,9 @@ public class AidosStorageBundle extends AidosAbstractStorage {
         }
 	}
 
-	private void appendToBundles() {
+	private void appendToBundles(final byte[] buffer) {
 
-        ((ByteBuffer)bundlesChunks[(int)(bundlesNextPointer >> 27)].position((int)(bundlesNextPointer & (CHUNK_SIZE - 1)))).put(mainBuffer);
+        writeCell(bundlesChunks, bundlesNextPointer, buffer);
         if (((bundlesNextPointer += CELL_SIZE) & (CHUNK_SIZE - 1)) == 0) {
 
             try {
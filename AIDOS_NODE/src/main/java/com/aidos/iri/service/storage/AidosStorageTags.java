@@ -3,15 +3,13 @@ package com.aidos.iri.service.storage;
 import java.io.IOException;
 import java.nio.ByteBuffer;
 import java.nio.channels.FileChannel;
-import java.nio.file.Paths;
 import java.nio.file.StandardOpenOption;
-import java.util.LinkedList;
-import java.util.List;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.aidos.iri.model.AidosTransaction;
+import com.aidos.iri.utils.AidosLongList;
 
 public class AidosStorageTags extends AidosAbstractStorage {
 
@@ -27,7 +25,8 @@ public class AidosStorageTags extends AidosAbstractStorage {
 
 	@Override
 	public void init() throws IOException {
-		tagsChannel = FileChannel.open(Paths.get(TAGS_FILE_NAME), StandardOpenOption.CREATE, StandardOpenOption.READ,
+		tagsNextPointer = SUPER_GROUPS_SIZE; // Storage may be reopened
+		tagsChannel = FileChannel.open(path(TAGS_FILE_NAME), StandardOpenOption.CREATE, StandardOpenOption.READ,
 		        StandardOpenOption.WRITE);
 		tagsChunks[0] = tagsChannel.map(FileChannel.MapMode.READ_WRITE, 0, SUPER_GROUPS_SIZE);
 		final long tagsChannelSize = tagsChannel.size();
@@ -72,71 +71,16 @@ public class AidosStorageTags extends AidosAbstractStorage {
 	}
 	
 	public long tagPointer(final byte[] hash) {
-		synchronized (AidosStorage.class) {
-        long pointer = ((hash[0] + 128) + ((hash[1] + 128) << 8)) << 11;
-        for (int depth = 2; depth < AidosTransaction.TAG_SIZE; depth++) {
-
-            ((ByteBuffer) tagsChunks[(int)(pointer >> 27)].position((int)(pointer & (CHUNK_SIZE - 1)))).get(mainBuffer);
-
-            if (mainBuffer[AidosTransaction.TYPE_OFFSET] == GROUP) {
-                if ((pointer = value(mainBuffer, (hash[depth] + 128) << 3)) == 0) {
-                    return 0;
-                }
-            } else {
-
-                for (; depth < AidosTransaction.TAG_SIZE; depth++) {
-                    if (mainBuffer[AidosTransaction.HASH_OFFSET + depth] != hash[depth]) {
-                        return 0;
-                    }
-                }
-
-                return pointer;
-            }
-        }
-		}
-        throw new IllegalStateException("Corrupted storage");
+        return slotPointer(tagsChunks, hash, AidosTransaction.TAG_SIZE);
     }
 	
-	public List<Long> tagTransactions(final long pointer) {
-
-        synchronized (AidosStorage.class) {
-        final List<Long> tagTransactions = new LinkedList<>();
-
-        if (pointer != 0) {
-            ((ByteBuffer) tagsChunks[(int) (pointer >> 27)].position((int) (pointer & (CHUNK_SIZE - 1)))).get(mainBuffer);
-            int offset = ZEROTH_POINTER_OFFSET - Long.BYTES;
-            while (true) {
-
-                while ((offset += Long.BYTES) < CELL_SIZE - Long.BYTES) {
-
-                    final long transactionPointer = value(mainBuffer, offset);
-                    if (transactionPointer == 0) {
-                        break;
-                    } else {
-                        tagTransactions.add(transactionPointer);
-                    }
-                }
-                if (offset == CELL_SIZE - Long.BYTES) {
-
-                    final long nextCellPointer = value(mainBuffer, offset);
-                    if (nextCellPointer == 0) {
-                        break;
-                    } else {
-                        ((ByteBuffer) tagsChunks[(int) (nextCellPointer >> 27)].position((int) (nextCellPointer & (CHUNK_SIZE - 1)))).get(mainBuffer);
-                        offset = -Long.BYTES;
-                    }
-                } else {
-                    break;
-                }
-            }
-        }
-        return tagTransactions;
-        }
+	public AidosLongList tagTransactions(final long pointer) {
+        return slotTransactions(tagsChunks, pointer);
     }
 	
-	private void appendToTags() {
+	private void appendToTags(final byte[] buffer) {
 
-        ((ByteBuffer) tagsChunks[(int)(tagsNextPointer >> 27)].position((int)(tagsNextPointer & (CHUNK_SIZE - 1)))).put(mainBuffer);
+        writeCell(tagsChunks, tagsNextPointer, buffer);
         if (((tagsNextPointer += CELL_SIZE) & (CHUNK_SIZE - 1)) == 0) {
 
             try {
@@ -162,14 +106,13 @@ public class AidosStorageTags extends AidosAbstractStorage {
                         prevPointer = pointer;
                         if ((pointer = value(mainBuffer, (transaction.tag[depth] + 128) << 3)) == 0) {
 
+                            System.arraycopy(ZEROED_BUFFER, 0, auxBuffer, 0, CELL_SIZE);
+                            auxBuffer[AidosTransaction.TYPE_OFFSET] = FILLED_SLOT;
+                            System.arraycopy(transaction.tag, 0, auxBuffer, 8, AidosTransaction.TAG_SIZE);
+                            setValue(auxBuffer, ZEROTH_POINTER_OFFSET, transactionPointer);
                             setValue(mainBuffer, (transaction.tag[depth] + 128) << 3, tagsNextPointer);
-                            ((ByteBuffer) tagsChunks[(int)(prevPointer >> 27)].position((int)(prevPointer & (CHUNK_SIZE - 1)))).put(mainBuffer);
-
-                            System.arraycopy(ZEROED_BUFFER, 0, mainBuffer, 0, CELL_SIZE);
-                            mainBuffer[AidosTransaction.TYPE_OFFSET] = FILLED_SLOT;
-                            System.arraycopy(transaction.tag, 0, mainBuffer, 8, AidosTransaction.TAG_SIZE);
-                            setValue(mainBuffer, ZEROTH_POINTER_OFFSET, transactionPointer);
-                            appendToTags();
+                            appendToTags(auxBuffer);
+                            writeCell(tagsChunks, prevPointer, mainBuffer);
 
                             break;
                         }
@@ -184,27 +127,29 @@ public class AidosStorageTags extends AidosAbstractStorage {
 
                                 final int differentHashByte = mainBuffer[AidosTransaction.HASH_OFFSET + j];
 
-                                ((ByteBuffer) tagsChunks[(int)(prevPointer >> 27)].position((int)(prevPointer & (CHUNK_SIZE - 1)))).get(mainBuffer);
-                                setValue(mainBuffer, (transaction.tag[depth - 1] + 128) << 3, tagsNextPointer);
-                                ((ByteBuffer) tagsChunks[(int)(prevPointer >> 27)].position((int)(prevPointer & (CHUNK_SIZE - 1)))).put(mainBuffer);
+                                final long firstNewPointer = tagsNextPointer;
 
                                 for (int k = depth; k < j; k++) {
 
                                     System.arraycopy(ZEROED_BUFFER, 0, mainBuffer, 0, CELL_SIZE);
                                     setValue(mainBuffer, (transaction.tag[k] + 128) << 3, tagsNextPointer + CELL_SIZE);
-                                    appendToTags();
+                                    appendToTags(mainBuffer);
                                 }
 
                                 System.arraycopy(ZEROED_BUFFER, 0, mainBuffer, 0, CELL_SIZE);
                                 setValue(mainBuffer, (differentHashByte + 128) << 3, pointer);
                                 setValue(mainBuffer, (transaction.tag[j] + 128) << 3, tagsNextPointer + CELL_SIZE);
-                                appendToTags();
+                                appendToTags(mainBuffer);
 
                                 System.arraycopy(ZEROED_BUFFER, 0, mainBuffer, 0, CELL_SIZE);
                                 mainBuffer[AidosTransaction.TYPE_OFFSET] = FILLED_SLOT;
                                 System.arraycopy(transaction.tag, 0, mainBuffer, 8, AidosTransaction.TAG_SIZE);
                                 setValue(mainBuffer, ZEROTH_POINTER_OFFSET, transactionPointer);
-                                appendToTags();
+                                appendToTags(mainBuffer);
+
+                                ((ByteBuffer)tagsChunks[(int)(prevPointer >> 27)].position((int)(prevPointer & (CHUNK_SIZE - 1)))).get(mainBuffer);
+                                setValue(mainBuffer, (transaction.tag[depth - 1] + 128) << 3, firstNewPointer);
+                                writeCell(tagsChunks, prevPointer, mainBuffer);
 
                                 sameTag = false;
 
@@ -225,12 +170,11 @@ public class AidosStorageTags extends AidosAbstractStorage {
                                     final long nextCellPointer = value(mainBuffer, offset);
                                     if (nextCellPointer == 0) {
 
+                                        System.arraycopy(ZEROED_BUFFER, 0, auxBuffer, 0, CELL_SIZE);
+                                        setValue(auxBuffer, 0, transactionPointer);
                                         setValue(mainBuffer, offset, tagsNextPointer);
-                                        ((ByteBuffer) tagsChunks[(int)(pointer >> 27)].position((int)(pointer & (CHUNK_SIZE - 1)))).put(mainBuffer);
-
-                                        System.arraycopy(ZEROED_BUFFER, 0, mainBuffer, 0, CELL_SIZE);
-                                        setValue(mainBuffer, 0, transactionPointer);
-                                        appendToTags();
+                                        appendToTags(auxBuffer);
+                                        writeCell(tagsChunks, pointer, mainBuffer);
                                         break;
 
                                     } else {
@@ -240,7 +184,7 @@ public class AidosStorageTags extends AidosAbstractStorage {
                                     }
                                 } else {
                                     setValue(mainBuffer, offset, transactionPointer);
-                                    ((ByteBuffer) tagsChunks[(int)(pointer >> 27)].position((int)(pointer & (CHUNK_SIZE - 1)))).put(mainBuffer);
+                                    writeCell(tagsChunks, pointer, mainBuffer);
                                     break;
                                 }
                             }
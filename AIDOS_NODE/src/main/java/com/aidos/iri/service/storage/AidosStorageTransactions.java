@@ -4,9 +4,9 @@ import java.io.IOException;
 import java.nio.ByteBuffer;
 import java.nio.MappedByteBuffer;
 import java.nio.channels.FileChannel;
-import java.nio.file.Paths;
 import java.nio.file.StandardOpenOption;
-import java.util.LinkedList;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 import org.slf4j.Logger;
@@ -14,6 +14,10 @@ import org.slf4j.LoggerFactory;
 
 import com.aidos.iri.model.AidosHash;
 import com.aidos.iri.model.AidosTransaction;
+import com.aidos.iri.model.AidosTransactionView;
+import com.aidos.iri.utils.AidosLongList;
+import com.aidos.iri.utils.AidosLongQueue;
+import com.aidos.iri.utils.AidosLongSet;
 
 public class AidosStorageTransactions extends AidosAbstractStorage {
 	
@@ -24,15 +28,32 @@ public class AidosStorageTransactions extends AidosAbstractStorage {
 	
 	private FileChannel transactionsChannel;
     private ByteBuffer transactionsTipsFlags;
+
+    // Pointers of the transactions with the tip flag set, mirrors the flags so tips are listed without a scan
+    private final AidosLongSet tips = new AidosLongSet();
+    private volatile long numberOfStoredTransactions; // Not counting the genesis nor the transactions only referenced
+
+    // Transactions only referenced so far, kept by the writer so the next one to request is picked without a walk
+    private static final long REQUEST_RETRY_INTERVAL = 10000;
+    private final AidosMissingTransactions missingTransactions = new AidosMissingTransactions(REQUEST_RETRY_INTERVAL);
     
     private final ByteBuffer[] transactionsChunks = new ByteBuffer[MAX_NUMBER_OF_CHUNKS];
     
-    public static long transactionsNextPointer = CELLS_OFFSET - SUPER_GROUPS_OFFSET;
+    public static volatile long transactionsNextPointer = CELLS_OFFSET - SUPER_GROUPS_OFFSET;
+
+    private static final ThreadLocal<byte[]> hashBuffer = ThreadLocal.withInitial(() -> new byte[AidosTransaction.HASH_SIZE]);
+
+    private static final long GENESIS_POINTER = CELLS_OFFSET - SUPER_GROUPS_OFFSET;
+
+    // Kept in the genesis cell, version 1 stores resolved trunk and branch pointers in every transaction cell, version 2 adds solid flags
+    private static final int FORMAT_VERSION_OFFSET = AidosTransaction.BRANCH_TRANSACTION_POINTER_OFFSET + AidosTransaction.BRANCH_TRANSACTION_POINTER_SIZE;
+    private static final long FORMAT_VERSION = 2;
     
     @Override
 	public void init() throws IOException {
+        transactionsNextPointer = GENESIS_POINTER; // Storage may be reopened
 		
-        transactionsChannel = FileChannel.open(Paths.get(TRANSACTIONS_FILE_NAME), StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        transactionsChannel = FileChannel.open(path(TRANSACTIONS_FILE_NAME), StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
         transactionsTipsFlags = transactionsChannel.map(FileChannel.MapMode.READ_WRITE, TIPS_FLAGS_OFFSET, TIPS_FLAGS_SIZE);
         transactionsChunks[0] = transactionsChannel.map(FileChannel.MapMode.READ_WRITE, SUPER_GROUPS_OFFSET, SUPER_GROUPS_SIZE);
         final long transactionsChannelSize = transactionsChannel.size();
@@ -60,6 +81,83 @@ public class AidosStorageTransactions extends AidosAbstractStorage {
                 transactionsNextPointer += CELL_SIZE;
             }
         }
+        loadTips();
+        countTransactions();
+	}
+
+    private void countTransactions() { // Also lists the transactions only referenced
+
+        numberOfStoredTransactions = 0;
+        missingTransactions.clear();
+        for (long pointer = GENESIS_POINTER + CELL_SIZE; pointer < transactionsNextPointer; pointer += CELL_SIZE) {
+            final int type = cellType(transactionsChunks, pointer);
+            if (type == FILLED_SLOT) {
+                numberOfStoredTransactions++;
+            } else if (type == PREFILLED_SLOT) {
+                missingTransactions.add(pointer);
+            }
+        }
+    }
+
+    private void loadTips() {
+
+        synchronized (tips) {
+            tips.clear();
+            final long numberOfCells = (transactionsNextPointer - GENESIS_POINTER) >> 11;
+            for (int i = 0; i < (numberOfCells + 7) >> 3; i++) {
+                final int flags = transactionsTipsFlags.get(i) & 0xFF;
+                if (flags != 0) {
+                    for (int j = 0; j < 8; j++) {
+                        if ((flags & (1 << j)) != 0) {
+                            tips.add(GENESIS_POINTER + ((((long) i << 3) + j) << 11));
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+	public void upgradeFormat() {
+
+        final long formatVersion;
+        if (transactionsNextPointer == GENESIS_POINTER || (formatVersion = cellValue(transactionsChunks, GENESIS_POINTER, FORMAT_VERSION_OFFSET)) >= FORMAT_VERSION) {
+            return;
+        }
+
+        log.info("Upgrading transactions storage to format version " + FORMAT_VERSION);
+        if (formatVersion < 1) {
+
+            final byte[] hash = new byte[AidosTransaction.HASH_SIZE];
+            final long transactionsEndPointer = transactionsNextPointer;
+            for (long pointer = GENESIS_POINTER; pointer < transactionsEndPointer; pointer += CELL_SIZE) {
+
+                final byte type = cellType(transactionsChunks, pointer);
+                if (type == FILLED_SLOT) {
+
+                    if (cellValue(transactionsChunks, pointer, AidosTransaction.TRUNK_TRANSACTION_POINTER_OFFSET) == 0) {
+                        readField(transactionsChunks, pointer, AidosTransaction.TRUNK_TRANSACTION_OFFSET, hash, AidosTransaction.HASH_SIZE);
+                        writeValue(transactionsChunks, pointer, AidosTransaction.TRUNK_TRANSACTION_POINTER_OFFSET, storeParent(hash));
+                    }
+                    if (cellValue(transactionsChunks, pointer, AidosTransaction.BRANCH_TRANSACTION_POINTER_OFFSET) == 0) {
+                        readField(transactionsChunks, pointer, AidosTransaction.BRANCH_TRANSACTION_OFFSET, hash, AidosTransaction.HASH_SIZE);
+                        writeValue(transactionsChunks, pointer, AidosTransaction.BRANCH_TRANSACTION_POINTER_OFFSET, storeParent(hash));
+                    }
+
+                } else if (type == PREFILLED_SLOT) {
+                    writeValue(transactionsChunks, pointer, AidosTransaction.TRUNK_TRANSACTION_POINTER_OFFSET, GENESIS_POINTER);
+                    writeValue(transactionsChunks, pointer, AidosTransaction.BRANCH_TRANSACTION_POINTER_OFFSET, GENESIS_POINTER);
+                }
+            }
+        }
+        if (formatVersion < 2) {
+
+            writeByte(transactionsChunks, GENESIS_POINTER, AidosTransaction.SOLID_OFFSET, (byte) 1);
+            for (long pointer = GENESIS_POINTER; pointer < transactionsNextPointer; pointer += CELL_SIZE) {
+                updateSolidity(pointer);
+            }
+        }
+        writeValue(transactionsChunks, GENESIS_POINTER, FORMAT_VERSION_OFFSET, FORMAT_VERSION);
+        log.info("Transactions storage upgraded");
 	}
 
 	public void updateBundleAddressTagApprovers() {
@@ -67,17 +165,30 @@ public class AidosStorageTransactions extends AidosAbstractStorage {
 
             // No need to zero "mainBuffer", it already contains only zeros
             setValue(mainBuffer, AidosTransaction.TYPE_OFFSET, FILLED_SLOT);
-            appendToTransactions(true);
+            setValue(mainBuffer, AidosTransaction.TRUNK_TRANSACTION_POINTER_OFFSET, GENESIS_POINTER);
+            setValue(mainBuffer, AidosTransaction.BRANCH_TRANSACTION_POINTER_OFFSET, GENESIS_POINTER);
+            setValue(mainBuffer, FORMAT_VERSION_OFFSET, FORMAT_VERSION);
+            mainBuffer[AidosTransaction.SOLID_OFFSET] = 1;
+            appendToTransactions(mainBuffer, true);
 
             emptyMainBuffer();
             setValue(mainBuffer, 128 << 3, CELLS_OFFSET - SUPER_GROUPS_OFFSET);
-            ((ByteBuffer)transactionsChunks[0].position((128 + (128 << 8)) << 11)).put(mainBuffer);
+            writeCell(transactionsChunks, (128 + (128 << 8)) << 11, mainBuffer);
 
             emptyMainBuffer();
             AidosStorage.instance().updateBundleAddressTagAndApprovers(CELLS_OFFSET - SUPER_GROUPS_OFFSET);
         }
 	}
 	
+    public void force() throws IOException { // Writes the cells changed so far to disk
+
+        for (int i = 0; i < MAX_NUMBER_OF_CHUNKS && transactionsChunks[i] != null; i++) {
+            if (!flush(transactionsChunks[i])) {
+                throw new IOException("Failed to flush transactions chunk #" + i);
+            }
+        }
+    }
+
     @Override
 	public void shutdown() {
         ((MappedByteBuffer) transactionsTipsFlags).force();
@@ -92,13 +203,16 @@ public class AidosStorageTransactions extends AidosAbstractStorage {
 		}
 	}
 	
-    public void appendToTransactions(final boolean tip) {
+    private void appendToTransactions(final byte[] buffer, final boolean tip) {
 
-        ((ByteBuffer)transactionsChunks[(int)(transactionsNextPointer >> 27)].position((int)(transactionsNextPointer & (CHUNK_SIZE - 1)))).put(mainBuffer);
+        writeCell(transactionsChunks, transactionsNextPointer, buffer);
 
         if (tip) {
             final long index = (transactionsNextPointer - (CELLS_OFFSET - SUPER_GROUPS_OFFSET)) >> 11;
             transactionsTipsFlags.put((int) (index >> 3), (byte) (transactionsTipsFlags.get((int) (index >> 3)) | (1 << (index & 7))));
+            synchronized (tips) {
+                tips.add(transactionsNextPointer);
+            }
         }
 
         if (((transactionsNextPointer += CELL_SIZE) & (CHUNK_SIZE - 1)) == 0) {
@@ -112,79 +226,167 @@ public class AidosStorageTransactions extends AidosAbstractStorage {
     }
     
     public long transactionPointer(final byte[] hash) { // Returns a negative value if the transaction hasn't been seen yet but was referenced
+        final long pointer = slotPointer(transactionsChunks, hash, AidosTransaction.HASH_SIZE);
+        return pointer != 0 && cellType(transactionsChunks, pointer) == PREFILLED_SLOT ? -pointer : pointer;
+    }
 
-        synchronized (AidosStorage.class) {
-        long pointer = ((hash[0] + 128) + ((hash[1] + 128) << 8)) << 11;
-        for (int depth = 2; depth < AidosTransaction.HASH_SIZE; depth++) {
+    public long[] transactionPointers(final byte[][] hashes) { // Same values as transactionPointer for each of the hashes
+        final long[] pointers = new long[hashes.length];
+        slotPointers(transactionsChunks, hashes, AidosTransaction.HASH_SIZE, pointers);
+        for (int i = 0; i < pointers.length; i++) {
+            if (pointers[i] != 0 && cellType(transactionsChunks, pointers[i]) == PREFILLED_SLOT) {
+                pointers[i] = -pointers[i];
+            }
+        }
+        return pointers;
+    }
+
+    public AidosTransaction loadTransaction(final long pointer) {
+        final byte[] buffer = readBuffer.get();
+        readCell(transactionsChunks, pointer, buffer);
+        return new AidosTransaction(buffer, pointer);
+    }
 
-            ((ByteBuffer)transactionsChunks[(int)(pointer >> 27)].position((int)(pointer & (CHUNK_SIZE - 1)))).get(auxBuffer);
+    public AidosTransaction loadTransaction(final byte[] hash) {
+        final long pointer = transactionPointer(hash);
+        return pointer > 0 ? loadTransaction(pointer) : null;
+    }
 
-            if (auxBuffer[AidosTransaction.TYPE_OFFSET] == GROUP) {
-                if ((pointer = value(auxBuffer, (hash[depth] + 128) << 3)) == 0) {
-                    return 0;
-                }
+    public AidosTransactionView loadTransaction(final long pointer, final AidosTransactionView view) {
+        return view.wrap(pointer);
+    }
 
-            } else {
+    public int transactionByte(final long pointer, final int offset) {
+        return cellByte(transactionsChunks, pointer, offset);
+    }
+
+    public long transactionValue(final long pointer, final int offset) {
+        return cellValue(transactionsChunks, pointer, offset);
+    }
+
+    public byte[] transactionBytes(final long pointer, final int offset, final byte[] buffer, final int length) {
+        return transactionBytes(pointer, offset, buffer, 0, length);
+    }
+
+    public byte[] transactionBytes(final long pointer, final int offset, final byte[] buffer, final int bufferOffset, final int length) {
+        readField(transactionsChunks, pointer, offset, buffer, bufferOffset, length);
+        return buffer;
+    }
+
+    public void setTransactionValidity(final long pointer, final int validity) {
+        writeByte(transactionsChunks, pointer, AidosTransaction.VALIDITY_OFFSET, (byte)validity);
+    }
 
-                for (; depth < AidosTransaction.HASH_SIZE; depth++) {
-                    if (auxBuffer[AidosTransaction.HASH_OFFSET + depth] != hash[depth]) {
-                        return 0;
+    public boolean transactionSolid(final long pointer) {
+        return cellByte(transactionsChunks, pointer, AidosTransaction.SOLID_OFFSET) != 0;
+    }
+
+    void updateSolidity(final long pointer) { // Called by the writer once the transaction is stored and indexed as an approver
+
+        if (transactionSolid(pointer) || !parentsSolid(pointer)) {
+            return;
+        }
+
+        // The transaction completes the past of its approvers, so solidity is propagated forward
+        final byte[] hash = new byte[AidosTransaction.HASH_SIZE];
+        final AidosLongQueue solidTransactions = new AidosLongQueue();
+        solidTransactions.offer(pointer);
+        while (!solidTransactions.isEmpty()) {
+            final long solidPointer = solidTransactions.poll();
+
+            if (!transactionSolid(solidPointer)) {
+
+                writeByte(transactionsChunks, solidPointer, AidosTransaction.SOLID_OFFSET, (byte) 1);
+
+                readField(transactionsChunks, solidPointer, AidosTransaction.HASH_OFFSET, hash, AidosTransaction.HASH_SIZE);
+                final AidosLongList approverPointers = AidosStorageApprovers.instance().approveeTransactions(AidosStorageApprovers.instance().approveePointer(hash));
+                for (int i = 0; i < approverPointers.size(); i++) {
+                    final long approverPointer = approverPointers.get(i);
+                    if (!transactionSolid(approverPointer) && parentsSolid(approverPointer)) {
+                        solidTransactions.offer(approverPointer);
                     }
                 }
-
-                return auxBuffer[AidosTransaction.TYPE_OFFSET] == PREFILLED_SLOT ? -pointer : pointer;
             }
         }
-        }
-        throw new IllegalStateException("Corrupted storage");
     }
 
-    public AidosTransaction loadTransaction(final long pointer) {
-        synchronized (AidosStorage.class) {
-            ((ByteBuffer)transactionsChunks[(int)(pointer >> 27)].position((int)(pointer & (CHUNK_SIZE - 1)))).get(mainBuffer);
-            return new AidosTransaction(mainBuffer, pointer);
-    	}
+    public long confirmingMilestoneIndex(final long pointer) { // Returns 0 if the transaction hasn't been applied to the ledger yet
+        return cellValue(transactionsChunks, pointer, AidosTransaction.CONFIRMING_MILESTONE_INDEX_OFFSET);
     }
 
-    public AidosTransaction loadTransaction(final byte[] hash) {
-        synchronized (AidosStorage.class) {
-            final long pointer = transactionPointer(hash);
-            return pointer > 0 ? loadTransaction(pointer) : null;
-        }
+    public void setConfirmingMilestoneIndex(final long pointer, final long milestoneIndex) {
+        writeValue(transactionsChunks, pointer, AidosTransaction.CONFIRMING_MILESTONE_INDEX_OFFSET, milestoneIndex);
     }
-    
-    public void setTransactionValidity(final long pointer, final int validity) {
-        synchronized (AidosStorage.class) {
-            transactionsChunks[(int)(pointer >> 27)].put(((int)(pointer & (CHUNK_SIZE - 1))) + AidosTransaction.VALIDITY_OFFSET, (byte)validity);
+
+    public void clearConfirmingMilestoneIndexes() { // Used when the ledger has to be rebuilt from the snapshot
+
+        final long transactionsNextPointer = AidosStorageTransactions.transactionsNextPointer;
+        for (long pointer = GENESIS_POINTER; pointer < transactionsNextPointer; pointer += CELL_SIZE) {
+            if (cellType(transactionsChunks, pointer) == FILLED_SLOT && confirmingMilestoneIndex(pointer) != 0) {
+                setConfirmingMilestoneIndex(pointer, 0);
+            }
         }
     }
+
+    private boolean parentsSolid(final long pointer) {
+        return cellType(transactionsChunks, pointer) == FILLED_SLOT
+                && transactionSolid(cellValue(transactionsChunks, pointer, AidosTransaction.TRUNK_TRANSACTION_POINTER_OFFSET))
+                && transactionSolid(cellValue(transactionsChunks, pointer, AidosTransaction.BRANCH_TRANSACTION_POINTER_OFFSET));
+    }
 	
     public boolean tipFlag(final long pointer) {
-    	synchronized (AidosStorage.class) {
-            final long index = (pointer - (CELLS_OFFSET - SUPER_GROUPS_OFFSET)) >> 11;
-            return (transactionsTipsFlags.get((int)(index >> 3)) & (1 << (index & 7))) != 0;
-        }
+        final long index = (pointer - (CELLS_OFFSET - SUPER_GROUPS_OFFSET)) >> 11;
+        return (transactionsTipsFlags.get((int)(index >> 3)) & (1 << (index & 7))) != 0;
     }
     
+    public void clearTipFlag(final long pointer) { // Called by the writer once the transaction gets approved
+
+        final long index = (pointer - (CELLS_OFFSET - SUPER_GROUPS_OFFSET)) >> 11;
+        transactionsTipsFlags.put((int) (index >> 3), (byte) (transactionsTipsFlags.get((int) (index >> 3)) & (0xFF ^ (1 << (index & 7)))));
+        synchronized (tips) {
+            tips.remove(pointer);
+        }
+    }
+
+    public long numberOfStoredTransactions() {
+        return numberOfStoredTransactions;
+    }
+
+    public int numberOfTips() {
+        synchronized (tips) {
+            return tips.size();
+        }
+    }
+
+    public AidosLongList tipPointers() {
+        final AidosLongList tipPointers;
+        synchronized (tips) {
+            tipPointers = new AidosLongList(tips.size());
+            tips.forEach(tipPointers::add);
+        }
+        return tipPointers;
+    }
+
     public List<AidosHash> tips() {
-    	synchronized (AidosStorage.class) {
-            final List<AidosHash> tips = new LinkedList<>();
-    
-            long pointer = CELLS_OFFSET - SUPER_GROUPS_OFFSET;
-            while (pointer < transactionsNextPointer) {
-    
-                if (tipFlag(pointer)) {
-                    tips.add(new AidosHash(loadTransaction(pointer).hash, 0, AidosTransaction.HASH_SIZE));
-                }
-                pointer += CELL_SIZE;
-            }
-            return tips;
-    	}
+
+        final AidosLongList tipPointers = tipPointers();
+        final List<AidosHash> tips = new ArrayList<>(tipPointers.size());
+        for (int i = 0; i < tipPointers.size(); i++) {
+            tips.add(new AidosHash(transactionBytes(tipPointers.get(i), AidosTransaction.HASH_OFFSET, hashBuffer.get(), AidosTransaction.HASH_SIZE), 0, AidosTransaction.HASH_SIZE));
+        }
+        return tips;
     }
     
     public long storeTransaction(final byte[] hash, final AidosTransaction transaction, final boolean tip) { // Returns the pointer or 0 if the transaction was already in the storage and "transaction" value is not null
 
     	synchronized (AidosStorage.class) {
+        if (transaction != null) {
+            // Parents go first, so the transaction cell is complete with their pointers once it's linked
+            transaction.trunkTransactionPointer = storeParent(transaction.trunkTransaction);
+            transaction.branchTransactionPointer = Arrays.equals(transaction.branchTransaction, transaction.trunkTransaction)
+                    ? transaction.trunkTransactionPointer : storeParent(transaction.branchTransaction);
+        }
+
         long pointer = ((hash[0] + 128) + ((hash[1] + 128) << 8)) << 11, prevPointer = 0;
 
     MAIN_LOOP:
@@ -197,13 +399,18 @@ public class AidosStorageTransactions extends AidosAbstractStorage {
                 prevPointer = pointer;
                 if ((pointer = value(mainBuffer, (hash[depth] + 128) << 3)) == 0) {
 
-                    setValue(mainBuffer, (hash[depth] + 128) << 3, pointer = transactionsNextPointer);
-                    ((ByteBuffer)transactionsChunks[(int)(prevPointer >> 27)].position((int)(prevPointer & (CHUNK_SIZE - 1)))).put(mainBuffer);
+                    pointer = transactionsNextPointer;
+                    AidosTransaction.dump(auxBuffer, hash, transaction);
+                    appendToTransactions(auxBuffer, transaction != null || tip);
+
+                    // The new cell becomes visible to lookups only once it's complete
+                    setValue(mainBuffer, (hash[depth] + 128) << 3, pointer);
+                    writeCell(transactionsChunks, prevPointer, mainBuffer);
 
-                    AidosTransaction.dump(mainBuffer, hash, transaction);
-                    appendToTransactions(transaction != null || tip);
                     if (transaction != null) {
                         AidosStorage.instance().updateBundleAddressTagAndApprovers(pointer);
+                    } else {
+                        missingTransactions.add(pointer);
                     }
 
                     break MAIN_LOOP;
@@ -216,28 +423,32 @@ public class AidosStorageTransactions extends AidosAbstractStorage {
                     if (mainBuffer[AidosTransaction.HASH_OFFSET + i] != hash[i]) {
 
                         final int differentHashByte = mainBuffer[AidosTransaction.HASH_OFFSET + i];
-
-                        ((ByteBuffer)transactionsChunks[(int)(prevPointer >> 27)].position((int)(prevPointer & (CHUNK_SIZE - 1)))).get(mainBuffer);
-                        setValue(mainBuffer, (hash[depth - 1] + 128) << 3, transactionsNextPointer);
-                        ((ByteBuffer)transactionsChunks[(int)(prevPointer >> 27)].position((int)(prevPointer & (CHUNK_SIZE - 1)))).put(mainBuffer);
+                        final long firstNewPointer = transactionsNextPointer;
 
                         for (int j = depth; j < i; j++) {
 
                             emptyMainBuffer();
                             setValue(mainBuffer, (hash[j] + 128) << 3, transactionsNextPointer + CELL_SIZE);
-                            appendToTransactions(false);
+                            appendToTransactions(mainBuffer, false);
                         }
 
                         emptyMainBuffer();
                         setValue(mainBuffer, (differentHashByte + 128) << 3, pointer);
                         setValue(mainBuffer, (hash[i] + 128) << 3, transactionsNextPointer + CELL_SIZE);
-                        appendToTransactions(false);
+                        appendToTransactions(mainBuffer, false);
 
                         AidosTransaction.dump(mainBuffer, hash, transaction);
                         pointer = transactionsNextPointer;
-                        appendToTransactions(transaction != null || tip);
+                        appendToTransactions(mainBuffer, transaction != null || tip);
+
+                        ((ByteBuffer)transactionsChunks[(int)(prevPointer >> 27)].position((int)(prevPointer & (CHUNK_SIZE - 1)))).get(mainBuffer);
+                        setValue(mainBuffer, (hash[depth - 1] + 128) << 3, firstNewPointer);
+                        writeCell(transactionsChunks, prevPointer, mainBuffer);
+
                         if (transaction != null) {
                             AidosStorage.instance().updateBundleAddressTagAndApprovers(pointer);
+                        } else {
+                            missingTransactions.add(pointer);
                         }
 
                         break MAIN_LOOP;
@@ -248,8 +459,9 @@ public class AidosStorageTransactions extends AidosAbstractStorage {
 
                     if (mainBuffer[AidosTransaction.TYPE_OFFSET] == PREFILLED_SLOT) {
                         AidosTransaction.dump(mainBuffer, hash, transaction);
-                        ((ByteBuffer)transactionsChunks[(int)(pointer >> 27)].position((int)(pointer & (CHUNK_SIZE - 1)))).put(mainBuffer);
+                        writeCell(transactionsChunks, pointer, mainBuffer);
                         AidosStorage.instance().updateBundleAddressTagAndApprovers(pointer);
+                        missingTransactions.remove(pointer);
                     } else {
                         pointer = 0;
                     }
@@ -258,14 +470,27 @@ public class AidosStorageTransactions extends AidosAbstractStorage {
             }
         }
 
+        if (transaction != null && pointer != 0) {
+            numberOfStoredTransactions++; // Only the writer changes it
+        }
         return pointer;
     	}
     }
 
-    public ByteBuffer transactionsTipsFlags() {
-		return transactionsTipsFlags;
-	}
-    
+    public long missingTransactionToRequest() { // Returns 0 if no transaction is due to be requested
+        return missingTransactions.next(System.currentTimeMillis());
+    }
+
+    public int numberOfMissingTransactions() {
+        return missingTransactions.size();
+    }
+
+    private long storeParent(final byte[] hash) { // Stores a yet unknown parent as referenced only
+
+        final long pointer = transactionPointer(hash);
+        return pointer == 0 ? storeTransaction(hash, null, false) : Math.abs(pointer);
+    }
+
 	public static AidosStorageTransactions instance() {
 		return instance;
 	}
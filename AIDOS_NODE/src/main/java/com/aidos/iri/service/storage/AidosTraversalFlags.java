@@ -0,0 +1,118 @@
+package com.aidos.iri.service.storage;
+
+import java.util.Arrays;
+
+/**
+ * Visited flags of one graph walk, one bit per transaction cell.
+ * Pages of flags are stamped with the epoch they were written in, clearing only bumps the epoch and stale pages are
+ * zeroed when they are touched again. Saved flags are kept as a layer which {@link #load()} puts back under the
+ * current one, so none of the operations scale with the storage capacity.
+ * Instances are pooled by {@link AidosStorageScratchpad}, closing one returns it.
+ */
+public class AidosTraversalFlags implements AutoCloseable {
+
+    private static final int PAGE_SHIFT = 16, PAGE_SIZE = 1 << PAGE_SHIFT; // One page covers a chunk of cells
+    private static final int NUMBER_OF_PAGES = AidosAbstractStorage.MAX_NUMBER_OF_CHUNKS * AidosAbstractStorage.CELLS_PER_CHUNK / PAGE_SIZE;
+
+    private static final class Layer {
+
+        private final long[][] pages = new long[NUMBER_OF_PAGES][];
+        private final int[] pageEpochs = new int[NUMBER_OF_PAGES];
+        private int epoch = 1;
+
+        private boolean get(final int index) {
+            final int pageIndex = index >>> PAGE_SHIFT;
+            return pageEpochs[pageIndex] == epoch && (pages[pageIndex][(index & (PAGE_SIZE - 1)) >>> 6] & (1L << index)) != 0;
+        }
+
+        private void set(final int index) {
+
+            final int pageIndex = index >>> PAGE_SHIFT;
+            if (pageEpochs[pageIndex] != epoch) {
+                if (pages[pageIndex] == null) {
+                    pages[pageIndex] = new long[PAGE_SIZE / Long.SIZE];
+                } else {
+                    Arrays.fill(pages[pageIndex], 0);
+                }
+                pageEpochs[pageIndex] = epoch;
+            }
+            pages[pageIndex][(index & (PAGE_SIZE - 1)) >>> 6] |= 1L << index;
+        }
+
+        private void clear() {
+            if (++epoch == 0) { // Stale stamps could match again after the wrap-around
+                Arrays.fill(pageEpochs, 0);
+                epoch = 1;
+            }
+        }
+    }
+
+    private Layer flags = new Layer(), savedFlags = new Layer();
+    private boolean savedFlagsLoaded;
+
+    private final AidosStorageScratchpad pool;
+
+    AidosTraversalFlags(final AidosStorageScratchpad pool) {
+        this.pool = pool;
+    }
+
+    public boolean get(final long pointer) {
+        final int index = index(pointer);
+        return flags.get(index) || (savedFlagsLoaded && savedFlags.get(index));
+    }
+
+    public boolean set(final long pointer) { // Returns false if the flag was already set
+
+        final int index = index(pointer);
+        if (get(pointer)) {
+            return false;
+        }
+        flags.set(index);
+        return true;
+    }
+
+    public void clear() {
+        flags.clear();
+        savedFlagsLoaded = false;
+    }
+
+    public void save() {
+
+        if (savedFlagsLoaded) {
+
+            // The saved layer is still under the current one, the flags set since loading are added to it
+            for (int pageIndex = 0; pageIndex < NUMBER_OF_PAGES; pageIndex++) {
+                if (flags.pageEpochs[pageIndex] == flags.epoch) {
+                    final long[] page = flags.pages[pageIndex];
+                    for (int i = 0; i < page.length; i++) {
+                        for (long word = page[i]; word != 0; word &= word - 1) {
+                            savedFlags.set((pageIndex << PAGE_SHIFT) + (i << 6) + Long.numberOfTrailingZeros(word));
+                        }
+                    }
+                }
+            }
+
+        } else {
+            final Layer layer = savedFlags;
+            savedFlags = flags;
+            flags = layer;
+        }
+        load();
+    }
+
+    public void load() {
+        flags.clear();
+        savedFlagsLoaded = true;
+    }
+
+    @Override
+    public void close() {
+        clear();
+        savedFlags.clear();
+        pool.release(this);
+    }
+
+    private static int index(final long pointer) {
+        return (int) ((pointer - (AidosAbstractStorage.CELLS_OFFSET - AidosAbstractStorage.SUPER_GROUPS_OFFSET)) >> 11);
+    }
+}
@@ -12,11 +12,21 @@ public class AidosConverter {
     
     static final int[][] BYTE_TO_TRITS_MAPPINGS = new int[243][];
     static final int[][] TRYTE_TO_TRITS_MAPPINGS = new int[27][];
+    private static final int[] TRYTE_INDEXES = new int[128]; // Index in the alphabet of each ASCII char, -1 if not a tryte
+    private static final char[] TRYTES = new char[27]; // Tryte of each value from MIN_TRYTE_VALUE to MAX_TRYTE_VALUE
+    private static final int[] TRIT_WEIGHTS = {1, 3, 9, 27, 81};
     
     public static final String TRYTE_ALPHABET = "9ABCDEFGHIJKLMNOPQRSTUVWXYZ";
     
     public static final int MIN_TRYTE_VALUE = -13, MAX_TRYTE_VALUE = 13;
 
+    // Tryte pairs (6 trits) always span two bytes, in 5 ways depending on the trit of the first byte they start at
+    private static final int NUMBER_OF_TRYTE_PAIRS = 27 * 27, MIN_TRYTE_PAIR_VALUE = MIN_TRYTE_VALUE * 28;
+    private static final byte[][] TRYTE_PAIR_BYTES = new byte[NUMBER_OF_TRITS_IN_A_BYTE][NUMBER_OF_TRYTE_PAIRS * 2]; // What a pair adds to both bytes, by alphabet indexes
+    private static final char[] TRYTE_PAIRS = new char[NUMBER_OF_TRYTE_PAIRS * 2]; // Both trytes of each pair value from MIN_TRYTE_PAIR_VALUE
+    private static final int[][] BYTE_HIGH_VALUES = new int[NUMBER_OF_TRITS_IN_A_BYTE][243]; // Value of the trits of a byte from a given one
+    private static final int[][] BYTE_LOW_VALUES = new int[NUMBER_OF_TRITS_IN_A_BYTE + 1][243]; // Value of the given number of first trits
+
     
     static {
 
@@ -31,6 +41,43 @@ public class AidosConverter {
             TRYTE_TO_TRITS_MAPPINGS[i] = Arrays.copyOf(trits, NUMBER_OF_TRITS_IN_A_TRYTE);
             increment(trits, NUMBER_OF_TRITS_IN_A_TRYTE);
         }
+
+        Arrays.fill(TRYTE_INDEXES, -1);
+        for (int i = 0; i < TRYTE_ALPHABET.length(); i++) {
+            TRYTE_INDEXES[TRYTE_ALPHABET.charAt(i)] = i;
+        }
+        for (int value = MIN_TRYTE_VALUE; value <= MAX_TRYTE_VALUE; value++) {
+            TRYTES[value - MIN_TRYTE_VALUE] = TRYTE_ALPHABET.charAt(value < 0 ? value + TRYTE_ALPHABET.length() : value);
+        }
+
+        final int[] pairTrits = new int[NUMBER_OF_TRITS_IN_A_TRYTE * 2];
+        for (int first = 0; first < 27; first++) {
+            for (int second = 0; second < 27; second++) {
+                System.arraycopy(TRYTE_TO_TRITS_MAPPINGS[first], 0, pairTrits, 0, NUMBER_OF_TRITS_IN_A_TRYTE);
+                System.arraycopy(TRYTE_TO_TRITS_MAPPINGS[second], 0, pairTrits, NUMBER_OF_TRITS_IN_A_TRYTE, NUMBER_OF_TRITS_IN_A_TRYTE);
+                final int pair = first * 27 + second;
+                for (int start = 0; start < NUMBER_OF_TRITS_IN_A_BYTE; start++) {
+                    for (int j = 0; j < pairTrits.length; j++) {
+                        final int tritIndex = start + j;
+                        TRYTE_PAIR_BYTES[start][pair * 2 + tritIndex / NUMBER_OF_TRITS_IN_A_BYTE] += pairTrits[j] * TRIT_WEIGHTS[tritIndex % NUMBER_OF_TRITS_IN_A_BYTE];
+                    }
+                }
+                final int value = tryteValue(pairTrits, 0) + tryteValue(pairTrits, NUMBER_OF_TRITS_IN_A_TRYTE) * 27;
+                TRYTE_PAIRS[(value - MIN_TRYTE_PAIR_VALUE) * 2] = TRYTE_ALPHABET.charAt(first);
+                TRYTE_PAIRS[(value - MIN_TRYTE_PAIR_VALUE) * 2 + 1] = TRYTE_ALPHABET.charAt(second);
+            }
+        }
+
+        for (int i = 0; i < 243; i++) {
+            for (int from = 0; from < NUMBER_OF_TRITS_IN_A_BYTE; from++) {
+                for (int k = from; k < NUMBER_OF_TRITS_IN_A_BYTE; k++) {
+                    BYTE_HIGH_VALUES[from][i] += BYTE_TO_TRITS_MAPPINGS[i][k] * TRIT_WEIGHTS[k - from];
+                }
+            }
+            for (int count = 1; count <= NUMBER_OF_TRITS_IN_A_BYTE; count++) {
+                BYTE_LOW_VALUES[count][i] = BYTE_LOW_VALUES[count - 1][i] + BYTE_TO_TRITS_MAPPINGS[i][count - 1] * TRIT_WEIGHTS[count - 1];
+            }
+        }
     }
 
     public static long longValue(final int[] trits, final int offset, final int size) {
@@ -76,16 +123,81 @@ public class AidosConverter {
         }
     }
 
+    /**
+     * Bytes pack 5 trits each, which is as compact as trits get while staying byte addressable. These read a range of
+     * trits straight from such bytes, starting at any trit, so nothing has to be unpacked as a whole.
+     */
+    public static void getTrits(final byte[] bytes, final int tritOffset, final int[] trits, final int offset, final int size) {
+
+        int byteIndex = tritOffset / NUMBER_OF_TRITS_IN_A_BYTE, tritIndex = tritOffset % NUMBER_OF_TRITS_IN_A_BYTE;
+        for (int i = 0; i < size; byteIndex++, tritIndex = 0) {
+
+            final int count = size - i < NUMBER_OF_TRITS_IN_A_BYTE - tritIndex ? size - i : NUMBER_OF_TRITS_IN_A_BYTE - tritIndex;
+            System.arraycopy(BYTE_TO_TRITS_MAPPINGS[bytes[byteIndex] < 0 ? (bytes[byteIndex] + BYTE_TO_TRITS_MAPPINGS.length) : bytes[byteIndex]], tritIndex, trits, offset + i, count);
+            i += count;
+        }
+    }
+
+    public static int[] trits(final byte[] bytes, final int tritOffset, final int size) {
+
+        final int[] trits = new int[size];
+        getTrits(bytes, tritOffset, trits, 0, size);
+        return trits;
+    }
+
+    public static byte[] bytes(final byte[] bytes, final int tritOffset, final int size) { // Repacks the range from its first trit
+        return bytes(trits(bytes, tritOffset, size), 0, size);
+    }
+
+    public static int trit(final byte[] bytes, final int tritOffset) {
+        final byte value = bytes[tritOffset / NUMBER_OF_TRITS_IN_A_BYTE];
+        return BYTE_TO_TRITS_MAPPINGS[value < 0 ? (value + BYTE_TO_TRITS_MAPPINGS.length) : value][tritOffset % NUMBER_OF_TRITS_IN_A_BYTE];
+    }
+
+    public static long longValue(final byte[] bytes, final int tritOffset, final int size) {
+
+        long value = 0;
+        for (int i = size; i-- > 0; ) {
+            value = value * RADIX + trit(bytes, tritOffset + i);
+        }
+        return value;
+    }
+
     public static int[] trits(final String trytes) {
 
         final int[] trits = new int[trytes.length() * NUMBER_OF_TRITS_IN_A_TRYTE];
         for (int i = 0; i < trytes.length(); i++) {
-            System.arraycopy(TRYTE_TO_TRITS_MAPPINGS[TRYTE_ALPHABET.indexOf(trytes.charAt(i))], 0, trits, i * NUMBER_OF_TRITS_IN_A_TRYTE, NUMBER_OF_TRITS_IN_A_TRYTE);
-      
+            System.arraycopy(TRYTE_TO_TRITS_MAPPINGS[tryteIndex(trytes.charAt(i))], 0, trits, i * NUMBER_OF_TRITS_IN_A_TRYTE, NUMBER_OF_TRITS_IN_A_TRYTE);
         }
         return trits;
     }
 
+    public static byte[] bytes(final String trytes) { // Packs the trytes without unpacking them to trits first
+
+        final int size = trytes.length() * NUMBER_OF_TRITS_IN_A_TRYTE;
+        final byte[] bytes = new byte[(size + NUMBER_OF_TRITS_IN_A_BYTE - 1) / NUMBER_OF_TRITS_IN_A_BYTE];
+        int i = 0, tritOffset = 0;
+        for (; i + 1 < trytes.length(); i += 2, tritOffset += NUMBER_OF_TRITS_IN_A_TRYTE * 2) {
+
+            final int first = tryteIndex(trytes.charAt(i)), second = tryteIndex(trytes.charAt(i + 1));
+            if (first < 0 || second < 0) {
+                throw new RuntimeException("Invalid trytes at " + i);
+            }
+            final byte[] pairBytes = TRYTE_PAIR_BYTES[tritOffset % NUMBER_OF_TRITS_IN_A_BYTE];
+            final int byteIndex = tritOffset / NUMBER_OF_TRITS_IN_A_BYTE, pair = (first * 27 + second) * 2;
+            bytes[byteIndex] += pairBytes[pair];
+            bytes[byteIndex + 1] += pairBytes[pair + 1];
+        }
+        for (; i < trytes.length(); i++) {
+
+            final int[] trits = TRYTE_TO_TRITS_MAPPINGS[tryteIndex(trytes.charAt(i))];
+            for (int j = 0; j < NUMBER_OF_TRITS_IN_A_TRYTE; j++, tritOffset++) {
+                bytes[tritOffset / NUMBER_OF_TRITS_IN_A_BYTE] += trits[j] * TRIT_WEIGHTS[tritOffset % NUMBER_OF_TRITS_IN_A_BYTE];
+            }
+        }
+        return bytes;
+    }
+
     public static void copyTrits(final long value, final int[] destination, final int offset, final int size) {
 
         long absoluteValue = value < 0 ? -value : value;
@@ -112,16 +224,58 @@ public class AidosConverter {
 
     public static String trytes(final int[] trits, final int offset, final int size) {
 
-        final StringBuilder trytes = new StringBuilder();
-        for (int i = 0; i < (size + NUMBER_OF_TRITS_IN_A_TRYTE - 1) / NUMBER_OF_TRITS_IN_A_TRYTE; i++) {
-            int j = trits[offset + i * 3] + trits[offset + i * 3 + 1] * 3 + trits[offset + i * 3 + 2] * 9;
-         
-            if (j < 0) {
-                j += TRYTE_ALPHABET.length();
+        final char[] trytes = new char[(size + NUMBER_OF_TRITS_IN_A_TRYTE - 1) / NUMBER_OF_TRITS_IN_A_TRYTE];
+        for (int i = 0; i < trytes.length; i++) {
+            trytes[i] = TRYTES[trits[offset + i * 3] + trits[offset + i * 3 + 1] * 3 + trits[offset + i * 3 + 2] * 9 - MIN_TRYTE_VALUE];
+        }
+        return new String(trytes);
+    }
+
+    public static String trytes(final byte[] bytes, final int tritOffset, final int size) {
+
+        final char[] trytes = new char[(size + NUMBER_OF_TRITS_IN_A_TRYTE - 1) / NUMBER_OF_TRITS_IN_A_TRYTE];
+        getTrytes(bytes, tritOffset, size, trytes, 0);
+        return new String(trytes);
+    }
+
+    /**
+     * Encodes trits packed in bytes straight to trytes, a last incomplete tryte is padded with 0 trits.
+     */
+    public static void getTrytes(final byte[] bytes, final int tritOffset, final int size, final char[] trytes, final int offset) {
+
+        int byteIndex = tritOffset / NUMBER_OF_TRITS_IN_A_BYTE, tritIndex = tritOffset % NUMBER_OF_TRITS_IN_A_BYTE;
+        int i = 0, remainingTrits = size;
+        for (; remainingTrits >= NUMBER_OF_TRITS_IN_A_TRYTE * 2; i += 2, remainingTrits -= NUMBER_OF_TRITS_IN_A_TRYTE * 2) {
+
+            // The trits left in this byte, then the first ones of the next byte complete the pair
+            final int value = BYTE_HIGH_VALUES[tritIndex][byteIndex(bytes[byteIndex])]
+                    + BYTE_LOW_VALUES[tritIndex + 1][byteIndex(bytes[byteIndex + 1])] * TRIT_WEIGHTS[NUMBER_OF_TRITS_IN_A_BYTE - 1 - tritIndex] * 3;
+            trytes[offset + i] = TRYTE_PAIRS[(value - MIN_TRYTE_PAIR_VALUE) * 2];
+            trytes[offset + i + 1] = TRYTE_PAIRS[(value - MIN_TRYTE_PAIR_VALUE) * 2 + 1];
+            if (++tritIndex == NUMBER_OF_TRITS_IN_A_BYTE) {
+                byteIndex += 2;
+                tritIndex = 0;
+            } else {
+                byteIndex++;
             }
-            trytes.append(TRYTE_ALPHABET.charAt(j));
         }
-        return trytes.toString();
+
+        int[] byteTrits = null;
+        for (; remainingTrits > 0; i++) {
+
+            int value = 0;
+            for (int j = 0; j < NUMBER_OF_TRITS_IN_A_TRYTE && remainingTrits > 0; j++, remainingTrits--) {
+                if (byteTrits == null || tritIndex == NUMBER_OF_TRITS_IN_A_BYTE) {
+                    if (byteTrits != null) {
+                        byteIndex++;
+                        tritIndex = 0;
+                    }
+                    byteTrits = BYTE_TO_TRITS_MAPPINGS[bytes[byteIndex] < 0 ? (bytes[byteIndex] + BYTE_TO_TRITS_MAPPINGS.length) : bytes[byteIndex]];
+                }
+                value += byteTrits[tritIndex++] * TRIT_WEIGHTS[j];
+            }
+            trytes[offset + i] = TRYTES[value - MIN_TRYTE_VALUE];
+        }
     }
 
     public static String trytes(final int[] trits) {
@@ -132,6 +286,14 @@ public class AidosConverter {
         return trits[offset] + trits[offset + 1] * 3 + trits[offset + 2] * 9;
     }
 
+    private static int byteIndex(final byte value) {
+        return value < 0 ? value + 243 : value;
+    }
+
+    private static int tryteIndex(final char tryte) {
+        return tryte < TRYTE_INDEXES.length ? TRYTE_INDEXES[tryte] : -1;
+    }
+
     private static void increment(final int[] trits, final int size) {
         for (int i = 0; i < size; i++) {
             if (++trits[i] > AidosConverter.MAX_TRIT_VALUE) {
@@ -0,0 +1,101 @@
+package com.aidos.iri.utils;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Remembers the hashes of recently received transactions by a 64-bit fingerprint of their raw bytes, so copies of
+ * the same transaction coming from other neighbors are recognized without being hashed again. The fingerprint isn't
+ * collision resistant, so it only finds the candidate entry and a copy is recognized by comparing the bytes the
+ * entry retains, a colliding transaction is hashed and stored as any unseen one. Each fingerprint has
+ * two candidate slots, a new one takes a free or matching slot or evicts the second one, so the filter never grows
+ * and forgets the oldest transactions first. Lookups and additions don't lock, a lost race only forgets an entry.
+ */
+public class AidosDuplicateFilter {
+
+    private static final long PRIME = 0x9E3779B97F4A7C15L;
+
+    private static class Entry {
+
+        final long fingerprint;
+        final byte[] bytes;
+        final byte[] hash;
+
+        Entry(final long fingerprint, final byte[] bytes, final byte[] hash) {
+            this.fingerprint = fingerprint;
+            this.bytes = bytes;
+            this.hash = hash;
+        }
+
+        boolean matches(final long fingerprint, final byte[] bytes, final int offset) {
+
+            if (this.fingerprint != fingerprint || offset + this.bytes.length > bytes.length) {
+                return false;
+            }
+            for (int i = this.bytes.length; i-- > 0; ) {
+                if (this.bytes[i] != bytes[offset + i]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    private final AtomicReferenceArray<Entry> entries;
+    private final int mask;
+
+    public AidosDuplicateFilter(final int capacity) {
+
+        if (capacity < 2 || Integer.bitCount(capacity) != 1) {
+            throw new RuntimeException("Invalid duplicate filter capacity: " + capacity);
+        }
+        entries = new AtomicReferenceArray<>(capacity);
+        mask = capacity - 1;
+    }
+
+    public static long fingerprint(final byte[] bytes, final int offset, final int length) {
+
+        long fingerprint = length;
+        int i = 0;
+        for (; i + Long.BYTES <= length; i += Long.BYTES) {
+            long value = 0;
+            for (int j = 0; j < Long.BYTES; j++) {
+                value = (value << 8) | (bytes[offset + i + j] & 0xFF);
+            }
+            fingerprint = Long.rotateLeft(fingerprint ^ (value * PRIME), 31) * PRIME;
+        }
+        for (; i < length; i++) {
+            fingerprint = Long.rotateLeft(fingerprint ^ ((bytes[offset + i] & 0xFF) * PRIME), 31) * PRIME;
+        }
+        return fingerprint ^ (fingerprint >>> 29);
+    }
+
+    // Returns null unless the bytes at the offset are those of a transaction added recently with this fingerprint
+    public byte[] hash(final long fingerprint, final byte[] bytes, final int offset) {
+
+        Entry entry = entries.get(firstSlot(fingerprint));
+        if (entry != null && entry.matches(fingerprint, bytes, offset)) {
+            return entry.hash;
+        }
+        entry = entries.get(secondSlot(fingerprint));
+        return entry != null && entry.matches(fingerprint, bytes, offset) ? entry.hash : null;
+    }
+
+    public void add(final long fingerprint, final byte[] bytes, final byte[] hash) { // Neither array may be modified afterwards
+
+        final int firstSlot = firstSlot(fingerprint);
+        final Entry entry = entries.get(firstSlot);
+        if (entry == null || entry.fingerprint == fingerprint) {
+            entries.set(firstSlot, new Entry(fingerprint, bytes, hash));
+        } else {
+            entries.set(secondSlot(fingerprint), new Entry(fingerprint, bytes, hash));
+        }
+    }
+
+    private int firstSlot(final long fingerprint) {
+        return (int) fingerprint & mask;
+    }
+
+    private int secondSlot(final long fingerprint) {
+        return (int) (fingerprint >>> 32) & mask;
+    }
+}
@@ -0,0 +1,67 @@
+package com.aidos.iri.utils;
+
+import java.util.Arrays;
+import java.util.function.LongConsumer;
+
+/**
+ * Growable list of primitive longs, used for transaction pointers so that they are neither boxed nor linked.
+ */
+public class AidosLongList {
+
+    private static final int DEFAULT_CAPACITY = 16;
+
+    private long[] elements;
+    private int size;
+
+    public AidosLongList() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public AidosLongList(final int capacity) {
+        elements = new long[Math.max(capacity, 1)];
+    }
+
+    public void add(final long element) {
+        if (size == elements.length) {
+            elements = Arrays.copyOf(elements, size << 1);
+        }
+        elements[size++] = element;
+    }
+
+    public void addAll(final AidosLongList list) {
+        if (size + list.size > elements.length) {
+            elements = Arrays.copyOf(elements, Math.max(size + list.size, size << 1));
+        }
+        System.arraycopy(list.elements, 0, elements, size, list.size);
+        size += list.size;
+    }
+
+    public long get(final int index) {
+        if (index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", size: " + size);
+        }
+        return elements[index];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public void clear() {
+        size = 0;
+    }
+
+    public void forEach(final LongConsumer action) {
+        for (int i = 0; i < size; i++) {
+            action.accept(elements[i]);
+        }
+    }
+
+    public long[] toArray() {
+        return Arrays.copyOf(elements, size);
+    }
+}
@@ -0,0 +1,67 @@
+package com.aidos.iri.utils;
+
+import java.util.NoSuchElementException;
+
+/**
+ * FIFO ring buffer of primitive longs for graph walks, the buffer doubles when full and is reused after {@link #clear()}.
+ */
+public class AidosLongQueue {
+
+    private static final int DEFAULT_CAPACITY = 64;
+
+    private long[] elements;
+    private int head, size;
+
+    public AidosLongQueue() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public AidosLongQueue(final int capacity) {
+        elements = new long[Integer.highestOneBit(Math.max(capacity, 2) - 1) << 1];
+    }
+
+    public void offer(final long element) {
+        if (size == elements.length) {
+            grow();
+        }
+        elements[(head + size++) & (elements.length - 1)] = element;
+    }
+
+    public long poll() {
+        if (size == 0) {
+            throw new NoSuchElementException();
+        }
+        final long element = elements[head];
+        head = (head + 1) & (elements.length - 1);
+        size--;
+        return element;
+    }
+
+    public long peek() {
+        if (size == 0) {
+            throw new NoSuchElementException();
+        }
+        return elements[head];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public void clear() {
+        head = size = 0;
+    }
+
+    private void grow() {
+        final long[] newElements = new long[elements.length << 1];
+        final int firstPart = elements.length - head;
+        System.arraycopy(elements, head, newElements, 0, firstPart);
+        System.arraycopy(elements, 0, newElements, firstPart, head);
+        elements = newElements;
+        head = 0;
+    }
+}
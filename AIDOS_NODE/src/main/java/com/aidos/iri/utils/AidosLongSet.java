@@ -0,0 +1,173 @@
+package com.aidos.iri.utils;
+
+import java.util.Arrays;
+import java.util.function.LongConsumer;
+
+/**
+ * Open addressing hash set of primitive longs with linear probing.
+ * Zero marks free slots in the table, so it is kept aside in a flag.
+ */
+public class AidosLongSet {
+
+    private static final int DEFAULT_CAPACITY = 16;
+
+    private long[] table;
+    private int size;
+    private boolean containsZero;
+
+    public AidosLongSet() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public AidosLongSet(final int expectedSize) {
+        table = new long[tableSize(expectedSize)];
+    }
+
+    public boolean add(final long element) { // Returns false if the element was already present
+
+        if (element == 0) {
+            if (containsZero) {
+                return false;
+            }
+            containsZero = true;
+            size++;
+            return true;
+        }
+
+        int slot = slot(element, table.length);
+        long current;
+        while ((current = table[slot]) != 0) {
+            if (current == element) {
+                return false;
+            }
+            slot = (slot + 1) & (table.length - 1);
+        }
+        table[slot] = element;
+        if (++size > table.length >> 1) {
+            rehash(table.length << 1);
+        }
+        return true;
+    }
+
+    public void addAll(final AidosLongList list) {
+        for (int i = 0; i < list.size(); i++) {
+            add(list.get(i));
+        }
+    }
+
+    public boolean contains(final long element) {
+
+        if (element == 0) {
+            return containsZero;
+        }
+        int slot = slot(element, table.length);
+        long current;
+        while ((current = table[slot]) != 0) {
+            if (current == element) {
+                return true;
+            }
+            slot = (slot + 1) & (table.length - 1);
+        }
+        return false;
+    }
+
+    public boolean remove(final long element) { // Returns false if the element was not present
+
+        if (element == 0) {
+            if (!containsZero) {
+                return false;
+            }
+            containsZero = false;
+            size--;
+            return true;
+        }
+
+        int slot = slot(element, table.length);
+        long current;
+        while ((current = table[slot]) != element) {
+            if (current == 0) {
+                return false;
+            }
+            slot = (slot + 1) & (table.length - 1);
+        }
+
+        // Following elements of the run are shifted back so lookups never stop at the freed slot
+        int freeSlot = slot;
+        while ((current = table[slot = (slot + 1) & (table.length - 1)]) != 0) {
+            final int homeSlot = slot(current, table.length);
+            if (((slot - homeSlot) & (table.length - 1)) >= ((slot - freeSlot) & (table.length - 1))) {
+                table[freeSlot] = current;
+                freeSlot = slot;
+            }
+        }
+        table[freeSlot] = 0;
+        size--;
+        return true;
+    }
+
+    public void retainAll(final AidosLongSet set) {
+
+        final long[] oldTable = table;
+        final boolean retainZero = containsZero && set.containsZero;
+        table = new long[oldTable.length];
+        size = 0;
+        containsZero = false;
+        if (retainZero) {
+            add(0);
+        }
+        for (final long element : oldTable) {
+            if (element != 0 && set.contains(element)) {
+                add(element);
+            }
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public void clear() {
+        Arrays.fill(table, 0);
+        size = 0;
+        containsZero = false;
+    }
+
+    public void forEach(final LongConsumer action) {
+        if (containsZero) {
+            action.accept(0);
+        }
+        for (final long element : table) {
+            if (element != 0) {
+                action.accept(element);
+            }
+        }
+    }
+
+    private void rehash(final int newLength) {
+
+        final long[] oldTable = table;
+        table = new long[newLength];
+        for (final long element : oldTable) {
+            if (element != 0) {
+                int slot = slot(element, newLength);
+                while (table[slot] != 0) {
+                    slot = (slot + 1) & (newLength - 1);
+                }
+                table[slot] = element;
+            }
+        }
+    }
+
+    private static int slot(final long element, final int length) {
+        final long hash = element * 0x9E3779B97F4A7C15L; // Pointers are cell aligned, their low bits carry no entropy
+        return (int) (hash ^ (hash >>> 32)) & (length - 1);
+    }
+
+    private static int tableSize(final int expectedSize) {
+        return Integer.highestOneBit(Math.max(expectedSize, DEFAULT_CAPACITY / 2) * 2 - 1) << 1;
+    }
+}
@@ -0,0 +1,36 @@
+package com.aidos.iri.utils;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Size bounded map which drops its least recently used entries, safe for concurrent use.
+ */
+public class AidosLruCache<K, V> {
+
+    private final Map<K, V> entries;
+
+    public AidosLruCache(final int capacity) {
+        entries = new LinkedHashMap<K, V>(capacity * 4 / 3 + 1, 0.75f, true) {
+
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(final Map.Entry<K, V> eldest) {
+                return size() > capacity;
+            }
+        };
+    }
+
+    public synchronized V get(final K key) { // Returns null if the key is not cached
+        return entries.get(key);
+    }
+
+    public synchronized void put(final K key, final V value) {
+        entries.put(key, value);
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+}
@@ -0,0 +1,41 @@
+package com.aidos.iri.utils;
+
+/**
+ * Token bucket allowing a number of events per second on average, in bursts of at most a second's worth.
+ */
+public class AidosRateLimiter {
+
+    private static final double NANOSECONDS_PER_SECOND = 1_000_000_000.0;
+
+    private final int eventsPerSecond;
+    private double tokens;
+    private long refillTime;
+
+    public AidosRateLimiter(final int eventsPerSecond) { // 0 for no limit
+
+        if (eventsPerSecond < 0) {
+            throw new RuntimeException("Invalid rate limit: " + eventsPerSecond);
+        }
+        this.eventsPerSecond = eventsPerSecond;
+        tokens = eventsPerSecond;
+        refillTime = System.nanoTime();
+    }
+
+    public boolean tryAcquire() {
+        return tryAcquire(System.nanoTime());
+    }
+
+    public synchronized boolean tryAcquire(final long now) { // Returns false if the event exceeds the rate
+
+        if (eventsPerSecond == 0) {
+            return true;
+        }
+        tokens = Math.min(eventsPerSecond, tokens + (now - refillTime) * eventsPerSecond / NANOSECONDS_PER_SECOND);
+        refillTime = now;
+        if (tokens < 1) {
+            return false;
+        }
+        tokens--;
+        return true;
+    }
+}
@@ -0,0 +1,63 @@
+package com.aidos.iri.utils;
+
+import java.util.Collection;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounded hand over between two pipeline stages. A producer finding the queue full waits for the consumer, each such
+ * wait is counted as a stall, and both sides stop waiting once the given flag is raised so the stages can shut down.
+ */
+public class AidosStageQueue<E> {
+
+    private static final long WAIT_TIMEOUT = 100; // Milliseconds between checks of the flag
+
+    private final BlockingQueue<E> queue;
+    private final AtomicBoolean stopped;
+    private final AtomicLong stalls = new AtomicLong();
+
+    public AidosStageQueue(final int capacity, final AtomicBoolean stopped) {
+        queue = new ArrayBlockingQueue<>(capacity);
+        this.stopped = stopped;
+    }
+
+    public boolean put(final E element) throws InterruptedException { // Returns false if stopped before there was room
+
+        if (queue.offer(element)) {
+            return true;
+        }
+        stalls.incrementAndGet();
+        while (!stopped.get()) {
+            if (queue.offer(element, WAIT_TIMEOUT, TimeUnit.MILLISECONDS)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public E take() throws InterruptedException { // Returns null if stopped while empty
+
+        E element;
+        while ((element = queue.poll(WAIT_TIMEOUT, TimeUnit.MILLISECONDS)) == null) {
+            if (stopped.get()) {
+                return null;
+            }
+        }
+        return element;
+    }
+
+    public int drainTo(final Collection<? super E> elements, final int maxElements) {
+        return queue.drainTo(elements, maxElements);
+    }
+
+    public int size() {
+        return queue.size();
+    }
+
+    public long stalls() {
+        return stalls.get();
+    }
+}
@@ -0,0 +1,51 @@
+package com.aidos.iri.utils;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+
+/**
+ * Reads the number of datagrams the kernel dropped because the receive buffers of the sockets bound to a port were
+ * full, from the last column of /proc/net/udp and /proc/net/udp6. Only Linux has these tables, elsewhere the number
+ * is unknown.
+ */
+public class AidosUdpStatistics {
+
+    private static final Path[] TABLES = { Paths.get("/proc/net/udp"), Paths.get("/proc/net/udp6") };
+
+    public static long droppedPackets(final int port) { // Returns -1 if unknown
+
+        long droppedPackets = -1;
+        for (final Path table : TABLES) {
+            if (Files.isReadable(table)) {
+                try {
+                    droppedPackets = Math.max(droppedPackets, 0) + droppedPackets(Files.readAllLines(table, StandardCharsets.US_ASCII), port);
+                } catch (final IOException e) {
+                    // ignore
+                }
+            }
+        }
+        return droppedPackets;
+    }
+
+    public static long droppedPackets(final List<String> table, final int port) {
+
+        long droppedPackets = 0;
+        for (int i = 1; i < table.size(); i++) { // The first line holds the column names
+            final String[] columns = table.get(i).trim().split("\\s+");
+            if (columns.length > 2) {
+                final String localAddress = columns[1];
+                final int portOffset = localAddress.lastIndexOf(':') + 1;
+                if (portOffset > 0 && Integer.parseInt(localAddress.substring(portOffset), 16) == port) {
+                    droppedPackets += Long.parseLong(columns[columns.length - 1]);
+                }
+            }
+        }
+        return droppedPackets;
+    }
+
+    private AidosUdpStatistics() {}
+}
@@ -0,0 +1,76 @@
+package com.iota.iri;
+
+import static org.junit.Assert.*;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.aidos.iri.AidosLedger;
+import com.aidos.iri.AidosMilestone;
+import com.aidos.iri.AidosSnapshot;
+import com.aidos.iri.model.AidosHash;
+import com.aidos.iri.model.AidosTransaction;
+import com.aidos.iri.service.storage.AidosStorageTransactions;
+import com.iota.iri.service.storage.StorageFixture;
+
+public class LedgerTest {
+
+	private final StorageFixture storage = new StorageFixture();
+
+	@Before
+	public void setUp() throws Exception {
+		storage.open();
+		AidosLedger.instance().init();
+	}
+
+	@After
+	public void tearDown() throws Exception {
+		AidosLedger.instance().shutdown();
+		storage.close();
+	}
+
+	@Test
+	public void testOnlyNewlyConfirmedTransactionsAreApplied() throws Exception {
+		final AidosHash first = storage.randomHash(), second = storage.randomHash();
+		final int index = AidosMilestone.MILESTONE_START_INDEX;
+
+		final AidosTransaction deposit = storage.transaction(AidosHash.NULL_HASH, AidosHash.NULL_HASH, first, 5);
+		final AidosTransaction spend = storage.transaction(storage.hash(deposit), AidosHash.NULL_HASH, second, -3);
+		storage.store(deposit);
+		final long spendPointer = storage.store(spend);
+
+		AidosLedger.instance().updateSolidMilestone(storage.hash(spend), index + 1);
+		assertEquals(5, AidosLedger.instance().state().balance(first));
+		assertEquals(-3, AidosLedger.instance().state().balance(second));
+		assertEquals(index + 1, AidosLedger.instance().state().milestoneIndex);
+
+		final AidosTransaction topUp = storage.transaction(storage.hash(spend), storage.hash(deposit), first, 2);
+		storage.store(topUp);
+		AidosLedger.instance().updateSolidMilestone(storage.hash(topUp), index + 2);
+		assertEquals(7, AidosLedger.instance().state().balance(first));
+		assertEquals(-3, AidosLedger.instance().state().balance(second));
+		assertEquals(index + 1, AidosStorageTransactions.instance().confirmingMilestoneIndex(spendPointer));
+
+		// Older milestones don't roll the state back
+		AidosLedger.instance().updateSolidMilestone(storage.hash(spend), index + 1);
+		assertEquals(index + 2, AidosLedger.instance().state().milestoneIndex);
+	}
+
+	@Test
+	public void testStateIsRestoredFromCheckpoint() throws Exception {
+		final AidosHash address = storage.randomHash();
+		final AidosTransaction deposit = storage.transaction(AidosHash.NULL_HASH, AidosHash.NULL_HASH, address, 11);
+		storage.store(deposit);
+		AidosLedger.instance().updateSolidMilestone(storage.hash(deposit), AidosMilestone.MILESTONE_START_INDEX + 1);
+
+		AidosLedger.instance().shutdown();
+		storage.reopen();
+		AidosLedger.instance().init();
+
+		assertEquals(11, AidosLedger.instance().state().balance(address));
+		assertEquals(storage.hash(deposit), AidosLedger.instance().state().milestone);
+		final AidosHash snapshotAddress = AidosSnapshot.initialState.keySet().iterator().next();
+		assertEquals((long) AidosSnapshot.initialState.get(snapshotAddress), AidosLedger.instance().state().balance(snapshotAddress));
+	}
+}
@@ -0,0 +1,33 @@
+package com.iota.iri;
+
+import static org.junit.Assert.*;
+
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+import com.aidos.iri.AidosNeighbor;
+
+public class NeighborTest {
+
+	@Test
+	public void testOutboundPacketsAreSentInOrderAndDroppedWhenTooMany() {
+		final AidosNeighbor neighbor = new AidosNeighbor(new InetSocketAddress("127.0.0.1", 14265));
+		final List<byte[]> packets = new ArrayList<>();
+		byte[] packet;
+		while (neighbor.queue(packet = new byte[1])) {
+			packets.add(packet);
+		}
+		assertEquals(1, neighbor.getNumberOfDroppedPackets());
+		assertFalse(packets.isEmpty());
+
+		for (final byte[] queuedPacket : packets) {
+			assertSame(queuedPacket, neighbor.nextPacket());
+		}
+		assertNull(neighbor.nextPacket());
+		assertTrue(neighbor.queue(packet));
+		assertSame(packet, neighbor.nextPacket());
+	}
+}
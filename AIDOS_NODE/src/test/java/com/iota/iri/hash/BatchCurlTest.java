@@ -0,0 +1,83 @@
+package com.iota.iri.hash;
+
+import static org.junit.Assert.*;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+import com.aidos.iri.hash.AidosBatchCurl;
+import com.aidos.iri.hash.AidosCurl;
+import com.aidos.iri.model.AidosTransaction;
+import com.aidos.iri.utils.AidosConverter;
+
+public class BatchCurlTest {
+
+	private final Random rand = new Random();
+
+	@Test
+	public void testBatchMatchesScalarCurl() {
+		final AidosBatchCurl batchCurl = new AidosBatchCurl();
+		for (final int numberOfMessages : new int[] {1, 3, 4, 63, 64, 65, 200}) {
+			final int[][] messages = randomMessages(numberOfMessages, AidosTransaction.TRINARY_SIZE);
+			final int[][] hashes = new int[numberOfMessages][AidosCurl.HASH_LENGTH];
+			batchCurl.hash(messages, numberOfMessages, 0, AidosTransaction.TRINARY_SIZE, hashes);
+			for (int i = 0; i < numberOfMessages; i++) {
+				assertArrayEquals(scalarHash(messages[i], 0, AidosTransaction.TRINARY_SIZE, AidosCurl.HASH_LENGTH), hashes[i]);
+			}
+		}
+	}
+
+	@Test
+	public void testPartialBlocksAndLongSqueeze() {
+		final AidosBatchCurl batchCurl = new AidosBatchCurl();
+		final int length = AidosCurl.HASH_LENGTH * 2 + 100, squeezeLength = AidosCurl.HASH_LENGTH * 3;
+		final int[][] messages = randomMessages(10, length + 7);
+		final int[][] outputs = new int[10][squeezeLength];
+		batchCurl.absorb(messages, 10, 7, length);
+		batchCurl.squeeze(outputs, 10, 0, squeezeLength);
+		for (int i = 0; i < 10; i++) {
+			assertArrayEquals(scalarHash(messages[i], 7, length, squeezeLength), outputs[i]);
+		}
+	}
+
+	@Test
+	public void testPackedMessagesMatchTrits() {
+		final AidosBatchCurl batchCurl = new AidosBatchCurl();
+		for (final int numberOfMessages : new int[] {1, 5, 64}) {
+			final int[][] messages = randomMessages(numberOfMessages, AidosTransaction.TRINARY_SIZE);
+			final byte[][] packedMessages = new byte[numberOfMessages][];
+			for (int i = 0; i < numberOfMessages; i++) {
+				packedMessages[i] = AidosConverter.bytes(messages[i]);
+			}
+			final int[][] hashes = new int[numberOfMessages][AidosCurl.HASH_LENGTH];
+			batchCurl.hash(packedMessages, numberOfMessages, 0, AidosTransaction.TRINARY_SIZE, hashes);
+			for (int i = 0; i < numberOfMessages; i++) {
+				assertArrayEquals(scalarHash(messages[i], 0, AidosTransaction.TRINARY_SIZE, AidosCurl.HASH_LENGTH), hashes[i]);
+			}
+		}
+	}
+
+	@Test(expected = RuntimeException.class)
+	public void testTooManyMessages() {
+		new AidosBatchCurl().absorb(randomMessages(65, AidosCurl.HASH_LENGTH), 65, 0, AidosCurl.HASH_LENGTH);
+	}
+
+	private static int[] scalarHash(final int[] message, final int offset, final int length, final int squeezeLength) {
+		final AidosCurl curl = new AidosCurl();
+		final int[] hash = new int[squeezeLength];
+		curl.absorb(message, offset, length);
+		curl.squeeze(hash, 0, squeezeLength);
+		return hash;
+	}
+
+	private int[][] randomMessages(final int numberOfMessages, final int length) {
+		final int[][] messages = new int[numberOfMessages][length];
+		for (final int[] message : messages) {
+			for (int i = 0; i < length; i++) {
+				message[i] = rand.nextInt(3) - 1;
+			}
+		}
+		return messages;
+	}
+}
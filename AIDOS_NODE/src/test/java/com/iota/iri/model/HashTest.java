@@ -0,0 +1,55 @@
+package com.iota.iri.model;
+
+import static org.junit.Assert.*;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+import com.aidos.iri.AidosSnapshot;
+import com.aidos.iri.hash.AidosCurl;
+import com.aidos.iri.model.AidosHash;
+import com.aidos.iri.utils.AidosConverter;
+
+public class HashTest {
+
+	private final Random rand = new Random();
+
+	@Test
+	public void testEncodingsAreCachedAndMatchTheConverter() {
+		final int[] trits = randomTrits();
+		final AidosHash hash = new AidosHash(trits);
+		final String trytes = hash.toString();
+		assertEquals(AidosConverter.trytes(trits), trytes);
+		assertSame(trytes, hash.toString());
+		assertArrayEquals(trits, hash.trits());
+		assertArrayEquals(trits, hash.trits()); // Served from the cache the second time
+		assertArrayEquals(trits, new AidosHash(trytes).trits());
+		assertEquals(hash, new AidosHash(trytes));
+	}
+
+	@Test
+	public void testInternReturnsOneInstancePerValue() {
+		final int[] trits = randomTrits();
+		final AidosHash first = new AidosHash(trits), second = new AidosHash(trits);
+		assertNotSame(first, second);
+		assertSame(first.intern(), second.intern());
+		assertSame(first.intern(), new AidosHash(first.toString()).intern());
+		assertNotSame(first.intern(), new AidosHash(randomTrits()).intern());
+	}
+
+	@Test
+	public void testSnapshotKeysAreInterned() {
+		for (final AidosHash address : AidosSnapshot.initialState.keySet()) {
+			assertSame(address, new AidosHash(address.toString()).intern());
+		}
+	}
+
+	private int[] randomTrits() {
+		final int[] trits = new int[AidosCurl.HASH_LENGTH];
+		for (int i = 0; i < trits.length; i++) {
+			trits[i] = rand.nextInt(3) - 1;
+		}
+		return trits;
+	}
+}
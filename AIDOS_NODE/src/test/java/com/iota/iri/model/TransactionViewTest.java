@@ -0,0 +1,57 @@
+package com.iota.iri.model;
+
+import static org.junit.Assert.*;
+
+import java.util.Arrays;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.aidos.iri.model.AidosTransaction;
+import com.aidos.iri.model.AidosTransactionView;
+import com.aidos.iri.service.storage.AidosStorage;
+import com.aidos.iri.service.storage.AidosStorageTransactions;
+import com.iota.iri.service.storage.StorageFixture;
+
+public class TransactionViewTest {
+
+	private final StorageFixture storage = new StorageFixture();
+
+	@Before
+	public void setUp() throws Exception {
+		storage.open();
+	}
+
+	@After
+	public void tearDown() throws Exception {
+		storage.close();
+	}
+
+	@Test
+	public void testViewMatchesLoadedTransaction() {
+		final AidosTransaction trunk = storage.randomTransaction();
+		final AidosTransaction transaction = storage.transaction(storage.hash(trunk), storage.randomHash());
+		final long pointer = storage.store(transaction);
+
+		final long trunkPointer = AidosStorageTransactions.instance().transactionPointer(trunk.hash);
+		assertTrue("Unknown trunk should be stored as referenced only", trunkPointer < 0);
+
+		final AidosTransaction loaded = AidosStorageTransactions.instance().loadTransaction(pointer);
+		final AidosTransactionView view = AidosStorageTransactions.instance().loadTransaction(pointer, new AidosTransactionView());
+		assertEquals(loaded.type, view.type());
+		assertEquals(loaded.value, view.value());
+		assertEquals(loaded.currentIndex, view.currentIndex());
+		assertEquals(loaded.lastIndex, view.lastIndex());
+		assertEquals(loaded.validity(), view.validity());
+		assertTrue(Arrays.equals(loaded.hash, view.hash(new byte[AidosTransaction.HASH_SIZE])));
+		assertTrue(Arrays.equals(loaded.address, view.address(new byte[AidosTransaction.ADDRESS_SIZE])));
+		assertTrue(Arrays.equals(loaded.bundle, view.bundle(new byte[AidosTransaction.BUNDLE_SIZE])));
+		assertEquals(-trunkPointer, view.trunkTransactionPointer());
+		assertEquals(loaded.trunkTransactionPointer, view.trunkTransactionPointer());
+		assertEquals(loaded.branchTransactionPointer, view.branchTransactionPointer());
+
+		assertEquals(-trunkPointer, AidosStorageTransactions.instance().storeTransaction(trunk.hash, trunk, false));
+		assertEquals(AidosStorage.FILLED_SLOT, view.wrap(-trunkPointer).type());
+	}
+}
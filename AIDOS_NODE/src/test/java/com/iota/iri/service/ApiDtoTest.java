@@ -0,0 +1,58 @@
+package com.iota.iri.service;
+
+import static org.junit.Assert.*;
+
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.AbstractList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+import com.aidos.iri.service.dto.AidosFindTransactionsResponse;
+import com.aidos.iri.service.dto.AidosRequest;
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+
+public class ApiDtoTest {
+
+	private final Gson gson = new GsonBuilder().create();
+
+	@Test
+	public void testRequestIsParsedIntoTypedParameters() {
+		final AidosRequest request = gson.fromJson(new StringReader(
+				"{\"command\": \"getBalances\", \"addresses\": [\"A\", \"B\"], \"threshold\": 100, \"depth\": 3.0}"), AidosRequest.class);
+		assertEquals("getBalances", request.getCommand());
+		assertEquals(2, request.getAddresses().size());
+		assertEquals(100, (int) request.getThreshold());
+		assertEquals(3, (int) request.getDepth());
+		assertNull(request.getTrytes());
+		assertNull(gson.fromJson(new StringReader(""), AidosRequest.class));
+	}
+
+	@Test
+	public void testResponseElementsAreEncodedWhileWritten() {
+		final AtomicInteger encoded = new AtomicInteger();
+		final AbstractList<String> hashes = new AbstractList<String>() {
+
+			@Override
+			public String get(final int index) {
+				encoded.incrementAndGet();
+				return "HASH" + index;
+			}
+
+			@Override
+			public int size() {
+				return 3;
+			}
+		};
+		final AidosFindTransactionsResponse response = (AidosFindTransactionsResponse) AidosFindTransactionsResponse.create(hashes);
+		response.setDuration(5);
+		assertEquals(0, encoded.get());
+
+		final StringWriter writer = new StringWriter();
+		gson.toJson(response, writer);
+		assertEquals("{\"hashes\":[\"HASH0\",\"HASH1\",\"HASH2\"],\"duration\":5}", writer.toString());
+		assertEquals(3, encoded.get());
+	}
+}
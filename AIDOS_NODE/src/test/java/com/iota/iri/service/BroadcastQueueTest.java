@@ -0,0 +1,68 @@
+package com.iota.iri.service;
+
+import static org.junit.Assert.*;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+import com.aidos.iri.model.AidosTransaction;
+import com.aidos.iri.service.AidosBroadcastQueue;
+import com.iota.iri.service.storage.StorageFixture;
+
+public class BroadcastQueueTest {
+
+	private final StorageFixture storage = new StorageFixture(); // Only for its random transactions, never opened
+
+	@Test
+	public void testHeaviestAndNewestAreTakenFirst() throws Exception {
+		final AidosBroadcastQueue queue = new AidosBroadcastQueue(10);
+		final AidosTransaction light = transaction(15), heavy = transaction(20), newerLight = transaction(15);
+		queue.offer(light);
+		queue.offer(heavy);
+		queue.offer(newerLight);
+		assertEquals(3, queue.size());
+		assertSame(heavy, queue.poll(0, TimeUnit.MILLISECONDS));
+		assertSame(newerLight, queue.poll(0, TimeUnit.MILLISECONDS));
+		assertSame(light, queue.poll(0, TimeUnit.MILLISECONDS));
+		assertNull(queue.poll(10, TimeUnit.MILLISECONDS));
+		assertEquals(3, queue.queued());
+		assertEquals(3, queue.taken());
+		assertEquals(0, queue.dropped());
+	}
+
+	@Test
+	public void testLightestAndOldestAreDroppedWhenFull() throws Exception {
+		final AidosBroadcastQueue queue = new AidosBroadcastQueue(2);
+		final AidosTransaction oldLight = transaction(15), heavy = transaction(20), newLight = transaction(15);
+		queue.offer(oldLight);
+		queue.offer(heavy);
+		queue.offer(newLight);
+		assertEquals(2, queue.size());
+		assertEquals(1, queue.dropped());
+		assertSame(heavy, queue.poll(0, TimeUnit.MILLISECONDS));
+		assertSame(newLight, queue.poll(0, TimeUnit.MILLISECONDS));
+	}
+
+	@Test
+	public void testWaitingBroadcasterIsWokenUp() throws Exception {
+		final AidosBroadcastQueue queue = new AidosBroadcastQueue(2);
+		final AidosTransaction transaction = transaction(15);
+		new Thread(() -> {
+			try {
+				Thread.sleep(50);
+			} catch (final InterruptedException e) {
+				// ignore
+			}
+			queue.offer(transaction);
+		}).start();
+		assertSame(transaction, queue.poll(10, TimeUnit.SECONDS));
+		assertTrue(queue.waitingTime() >= 0);
+	}
+
+	private AidosTransaction transaction(final int weightMagnitude) {
+		final AidosTransaction transaction = storage.randomTransaction();
+		transaction.weightMagnitude = weightMagnitude;
+		return transaction;
+	}
+}
@@ -0,0 +1,45 @@
+package com.iota.iri.service;
+
+import static org.junit.Assert.*;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+import com.aidos.iri.service.AidosCommandExecutor;
+
+public class CommandExecutorTest {
+
+	@Test
+	public void testSaturatedExecutorRefusesAtOnce() throws Exception {
+		final AidosCommandExecutor executor = new AidosCommandExecutor("Test", 2, 3);
+		final CountDownLatch release = new CountDownLatch(1), done = new CountDownLatch(5);
+		final Runnable command = () -> {
+			try {
+				release.await();
+			} catch (final InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			done.countDown();
+		};
+		try {
+			for (int i = 0; i < 5; i++) {
+				assertTrue(executor.execute(command));
+			}
+			assertFalse(executor.execute(command));
+			assertEquals(1, executor.rejections());
+
+			release.countDown();
+			assertTrue(done.await(10, TimeUnit.SECONDS));
+			assertTrue(executor.execute(() -> {}));
+		} finally {
+			executor.shutdown();
+		}
+	}
+
+	@Test(expected = RuntimeException.class)
+	public void testInvalidSize() {
+		new AidosCommandExecutor("Test", 0, 1);
+	}
+}
@@ -0,0 +1,92 @@
+package com.iota.iri.service;
+
+import static org.junit.Assert.*;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+import com.aidos.iri.model.AidosHash;
+import com.aidos.iri.service.AidosNodeStatus;
+import com.aidos.iri.service.dto.AidosGetNodeInfoResponse;
+
+public class NodeStatusTest {
+
+	@Test
+	public void testPublishedStatusIsNeverModified() {
+		final AidosNodeStatus before = AidosNodeStatus.current();
+		final long storedTransactions = before.storedTransactions();
+		AidosNodeStatus.updateStorage(storedTransactions + 1, 7);
+		assertEquals(storedTransactions, before.storedTransactions());
+		assertEquals(storedTransactions + 1, AidosNodeStatus.current().storedTransactions());
+		assertEquals(7, AidosNodeStatus.current().tips());
+	}
+
+	@Test
+	public void testComponentsUpdateTheirOwnParts() throws Exception {
+		final AidosHash milestone = new AidosHash("KPWCHICGJZXKE9GSUDXZYUAPLHAKAHYHDXNPHENTERYMMBQOPSQIDENXKLKCEYCPVTZQLEEJVYJZV9BWU");
+		final CountDownLatch done = new CountDownLatch(3);
+		new Thread(() -> {
+			for (int i = 1; i <= 10000; i++) {
+				AidosNodeStatus.updateMilestones(milestone, 20000 + i, milestone, 10000 + i);
+			}
+			done.countDown();
+		}).start();
+		new Thread(() -> {
+			for (int i = 1; i <= 10000; i++) {
+				AidosNodeStatus.updateStorage(i, i / 2);
+			}
+			done.countDown();
+		}).start();
+		final AtomicInteger requestsInProgress = new AtomicInteger();
+		new Thread(() -> {
+			for (int i = 1; i <= 10000; i++) {
+				requestsInProgress.incrementAndGet();
+				AidosNodeStatus.updateRequests(requestsInProgress);
+			}
+			done.countDown();
+		}).start();
+		done.await();
+
+		final AidosNodeStatus status = AidosNodeStatus.current();
+		assertEquals(milestone, status.latestMilestone());
+		assertEquals(30000, status.latestMilestoneIndex());
+		assertEquals(20000, status.latestSolidSubtangleMilestoneIndex());
+		assertEquals(10000, status.storedTransactions());
+		assertEquals(5000, status.tips());
+		assertEquals(10000, status.requestsInProgress());
+	}
+
+	@Test
+	public void testRequestsInProgressEndAtZero() throws Exception {
+		final AtomicInteger requestsInProgress = new AtomicInteger();
+		final CountDownLatch done = new CountDownLatch(4);
+		for (int t = 0; t < 4; t++) {
+			new Thread(() -> {
+				for (int i = 0; i < 10000; i++) {
+					requestsInProgress.incrementAndGet();
+					AidosNodeStatus.updateRequests(requestsInProgress);
+					requestsInProgress.decrementAndGet();
+					AidosNodeStatus.updateRequests(requestsInProgress);
+				}
+				done.countDown();
+			}).start();
+		}
+		done.await();
+		assertEquals(0, AidosNodeStatus.current().requestsInProgress());
+	}
+
+	@Test
+	public void testExecutorsAreReportedByNodeInfo() {
+		AidosNodeStatus.updateExecutors(1, 2, 3, 4, 5, 6);
+		final AidosGetNodeInfoResponse res = (AidosGetNodeInfoResponse) AidosGetNodeInfoResponse.create("Test", "0", 1, "1.8",
+				AidosNodeStatus.current(), 0);
+		assertEquals(1, res.getPowQueueSize());
+		assertEquals(2, res.getPowRejections());
+		assertEquals(3, res.getTipsQueueSize());
+		assertEquals(4, res.getTipsRejections());
+		assertEquals(5, res.getQueryQueueSize());
+		assertEquals(6, res.getQueryRejections());
+	}
+}
@@ -0,0 +1,68 @@
+package com.iota.iri.service.storage;
+
+import static org.junit.Assert.*;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.aidos.iri.model.AidosTransaction;
+import com.aidos.iri.service.storage.AidosMissingTransactions;
+import com.aidos.iri.service.storage.AidosStorageScratchpad;
+import com.aidos.iri.service.storage.AidosStorageTransactions;
+
+public class MissingTransactionsTest {
+
+	private final StorageFixture storage = new StorageFixture();
+
+	@Before
+	public void setUp() throws Exception {
+		storage.open();
+	}
+
+	@After
+	public void tearDown() throws Exception {
+		storage.close();
+	}
+
+	@Test
+	public void testNewTransactionsGoFirstAndOthersAreRetriedLater() {
+		final AidosMissingTransactions missingTransactions = new AidosMissingTransactions(100);
+		missingTransactions.add(1);
+		missingTransactions.add(2);
+		missingTransactions.add(3);
+		missingTransactions.add(1);
+		assertEquals(3, missingTransactions.size());
+
+		assertEquals(1, missingTransactions.next(0));
+		missingTransactions.remove(2);
+		assertEquals(3, missingTransactions.next(10));
+		assertEquals(0, missingTransactions.next(50));
+		assertEquals(1, missingTransactions.next(100));
+		assertEquals(0, missingTransactions.next(105));
+		assertEquals(3, missingTransactions.next(110));
+		assertEquals(2, missingTransactions.size());
+	}
+
+	@Test
+	public void testReferencedTransactionsAreRequestedUntilStored() throws Exception {
+		final AidosTransaction transaction = storage.randomTransaction();
+		storage.store(transaction);
+		assertEquals(2, AidosStorageScratchpad.instance().getNumberOfTransactionsToRequest());
+
+		final byte[] packet = new byte[AidosTransaction.SIZE + AidosTransaction.HASH_SIZE];
+		AidosStorageScratchpad.instance().transactionToRequest(packet, AidosTransaction.SIZE);
+		final byte[] requested = new byte[AidosTransaction.HASH_SIZE];
+		System.arraycopy(packet, AidosTransaction.SIZE, requested, 0, AidosTransaction.HASH_SIZE);
+		assertTrue(AidosStorageTransactions.instance().transactionPointer(requested) < 0);
+
+		storage.reopen(); // The list is rebuilt when the storage is opened
+		assertEquals(2, AidosStorageScratchpad.instance().getNumberOfTransactionsToRequest());
+
+		// Each parent stored in place of the referenced ones brings two new referenced transactions
+		AidosStorageTransactions.instance().storeTransaction(transaction.trunkTransaction, storage.randomTransaction(), false);
+		assertEquals(3, AidosStorageScratchpad.instance().getNumberOfTransactionsToRequest());
+		AidosStorageTransactions.instance().storeTransaction(transaction.branchTransaction, storage.randomTransaction(), false);
+		assertEquals(4, AidosStorageScratchpad.instance().getNumberOfTransactionsToRequest());
+	}
+}
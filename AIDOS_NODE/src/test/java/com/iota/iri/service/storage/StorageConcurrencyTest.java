@@ -0,0 +1,114 @@
+package com.iota.iri.service.storage;
+
+import static org.junit.Assert.*;
+
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.aidos.iri.model.AidosTransaction;
+import com.aidos.iri.service.storage.AidosStorage;
+import com.aidos.iri.service.storage.AidosStorageTransactions;
+
+public class StorageConcurrencyTest {
+
+	final static int NUMBER_OF_HASHES = 20000;
+	final static int NUMBER_OF_READERS = 4;
+
+	private final StorageFixture storage = new StorageFixture();
+
+	@Before
+	public void setUp() throws Exception {
+		storage.open();
+	}
+
+	@After
+	public void tearDown() throws Exception {
+		storage.close();
+	}
+
+	@Test
+	public void testLookupsWhileStoring() throws Exception {
+		final byte[][] hashes = new byte[NUMBER_OF_HASHES][];
+		final AidosTransaction[] transactions = new AidosTransaction[NUMBER_OF_HASHES]; // null for the prefilled ones
+		final AtomicInteger stored = new AtomicInteger();
+		final AtomicReference<Throwable> failure = new AtomicReference<>();
+		final CountDownLatch firstStored = new CountDownLatch(1);
+		final CountDownLatch done = new CountDownLatch(NUMBER_OF_READERS + 1);
+
+		final Thread writer = new Thread(() -> {
+			try {
+				for (int i = 0; i < NUMBER_OF_HASHES; i++) {
+					if (i % 100 == 0) {
+						final AidosTransaction transaction = storage.randomTransaction();
+						storage.store(transaction);
+						transactions[i] = transaction;
+						hashes[i] = transaction.hash;
+					} else {
+						final byte[] hash = storage.randomHashBytes();
+						AidosStorageTransactions.instance().storeTransaction(hash, null, false);
+						hashes[i] = hash;
+					}
+					stored.set(i + 1);
+					firstStored.countDown();
+				}
+			} catch (final Throwable e) {
+				failure.compareAndSet(null, e);
+			} finally {
+				firstStored.countDown();
+				done.countDown();
+			}
+		});
+
+		for (int r = 0; r < NUMBER_OF_READERS; r++) {
+			new Thread(() -> {
+				final Random rand = new Random();
+				try {
+					firstStored.await();
+					while (stored.get() < NUMBER_OF_HASHES && failure.get() == null) {
+						final int i = rand.nextInt(stored.get());
+						check(hashes[i], transactions[i]);
+					}
+				} catch (final Throwable e) {
+					failure.compareAndSet(null, e);
+				} finally {
+					done.countDown();
+				}
+			}).start();
+		}
+		writer.start();
+		done.await();
+
+		if (failure.get() != null) {
+			throw new AssertionError("Lookups should always see fully stored transactions", failure.get());
+		}
+		for (int i = 0; i < NUMBER_OF_HASHES; i++) {
+			check(hashes[i], transactions[i]);
+		}
+	}
+
+	private static void check(final byte[] hash, final AidosTransaction expected) {
+		final long pointer = AidosStorageTransactions.instance().transactionPointer(hash);
+		if (expected == null) {
+			assertTrue(pointer < 0);
+		} else {
+			assertTrue(pointer > 0);
+		}
+		final AidosTransaction loaded = AidosStorageTransactions.instance().loadTransaction(Math.abs(pointer));
+		assertArrayEquals(hash, loaded.hash);
+		if (expected == null) {
+			assertEquals(AidosStorage.PREFILLED_SLOT, loaded.type);
+		} else {
+			assertEquals(AidosStorage.FILLED_SLOT, loaded.type);
+			assertArrayEquals(expected.bytes, loaded.bytes);
+			assertEquals(expected.value, loaded.value);
+			assertEquals(expected.trunkTransactionPointer, loaded.trunkTransactionPointer);
+			assertEquals(expected.branchTransactionPointer, loaded.branchTransactionPointer);
+		}
+	}
+}
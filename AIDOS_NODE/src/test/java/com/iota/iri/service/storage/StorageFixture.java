@@ -0,0 +1,101 @@
+package com.iota.iri.service.storage;
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.Random;
+
+import org.apache.commons.io.FileUtils;
+
+import com.aidos.iri.conf.AidosConfiguration;
+import com.aidos.iri.conf.AidosConfiguration.DefaultConfSettings;
+import com.aidos.iri.model.AidosHash;
+import com.aidos.iri.model.AidosTransaction;
+import com.aidos.iri.service.storage.AidosStorage;
+import com.aidos.iri.service.storage.AidosStorageTransactions;
+import com.aidos.iri.utils.AidosConverter;
+
+/**
+ * Storage in a temporary directory for the tests, opened before and closed after each of them, and random
+ * transactions to fill it with.
+ */
+public class StorageFixture {
+
+	public final static int TRYTE_LENGTH = 2673;
+
+	private final Random rand = new Random();
+	private File dbPath;
+
+	public void open() throws Exception {
+		dbPath = Files.createTempDirectory("aidos-storage").toFile();
+		AidosConfiguration.put(DefaultConfSettings.DB_PATH, dbPath.getAbsolutePath());
+		AidosStorage.instance().init();
+	}
+
+	public void reopen() throws Exception {
+		AidosStorage.instance().shutdown();
+		AidosStorage.instance().init();
+	}
+
+	public void close() {
+		AidosStorage.instance().shutdown();
+		FileUtils.deleteQuietly(dbPath);
+	}
+
+	public File dbPath() {
+		return dbPath;
+	}
+
+	public long store(final AidosTransaction transaction) {
+		final long pointer = AidosStorageTransactions.instance().storeTransaction(transaction.hash, transaction, false);
+		assertTrue(pointer > 0);
+		return pointer;
+	}
+
+	public AidosHash hash(final AidosTransaction transaction) {
+		return new AidosHash(transaction.hash, 0, AidosTransaction.HASH_SIZE);
+	}
+
+	public AidosTransaction randomTransaction() {
+		return new AidosTransaction(AidosConverter.trits(randomTrytes(TRYTE_LENGTH)));
+	}
+
+	public AidosTransaction transaction(final AidosHash trunk, final AidosHash branch) {
+		return new AidosTransaction(trits(trunk, branch));
+	}
+
+	public AidosTransaction transaction(final AidosHash trunk, final AidosHash branch, final AidosHash address, final long value) {
+		final int[] trits = trits(trunk, branch);
+		System.arraycopy(address.trits(), 0, trits, AidosTransaction.ADDRESS_TRINARY_OFFSET, AidosTransaction.ADDRESS_TRINARY_SIZE);
+		AidosConverter.copyTrits(value, trits, AidosTransaction.VALUE_TRINARY_OFFSET, AidosTransaction.VALUE_TRINARY_SIZE);
+		return new AidosTransaction(trits);
+	}
+
+	public AidosHash randomHash() {
+		return new AidosHash(AidosConverter.trits(randomTrytes(81)));
+	}
+
+	public byte[] randomHashBytes() {
+		final byte[] hash = new byte[AidosTransaction.HASH_SIZE];
+		for (int i = 0; i < hash.length; i++) {
+			hash[i] = (byte) (rand.nextInt(243) - 121);
+		}
+		return hash;
+	}
+
+	public String randomTrytes(final int length) {
+		final StringBuilder trytes = new StringBuilder();
+		for (int i = 0; i < length; i++) {
+			trytes.append(AidosConverter.TRYTE_ALPHABET.charAt(rand.nextInt(27)));
+		}
+		return trytes.toString();
+	}
+
+	private int[] trits(final AidosHash trunk, final AidosHash branch) {
+		final int[] trits = AidosConverter.trits(randomTrytes(TRYTE_LENGTH));
+		System.arraycopy(trunk.trits(), 0, trits, AidosTransaction.TRUNK_TRANSACTION_TRINARY_OFFSET, AidosTransaction.TRUNK_TRANSACTION_TRINARY_SIZE);
+		System.arraycopy(branch.trits(), 0, trits, AidosTransaction.BRANCH_TRANSACTION_TRINARY_OFFSET, AidosTransaction.BRANCH_TRANSACTION_TRINARY_SIZE);
+		return trits;
+	}
+}
@@ -0,0 +1,66 @@
+package com.iota.iri.service.storage;
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.aidos.iri.model.AidosTransaction;
+import com.aidos.iri.model.AidosTransactionView;
+import com.aidos.iri.service.storage.AidosAbstractStorage;
+import com.aidos.iri.service.storage.AidosStorage;
+import com.aidos.iri.service.storage.AidosStorageTransactions;
+
+public class StorageFormatUpgradeTest {
+
+	final static long GENESIS_POINTER = AidosAbstractStorage.CELLS_OFFSET - AidosAbstractStorage.SUPER_GROUPS_OFFSET;
+
+	private final StorageFixture storage = new StorageFixture();
+
+	@Before
+	public void setUp() throws Exception {
+		storage.open();
+	}
+
+	@After
+	public void tearDown() throws Exception {
+		storage.close();
+	}
+
+	@Test
+	public void testParentPointersAreRestoredForLegacyCells() throws Exception {
+		final AidosTransaction transaction = storage.randomTransaction();
+		final long pointer = AidosStorageTransactions.instance().storeTransaction(transaction.hash, transaction, false);
+		final long trunkPointer = -AidosStorageTransactions.instance().transactionPointer(transaction.trunkTransaction);
+		final long branchPointer = -AidosStorageTransactions.instance().transactionPointer(transaction.branchTransaction);
+		assertTrue(pointer > 0 && trunkPointer > 0 && branchPointer > 0);
+		AidosStorage.instance().shutdown();
+
+		// Wipe what older versions didn't store: the format version and the resolved parent pointers
+		try (final FileChannel channel = FileChannel.open(new File(storage.dbPath(), "transactions.iri").toPath(), StandardOpenOption.WRITE)) {
+			wipeLong(channel, GENESIS_POINTER, AidosTransaction.BRANCH_TRANSACTION_POINTER_OFFSET + Long.BYTES);
+			for (final long cellPointer : new long[] {pointer, trunkPointer}) {
+				wipeLong(channel, cellPointer, AidosTransaction.TRUNK_TRANSACTION_POINTER_OFFSET);
+				wipeLong(channel, cellPointer, AidosTransaction.BRANCH_TRANSACTION_POINTER_OFFSET);
+			}
+		}
+
+		AidosStorage.instance().init();
+		final AidosTransactionView view = new AidosTransactionView();
+		assertEquals(trunkPointer, view.wrap(pointer).trunkTransactionPointer());
+		assertEquals(branchPointer, view.wrap(pointer).branchTransactionPointer());
+		assertEquals(GENESIS_POINTER, view.wrap(trunkPointer).trunkTransactionPointer());
+		assertEquals(GENESIS_POINTER, view.wrap(trunkPointer).branchTransactionPointer());
+		assertEquals(trunkPointer, AidosStorageTransactions.instance().loadTransaction(pointer).trunkTransactionPointer);
+	}
+
+	private void wipeLong(final FileChannel channel, final long pointer, final int offset) throws Exception {
+		channel.write(ByteBuffer.allocate(Long.BYTES), AidosAbstractStorage.SUPER_GROUPS_OFFSET + pointer + offset);
+	}
+}
@@ -0,0 +1,60 @@
+package com.iota.iri.service.storage;
+
+import static org.junit.Assert.*;
+
+import java.util.Random;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.aidos.iri.model.AidosTransaction;
+import com.aidos.iri.service.storage.AidosStorageTransactions;
+
+public class StorageLookupTest {
+
+	private final StorageFixture storage = new StorageFixture();
+	private final Random rand = new Random();
+
+	@Before
+	public void setUp() throws Exception {
+		storage.open();
+	}
+
+	@After
+	public void tearDown() throws Exception {
+		storage.close();
+	}
+
+	@Test
+	public void testBatchedLookupsMatchSingleLookups() {
+		final byte[][] hashes = new byte[1000][];
+		for (int i = 0; i < hashes.length; i++) {
+			switch (i % 4) {
+			case 0: { // Stored, its random parents are stored as referenced only
+				final AidosTransaction transaction = storage.randomTransaction();
+				storage.store(transaction);
+				hashes[i] = transaction.hash;
+			} break;
+			case 1:
+				hashes[i] = new AidosTransaction(AidosStorageTransactions.instance().loadTransaction(hashes[i - 1]).trits()).trunkTransaction;
+				break;
+			case 2: // Unknown but sharing the first bytes with a stored one
+				hashes[i] = hashes[i - 2].clone();
+				hashes[i][AidosTransaction.HASH_SIZE - 1]++;
+				break;
+			default:
+				hashes[i] = hashes[rand.nextInt(i)]; // Duplicate
+			}
+		}
+
+		final long[] pointers = AidosStorageTransactions.instance().transactionPointers(hashes);
+		for (int i = 0; i < hashes.length; i++) {
+			assertEquals(AidosStorageTransactions.instance().transactionPointer(hashes[i]), pointers[i]);
+		}
+		assertTrue(pointers[0] > 0);
+		assertTrue(pointers[1] < 0);
+		assertEquals(0, pointers[2]);
+		assertEquals(0, AidosStorageTransactions.instance().transactionPointers(new byte[0][]).length);
+	}
+}
@@ -0,0 +1,50 @@
+package com.iota.iri.service.storage;
+
+import static org.junit.Assert.*;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.aidos.iri.model.AidosHash;
+import com.aidos.iri.model.AidosTransaction;
+import com.aidos.iri.service.storage.AidosStorageTransactions;
+
+public class StorageSolidityTest {
+
+	private final StorageFixture storage = new StorageFixture();
+
+	@Before
+	public void setUp() throws Exception {
+		storage.open();
+	}
+
+	@After
+	public void tearDown() throws Exception {
+		storage.close();
+	}
+
+	@Test
+	public void testSolidityIsPropagatedWhenMissingParentArrives() {
+		// genesis <- first <- second <- third, stored in reverse order
+		final AidosTransaction first = storage.transaction(AidosHash.NULL_HASH, AidosHash.NULL_HASH);
+		final AidosTransaction second = storage.transaction(storage.hash(first), AidosHash.NULL_HASH);
+		final AidosTransaction third = storage.transaction(storage.hash(second), storage.hash(first));
+
+		final long thirdPointer = storage.store(third);
+		final long secondPointer = storage.store(second);
+		assertFalse(AidosStorageTransactions.instance().transactionSolid(thirdPointer));
+		assertFalse(AidosStorageTransactions.instance().transactionSolid(secondPointer));
+
+		final long firstPointer = storage.store(first);
+		assertTrue(AidosStorageTransactions.instance().transactionSolid(firstPointer));
+		assertTrue(AidosStorageTransactions.instance().transactionSolid(secondPointer));
+		assertTrue(AidosStorageTransactions.instance().transactionSolid(thirdPointer));
+	}
+
+	@Test
+	public void testTransactionWithUnknownParentIsNotSolid() {
+		final AidosTransaction orphan = storage.transaction(storage.randomHash(), AidosHash.NULL_HASH);
+		assertFalse(AidosStorageTransactions.instance().transactionSolid(storage.store(orphan)));
+	}
+}
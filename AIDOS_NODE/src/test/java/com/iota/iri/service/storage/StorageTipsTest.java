@@ -0,0 +1,80 @@
+package com.iota.iri.service.storage;
+
+import static org.junit.Assert.*;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.aidos.iri.model.AidosHash;
+import com.aidos.iri.model.AidosTransaction;
+import com.aidos.iri.service.storage.AidosStorageTransactions;
+
+public class StorageTipsTest {
+
+	private final StorageFixture storage = new StorageFixture();
+
+	@Before
+	public void setUp() throws Exception {
+		storage.open();
+	}
+
+	@After
+	public void tearDown() throws Exception {
+		storage.close();
+	}
+
+	@Test
+	public void testTipsFollowApprovals() {
+		final AidosTransaction first = storage.transaction(AidosHash.NULL_HASH, AidosHash.NULL_HASH);
+		final AidosTransaction second = storage.transaction(storage.hash(first), AidosHash.NULL_HASH);
+		final AidosTransaction third = storage.transaction(storage.hash(first), storage.hash(first));
+		storage.store(first);
+		assertEquals(tips(storage.hash(first)), new HashSet<>(AidosStorageTransactions.instance().tips()));
+
+		storage.store(second);
+		storage.store(third);
+		assertEquals(tips(storage.hash(second), storage.hash(third)), new HashSet<>(AidosStorageTransactions.instance().tips()));
+		assertEquals(2, AidosStorageTransactions.instance().numberOfTips());
+
+		// An unknown parent is referenced only and never becomes a tip
+		storage.store(storage.transaction(storage.randomHash(), storage.hash(second)));
+		assertEquals(2, AidosStorageTransactions.instance().numberOfTips());
+		assertFalse(AidosStorageTransactions.instance().tips().contains(storage.hash(second)));
+	}
+
+	@Test
+	public void testTipsAreReloadedWithTheStorage() throws Exception {
+		AidosHash parent = AidosHash.NULL_HASH;
+		final Set<AidosHash> tips = new HashSet<>();
+		for (int i = 0; i < 50; i++) {
+			final AidosTransaction transaction = storage.transaction(parent, AidosHash.NULL_HASH);
+			storage.store(transaction);
+			tips.remove(parent);
+			tips.add(parent = storage.hash(transaction));
+			if (i % 5 == 0) {
+				final AidosTransaction sibling = storage.transaction(AidosHash.NULL_HASH, AidosHash.NULL_HASH);
+				storage.store(sibling);
+				tips.add(storage.hash(sibling));
+			}
+		}
+		assertEquals(tips, new HashSet<>(AidosStorageTransactions.instance().tips()));
+		assertEquals(60, AidosStorageTransactions.instance().numberOfStoredTransactions());
+
+		storage.reopen();
+		assertEquals(tips, new HashSet<>(AidosStorageTransactions.instance().tips()));
+		assertEquals(tips.size(), AidosStorageTransactions.instance().numberOfTips());
+		assertEquals(60, AidosStorageTransactions.instance().numberOfStoredTransactions());
+	}
+
+	private Set<AidosHash> tips(final AidosHash... hashes) {
+		final Set<AidosHash> tips = new HashSet<>();
+		for (final AidosHash hash : hashes) {
+			tips.add(hash);
+		}
+		return tips;
+	}
+}
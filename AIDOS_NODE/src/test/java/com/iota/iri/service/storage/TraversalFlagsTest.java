@@ -0,0 +1,73 @@
+package com.iota.iri.service.storage;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+import com.aidos.iri.service.storage.AidosAbstractStorage;
+import com.aidos.iri.service.storage.AidosStorageScratchpad;
+import com.aidos.iri.service.storage.AidosTraversalFlags;
+
+public class TraversalFlagsTest {
+
+	final static long FIRST_POINTER = AidosAbstractStorage.CELLS_OFFSET - AidosAbstractStorage.SUPER_GROUPS_OFFSET;
+	final static long FAR_POINTER = FIRST_POINTER + 3L * AidosAbstractStorage.CHUNK_SIZE + 5 * AidosAbstractStorage.CELL_SIZE;
+
+	@Test
+	public void testSetClearSaveAndLoad() {
+		try (final AidosTraversalFlags flags = AidosStorageScratchpad.instance().traversalFlags()) {
+			assertTrue(flags.set(FIRST_POINTER));
+			assertFalse(flags.set(FIRST_POINTER));
+			assertTrue(flags.set(FAR_POINTER));
+			assertFalse(flags.get(FAR_POINTER + AidosAbstractStorage.CELL_SIZE));
+
+			flags.save();
+			flags.clear();
+			assertFalse(flags.get(FIRST_POINTER));
+			assertFalse(flags.get(FAR_POINTER));
+			assertTrue(flags.set(FAR_POINTER + AidosAbstractStorage.CELL_SIZE));
+
+			flags.load();
+			assertTrue(flags.get(FIRST_POINTER));
+			assertTrue(flags.get(FAR_POINTER));
+			assertFalse(flags.get(FAR_POINTER + AidosAbstractStorage.CELL_SIZE));
+		}
+	}
+
+	@Test
+	public void testSaveAfterLoadKeepsBothLayers() {
+		try (final AidosTraversalFlags flags = AidosStorageScratchpad.instance().traversalFlags()) {
+			flags.set(FIRST_POINTER);
+			flags.save();
+			flags.clear();
+			flags.load();
+			assertTrue(flags.set(FAR_POINTER));
+			flags.save();
+			flags.clear();
+			for (int i = 0; i < 1000; i++) {
+				assertTrue(flags.set(FAR_POINTER + AidosAbstractStorage.CELL_SIZE));
+				flags.clear();
+			}
+
+			flags.load();
+			assertTrue(flags.get(FIRST_POINTER));
+			assertTrue(flags.get(FAR_POINTER));
+			assertFalse(flags.get(FAR_POINTER + AidosAbstractStorage.CELL_SIZE));
+		}
+	}
+
+	@Test
+	public void testConcurrentWalksGetIndependentFlags() {
+		try (final AidosTraversalFlags first = AidosStorageScratchpad.instance().traversalFlags();
+				final AidosTraversalFlags second = AidosStorageScratchpad.instance().traversalFlags()) {
+			assertNotSame(first, second);
+			assertTrue(first.set(FIRST_POINTER));
+			assertTrue(second.set(FIRST_POINTER));
+		}
+		try (final AidosTraversalFlags reused = AidosStorageScratchpad.instance().traversalFlags()) {
+			assertFalse("Released flags should come back cleared", reused.get(FIRST_POINTER));
+			reused.load();
+			assertFalse(reused.get(FIRST_POINTER));
+		}
+	}
+}
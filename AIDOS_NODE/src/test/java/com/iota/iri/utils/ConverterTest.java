@@ -0,0 +1,95 @@
+package com.iota.iri.utils;
+
+import static org.junit.Assert.*;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.Test;
+
+import com.aidos.iri.model.AidosHash;
+import com.aidos.iri.model.AidosTransaction;
+import com.aidos.iri.utils.AidosConverter;
+
+public class ConverterTest {
+
+	private final Random rand = new Random();
+
+	@Test
+	public void testPackedRangesMatchUnpackedTrits() {
+		final int[] trits = randomTrits(AidosTransaction.TRINARY_SIZE);
+		final byte[] bytes = AidosConverter.bytes(trits);
+		for (int i = 0; i < 1000; i++) {
+			final int offset = rand.nextInt(trits.length), size = rand.nextInt(Math.min(trits.length - offset, 300)) + 1;
+			assertArrayEquals(Arrays.copyOfRange(trits, offset, offset + size), AidosConverter.trits(bytes, offset, size));
+			assertArrayEquals(AidosConverter.bytes(trits, offset, size), AidosConverter.bytes(bytes, offset, size));
+			assertEquals(trits[offset], AidosConverter.trit(bytes, offset));
+			if (size <= 39) {
+				assertEquals(AidosConverter.longValue(trits, offset, size), AidosConverter.longValue(bytes, offset, size));
+			}
+		}
+	}
+
+	@Test
+	public void testTransactionFieldsFromPackedBytes() {
+		final int[] trits = randomTrits(AidosTransaction.TRINARY_SIZE);
+		Arrays.fill(trits, AidosTransaction.VALUE_TRINARY_OFFSET + AidosTransaction.VALUE_USABLE_TRINARY_SIZE, AidosTransaction.VALUE_TRINARY_OFFSET + AidosTransaction.VALUE_TRINARY_SIZE, 0);
+		final int[] hashTrits = new int[243]; // A hash made of zero trits passes the weight check
+		final AidosTransaction fromTrits = new AidosTransaction(trits, hashTrits);
+		final AidosTransaction fromBytes = new AidosTransaction(fromTrits.bytes, hashTrits);
+		assertArrayEquals(fromTrits.address, fromBytes.address);
+		assertEquals(fromTrits.value, fromBytes.value);
+		assertArrayEquals(fromTrits.tag, fromBytes.tag);
+		assertEquals(fromTrits.currentIndex, fromBytes.currentIndex);
+		assertEquals(fromTrits.lastIndex, fromBytes.lastIndex);
+		assertArrayEquals(fromTrits.bundle, fromBytes.bundle);
+		assertArrayEquals(fromTrits.trunkTransaction, fromBytes.trunkTransaction);
+		assertArrayEquals(fromTrits.branchTransaction, fromBytes.branchTransaction);
+		assertArrayEquals(trits, fromBytes.trits());
+	}
+
+	@Test
+	public void testTrytesRoundTrips() {
+		for (int i = 0; i < 1000; i++) {
+			final int size = (rand.nextInt(300) + 1) * AidosConverter.NUMBER_OF_TRITS_IN_A_TRYTE;
+			final int[] trits = randomTrits(size);
+			final String trytes = AidosConverter.trytes(trits);
+			assertArrayEquals(trits, AidosConverter.trits(trytes));
+			assertArrayEquals(AidosConverter.bytes(trits), AidosConverter.bytes(trytes));
+			assertEquals(trytes, AidosConverter.trytes(AidosConverter.bytes(trits), 0, size));
+		}
+	}
+
+	@Test
+	public void testTrytesFromUnalignedPackedRanges() {
+		final int[] trits = randomTrits(AidosTransaction.TRINARY_SIZE);
+		final byte[] bytes = AidosConverter.bytes(trits);
+		for (int i = 0; i < 1000; i++) {
+			final int offset = rand.nextInt(trits.length - 300), size = rand.nextInt(300) + 1;
+			final int[] padded = Arrays.copyOf(Arrays.copyOfRange(trits, offset, offset + size), (size + 2) / 3 * 3);
+			assertEquals(AidosConverter.trytes(padded), AidosConverter.trytes(bytes, offset, size));
+		}
+	}
+
+	@Test(expected = RuntimeException.class)
+	public void testInvalidTrytes() {
+		AidosConverter.bytes("ABC!EF");
+	}
+
+	@Test
+	public void testHashTrytes() {
+		final int[] trits = randomTrits(243);
+		final AidosHash hash = new AidosHash(trits);
+		assertEquals(AidosConverter.trytes(trits), hash.toString());
+		assertEquals(hash, new AidosHash(hash.toString()));
+		assertEquals(hash, new AidosHash(hash.toString() + "ABCDEFGHI"));
+	}
+
+	private int[] randomTrits(final int length) {
+		final int[] trits = new int[length];
+		for (int i = 0; i < length; i++) {
+			trits[i] = rand.nextInt(3) - 1;
+		}
+		return trits;
+	}
+}
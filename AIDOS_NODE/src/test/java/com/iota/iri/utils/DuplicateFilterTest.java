@@ -0,0 +1,77 @@
+package com.iota.iri.utils;
+
+import static org.junit.Assert.*;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.Test;
+
+import com.aidos.iri.model.AidosTransaction;
+import com.aidos.iri.utils.AidosDuplicateFilter;
+
+public class DuplicateFilterTest {
+
+	private final Random rand = new Random();
+
+	@Test
+	public void testSeenPayloadsAreRecognized() {
+		final AidosDuplicateFilter filter = new AidosDuplicateFilter(1024);
+		final byte[] payload = randomBytes(AidosTransaction.SIZE + AidosTransaction.HASH_SIZE);
+		final byte[] hash = randomBytes(AidosTransaction.HASH_SIZE);
+		final long fingerprint = AidosDuplicateFilter.fingerprint(payload, 0, AidosTransaction.SIZE);
+		assertNull(filter.hash(fingerprint, payload, 0));
+		filter.add(fingerprint, Arrays.copyOf(payload, AidosTransaction.SIZE), hash);
+		assertSame(hash, filter.hash(fingerprint, payload, 0));
+
+		// The request appended to the transaction is not part of it
+		payload[AidosTransaction.SIZE]++;
+		assertEquals(fingerprint, AidosDuplicateFilter.fingerprint(payload, 0, AidosTransaction.SIZE));
+		assertSame(hash, filter.hash(fingerprint, payload, 0));
+		payload[AidosTransaction.SIZE - 1]++;
+		assertNull(filter.hash(AidosDuplicateFilter.fingerprint(payload, 0, AidosTransaction.SIZE), payload, 0));
+	}
+
+	@Test
+	public void testCollidingPayloadsAreNotRecognized() {
+		final AidosDuplicateFilter filter = new AidosDuplicateFilter(1024);
+		final byte[] payload = randomBytes(AidosTransaction.SIZE);
+		final long fingerprint = AidosDuplicateFilter.fingerprint(payload, 0, AidosTransaction.SIZE);
+		filter.add(fingerprint, payload.clone(), randomBytes(AidosTransaction.HASH_SIZE));
+
+		// Another transaction given the same fingerprint must still be hashed
+		payload[0]++;
+		assertNull(filter.hash(fingerprint, payload, 0));
+	}
+
+	@Test
+	public void testOldEntriesAreForgotten() {
+		final AidosDuplicateFilter filter = new AidosDuplicateFilter(64);
+		final long[] fingerprints = new long[10000];
+		final byte[][] payloads = new byte[fingerprints.length][];
+		for (int i = 0; i < fingerprints.length; i++) {
+			payloads[i] = randomBytes(AidosTransaction.SIZE);
+			fingerprints[i] = AidosDuplicateFilter.fingerprint(payloads[i], 0, AidosTransaction.SIZE);
+			filter.add(fingerprints[i], payloads[i], new byte[] { (byte) i });
+		}
+		int remembered = 0;
+		for (int i = 0; i < fingerprints.length; i++) {
+			if (filter.hash(fingerprints[i], payloads[i], 0) != null) {
+				remembered++;
+			}
+		}
+		assertTrue(remembered <= 64);
+		assertNotNull(filter.hash(fingerprints[fingerprints.length - 1], payloads[fingerprints.length - 1], 0));
+	}
+
+	@Test(expected = RuntimeException.class)
+	public void testCapacityMustBeAPowerOfTwo() {
+		new AidosDuplicateFilter(1000);
+	}
+
+	private byte[] randomBytes(final int length) {
+		final byte[] bytes = new byte[length];
+		rand.nextBytes(bytes);
+		return bytes;
+	}
+}
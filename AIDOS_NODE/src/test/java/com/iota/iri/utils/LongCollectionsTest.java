@@ -0,0 +1,103 @@
+package com.iota.iri.utils;
+
+import static org.junit.Assert.*;
+
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.Test;
+
+import com.aidos.iri.utils.AidosLongList;
+import com.aidos.iri.utils.AidosLongQueue;
+import com.aidos.iri.utils.AidosLongSet;
+
+public class LongCollectionsTest {
+
+	@Test
+	public void testQueueKeepsOrderWhileGrowingAcrossTheWrap() {
+		final AidosLongQueue queue = new AidosLongQueue(4);
+		long next = 0, expected = 0;
+		for (int round = 0; round < 100; round++) {
+			for (int i = 0; i < 3; i++) {
+				queue.offer(next++);
+			}
+			assertEquals(expected++, queue.poll());
+			assertEquals(expected++, queue.poll());
+		}
+		assertEquals(next - expected, queue.size());
+		while (!queue.isEmpty()) {
+			assertEquals(expected++, queue.poll());
+		}
+		assertEquals(next, expected);
+	}
+
+	@Test
+	public void testSetMatchesHashSet() {
+		final Random rand = new Random();
+		final AidosLongSet set = new AidosLongSet();
+		final Set<Long> reference = new HashSet<>();
+		for (int i = 0; i < 100000; i++) {
+			final long value = rand.nextInt(50000) * 2048L;
+			assertEquals(reference.add(value), set.add(value));
+		}
+		assertEquals(reference.size(), set.size());
+		for (final long value : reference) {
+			assertTrue(set.contains(value));
+		}
+		assertFalse(set.contains(-2048));
+	}
+
+	@Test
+	public void testSetRemoveMatchesHashSet() {
+		final Random rand = new Random();
+		final AidosLongSet set = new AidosLongSet();
+		final Set<Long> reference = new HashSet<>();
+		for (int i = 0; i < 100000; i++) {
+			final long value = rand.nextInt(5000) * 2048L;
+			if (rand.nextBoolean()) {
+				assertEquals(reference.add(value), set.add(value));
+			} else {
+				assertEquals(reference.remove(value), set.remove(value));
+			}
+		}
+		assertEquals(reference.size(), set.size());
+		for (long value = 0; value < 5000 * 2048L; value += 2048) {
+			assertEquals(reference.contains(value), set.contains(value));
+		}
+	}
+
+	@Test
+	public void testSetRetainAllAndZero() {
+		final AidosLongSet first = new AidosLongSet(), second = new AidosLongSet();
+		for (long i = 0; i < 100; i++) {
+			first.add(i);
+			if (i % 3 == 0) {
+				second.add(i);
+			}
+		}
+		first.retainAll(second);
+		assertEquals(34, first.size());
+		assertTrue(first.contains(0));
+		assertTrue(first.contains(99));
+		assertFalse(first.contains(98));
+
+		final AidosLongList elements = new AidosLongList();
+		first.forEach(elements::add);
+		assertEquals(34, elements.size());
+	}
+
+	@Test
+	public void testListAddAll() {
+		final AidosLongList first = new AidosLongList(1), second = new AidosLongList();
+		for (long i = 0; i < 50; i++) {
+			first.add(i);
+			second.add(i + 50);
+		}
+		first.addAll(second);
+		assertEquals(100, first.size());
+		for (int i = 0; i < 100; i++) {
+			assertEquals(i, first.get(i));
+		}
+	}
+}
@@ -0,0 +1,25 @@
+package com.iota.iri.utils;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+import com.aidos.iri.utils.AidosLruCache;
+
+public class LruCacheTest {
+
+	@Test
+	public void testLeastRecentlyUsedEntriesAreDropped() {
+		final AidosLruCache<Integer, String> cache = new AidosLruCache<>(3);
+		cache.put(1, "1");
+		cache.put(2, "2");
+		cache.put(3, "3");
+		assertEquals("1", cache.get(1));
+		cache.put(4, "4");
+		assertEquals(3, cache.size());
+		assertNull(cache.get(2));
+		assertEquals("1", cache.get(1));
+		assertEquals("3", cache.get(3));
+		assertEquals("4", cache.get(4));
+	}
+}
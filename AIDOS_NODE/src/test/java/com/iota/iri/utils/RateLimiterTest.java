@@ -0,0 +1,34 @@
+package com.iota.iri.utils;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+import com.aidos.iri.utils.AidosRateLimiter;
+
+public class RateLimiterTest {
+
+	@Test
+	public void testEventsBeyondTheRateAreRefused() {
+		final AidosRateLimiter limiter = new AidosRateLimiter(10);
+		final long start = System.nanoTime();
+		int allowed = 0;
+		for (int i = 0; i < 100; i++) {
+			if (limiter.tryAcquire(start)) {
+				allowed++;
+			}
+		}
+		assertEquals(10, allowed);
+		assertFalse(limiter.tryAcquire(start + 50_000_000L));
+		assertTrue(limiter.tryAcquire(start + 100_000_000L));
+		assertFalse(limiter.tryAcquire(start + 100_000_000L));
+	}
+
+	@Test
+	public void testZeroMeansNoLimit() {
+		final AidosRateLimiter limiter = new AidosRateLimiter(0);
+		for (int i = 0; i < 1000; i++) {
+			assertTrue(limiter.tryAcquire());
+		}
+	}
+}
@@ -0,0 +1,54 @@
+package com.iota.iri.utils;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.Test;
+
+import com.aidos.iri.utils.AidosStageQueue;
+
+public class StageQueueTest {
+
+	@Test
+	public void testFullQueueStallsProducerUntilConsumed() throws Exception {
+		final AidosStageQueue<Integer> queue = new AidosStageQueue<>(2, new AtomicBoolean());
+		assertTrue(queue.put(1));
+		assertTrue(queue.put(2));
+		assertEquals(0, queue.stalls());
+
+		final Thread producer = new Thread(() -> {
+			try {
+				queue.put(3);
+			} catch (final InterruptedException e) {
+				// ends the test thread
+			}
+		});
+		producer.start();
+		while (queue.stalls() == 0) {
+			Thread.sleep(1);
+		}
+		assertEquals(1, (int) queue.take());
+		producer.join(1000);
+		assertFalse(producer.isAlive());
+
+		final List<Integer> elements = new ArrayList<>();
+		assertEquals(2, queue.drainTo(elements, 10));
+		assertEquals(2, (int) elements.get(0));
+		assertEquals(3, (int) elements.get(1));
+		assertEquals(1, queue.stalls());
+	}
+
+	@Test
+	public void testStoppedQueueReleasesBothSides() throws Exception {
+		final AtomicBoolean stopped = new AtomicBoolean();
+		final AidosStageQueue<Integer> queue = new AidosStageQueue<>(1, stopped);
+		assertTrue(queue.put(1));
+		stopped.set(true);
+		assertFalse(queue.put(2));
+		assertEquals(1, (int) queue.take());
+		assertNull(queue.take());
+	}
+}
@@ -0,0 +1,26 @@
+package com.iota.iri.utils;
+
+import static org.junit.Assert.*;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+
+import com.aidos.iri.utils.AidosUdpStatistics;
+
+public class UdpStatisticsTest {
+
+	@Test
+	public void testDropsOfTheSocketsBoundToThePortAreSummed() {
+		final List<String> table = Arrays.asList(
+				"   sl  local_address rem_address   st tx_queue rx_queue tr tm->when retrnsmt   uid  timeout inode ref pointer drops",
+				"  133: 00000000:37D9 00000000:0000 07 00000000:00000000 00:00000000 00000000     0        0 21474 2 0000000000000000 12",
+				"  134: 0100007F:37D9 00000000:0000 07 00000000:00000000 00:00000000 00000000     0        0 21475 2 0000000000000000 3",
+				"  201: 00000000:0035 00000000:0000 07 00000000:00000000 00:00000000 00000000     0        0 21476 2 0000000000000000 40",
+				"   75: 00000000000000000000000000000000:37D9 00000000000000000000000000000000:0000 07 00000000:00000000 00:00000000 00000000     0        0 21477 2 0000000000000000 5");
+		assertEquals(20, AidosUdpStatistics.droppedPackets(table, 14297));
+		assertEquals(40, AidosUdpStatistics.droppedPackets(table, 53));
+		assertEquals(0, AidosUdpStatistics.droppedPackets(table, 14265));
+	}
+}